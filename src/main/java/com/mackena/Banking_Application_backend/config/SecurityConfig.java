@@ -3,6 +3,7 @@ package com.mackena.Banking_Application_backend.config;
 import com.mackena.Banking_Application_backend.security.CustomUserDetailsService;
 import com.mackena.Banking_Application_backend.security.JwtAuthenticationFilter;
 import com.mackena.Banking_Application_backend.security.JwtTokenProvider;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -60,6 +61,9 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults()) // Enable CORS
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // A streamed response (statement export) ends with an async dispatch of a request that
+                        // was already authorized; the JWT filter does not run again for it
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/login", "/api/auth/register").permitAll()
                         .requestMatchers("/api/transactions/deposit").hasRole("ADMIN")
                         .requestMatchers("/api/transactions/withdraw").hasAnyRole("USER", "ADMIN")
@@ -92,7 +96,8 @@ public class SecurityConfig {
                 "Content-Type",
                 "X-Requested-With",
                 "Accept",
-                "Origin"
+                "Origin",
+                "Idempotency-Key"
         ));
 
         configuration.setAllowCredentials(false);
@@ -1,12 +1,15 @@
 package com.mackena.Banking_Application_backend.controller;
 
+import com.mackena.Banking_Application_backend.dto.response.LowBalanceAccountsResponse;
 import com.mackena.Banking_Application_backend.dtos.request.CreateAccountRequest;
+import com.mackena.Banking_Application_backend.dtos.request.ValidateAccountsRequest;
 import com.mackena.Banking_Application_backend.dtos.response.*;
 import com.mackena.Banking_Application_backend.models.entity.Account;
 import com.mackena.Banking_Application_backend.models.entity.User;
 import com.mackena.Banking_Application_backend.repository.AccountRepository;
 import com.mackena.Banking_Application_backend.security.CurrentUser;
 import com.mackena.Banking_Application_backend.service.AccountService;
+import com.mackena.Banking_Application_backend.service.BalanceSnapshotService;
 import com.mackena.Banking_Application_backend.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,7 +20,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
 
@@ -28,9 +32,12 @@ import java.util.Optional;
 public class AccountController {
 
     private final AccountService accountService;
+    private final BalanceSnapshotService balanceSnapshotService;
     private final UserService userService;
     private final AccountRepository accountRepository;
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     //get all accounts for the user
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
@@ -60,24 +67,21 @@ public class AccountController {
         return ResponseEntity.ok(response);
     }
 
-    // FIXED: Combined both low balance methods into one comprehensive method
+    // Pages through active accounts below the threshold, lowest balance first
     @GetMapping("/low-balance")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse> getLowBalanceAccounts(
             @RequestParam(defaultValue = "100") BigDecimal threshold,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
             @CurrentUser UserDetails userDetails) {
 
-        log.info("Admin {} requesting low balance accounts with threshold: {}",
-                userDetails.getUsername(), threshold);
+        log.info("Admin {} requesting low balance accounts with threshold: {}, page: {}, size: {}",
+                userDetails.getUsername(), threshold, page, size);
 
         try {
-            List<Account> lowBalanceAccounts = accountService.findAccountsWithBalanceBelow(threshold);
-
-            Map<String, Object> response = Map.of(
-                    "accounts", lowBalanceAccounts,
-                    "count", lowBalanceAccounts.size(),
-                    "threshold", threshold
-            );
+            LowBalanceAccountsResponse response = accountService.getLowBalanceAccounts(
+                    threshold, page, Math.min(size, MAX_PAGE_SIZE));
 
             return ResponseEntity.ok(ApiResponse.builder()
                     .success(true)
@@ -85,6 +89,11 @@ public class AccountController {
                     .data(response)
                     .build());
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
         } catch (Exception e) {
             log.error("Error retrieving low balance accounts", e);
             return ResponseEntity.badRequest().body(ApiResponse.builder()
@@ -182,11 +191,46 @@ public class AccountController {
                     .build());
         }
     }
-    // Get account balance only
+
+    // Validate many accounts for transfer at once, e.g. every payee of a bulk payment
+    @PostMapping("/validate-batch")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> validateAccountsForTransfer(
+            @Valid @RequestBody ValidateAccountsRequest request) {
+
+        log.info("Validating {} accounts for transfer", request.getAccountNumbers().size());
+
+        try {
+            AccountValidationResponse response = accountService.validateAccountsForTransfer(
+                    request.getAccountNumbers());
+
+            return ResponseEntity.ok(ApiResponse.builder()
+                    .success(true)
+                    .message("Validated " + response.getTotalAccounts() + " accounts for transfers")
+                    .data(response)
+                    .build());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
+        } catch (Exception e) {
+            log.error("Error validating {} accounts for transfer", request.getAccountNumbers().size(), e);
+            return ResponseEntity.badRequest().body(ApiResponse.builder()
+                    .success(false)
+                    .message("Account validation failed")
+                    .build());
+        }
+    }
+
+    // Get account balance only, now or as of a past moment (asOf: a date for that day's closing balance, or a
+    // date-time for the balance just before it)
     @GetMapping("/{accountNumber}/balance")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse> getAccountBalance(
             @PathVariable String accountNumber,
+            @RequestParam(required = false) String asOf,
             @CurrentUser UserDetails userDetails) {
 
         log.info("Getting balance for account: {} by user: {}", accountNumber, userDetails.getUsername());
@@ -204,6 +248,17 @@ public class AccountController {
                         .build());
             }
 
+            if (asOf != null && !asOf.isBlank()) {
+                LocalDateTime moment = asOf.contains("T")
+                        ? LocalDateTime.parse(asOf.trim())
+                        : LocalDate.parse(asOf.trim()).plusDays(1).atStartOfDay();
+                return ResponseEntity.ok(ApiResponse.builder()
+                        .success(true)
+                        .message("Balance retrieved successfully")
+                        .data(Map.of("balance", balanceSnapshotService.balanceAsOf(account, moment), "asOf", moment))
+                        .build());
+            }
+
             return ResponseEntity.ok(ApiResponse.builder()
                     .success(true)
                     .message("Balance retrieved successfully")
@@ -231,14 +286,7 @@ public class AccountController {
         log.info("Admin {} searching accounts with query: {}", userDetails.getUsername(), query);
 
         try {
-            List<Account> accounts = accountService.searchAccounts(query, page, size);
-
-            Map<String, Object> response = Map.of(
-                    "accounts", accounts,
-                    "totalResults", accounts.size(),
-                    "page", page,
-                    "size", size
-            );
+            AccountSearchResponse response = accountService.searchAccounts(query, page, Math.min(size, MAX_PAGE_SIZE));
 
             return ResponseEntity.ok(ApiResponse.builder()
                     .success(true)
@@ -246,6 +294,11 @@ public class AccountController {
                     .data(response)
                     .build());
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
         } catch (Exception e) {
             log.error("Error searching accounts with query: {}", query, e);
             return ResponseEntity.badRequest().body(ApiResponse.builder()
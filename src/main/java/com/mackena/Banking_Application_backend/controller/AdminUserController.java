@@ -66,10 +66,9 @@ public class AdminUserController {
             Sort sort = Sort.by(direction, validSortBy);
             Pageable pageable = PageRequest.of(page, size, sort);
 
-            Page<User> users = getUsersPage(pageable);
-            Page<UserResponse> userResponses = users.map(entityConverter::toUserResponse); // Use EntityConverter
+            Page<UserResponse> userResponses = userService.getAllUsers(pageable);
 
-            log.info("Successfully retrieved {} users", users.getTotalElements());
+            log.info("Successfully retrieved {} users", userResponses.getTotalElements());
             return ResponseEntity.ok(userResponses);
 
         } catch (Exception e) {
@@ -103,17 +102,4 @@ public class AdminUserController {
             return "id";
         }
     }
-
-    private Page<User> getUsersPage(Pageable pageable) {
-        try {
-            return userService.getAllUsers(pageable);
-        } catch (Exception e) {
-            log.warn("Falling back to list-based user retrieval");
-            List<User> allUsers = (List<User>) userService.getAllUsers(pageable);
-            int start = (int) pageable.getOffset();
-            int end = Math.min(start + pageable.getPageSize(), allUsers.size());
-            List<User> pageContent = allUsers.subList(start, end);
-            return new org.springframework.data.domain.PageImpl<>(pageContent, pageable, allUsers.size());
-        }
-    }
 }
\ No newline at end of file
@@ -3,16 +3,28 @@ package com.mackena.Banking_Application_backend.controller;
 import com.mackena.Banking_Application_backend.dtos.request.*;
 import com.mackena.Banking_Application_backend.dtos.response.*;
 import com.mackena.Banking_Application_backend.exceptions.InvalidAccountException;
+import com.mackena.Banking_Application_backend.models.entity.Account;
 import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.StatementFormat;
 import com.mackena.Banking_Application_backend.security.CurrentUser;
 import com.mackena.Banking_Application_backend.service.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -25,19 +37,41 @@ public class TransactionController {
     private final TransferService transferService;
     private final TransactionHistoryService transactionHistoryService;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionAuthorizationService transactionAuthorizationService;
+    private final TransactionExportService transactionExportService;
+    private final BalanceSnapshotService balanceSnapshotService;
+
+    // Verifies the PIN once and returns a short-lived token that withdraw and transfer accept in its place
+    @PostMapping("/authorize")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<TransactionAuthorizationResponse> authorizeTransactions(
+            @Valid @RequestBody TransactionAuthorizationRequest request,
+            @CurrentUser UserDetails userDetails) {
+
+        log.info("Transaction token request from user: {} for account: {}",
+                userDetails.getUsername(), request.getAccountNumber());
+
+        User currentUser = userService.findUserByEmail(userDetails.getUsername());
+        TransactionAuthorizationResponse response = transactionAuthorizationService.authorize(request, currentUser);
+
+        return ResponseEntity.ok(response);
+    }
 
     // Withdrawal endpoint (users with account only can withdraw)
     @PostMapping("/withdraw")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<TransactionResponse> withdrawMoney(
             @Valid @RequestBody WithdrawalRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @CurrentUser UserDetails userDetails) {
 
         log.info("Withdrawal request from user: {} for amount: {}",
                 userDetails.getUsername(), request.getAmount());
 
         User currentUser = userService.findUserByEmail(userDetails.getUsername());
-        TransactionResponse response = withdrawalService.processWithdrawal(request, currentUser);
+        TransactionResponse response = idempotencyService.execute(idempotencyKey, currentUser, "WITHDRAW", request,
+                TransactionResponse.class, () -> withdrawalService.processWithdrawal(request, currentUser));
 
         return ResponseEntity.ok(response);
     }
@@ -47,13 +81,15 @@ public class TransactionController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<TransactionResponse> depositMoney(
             @Valid @RequestBody DepositRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @CurrentUser UserDetails userDetails) {
 
         log.info("Deposit request from admin: {} for amount: {} to account: {}",
                 userDetails.getUsername(), request.getAmount(), request.getAccountNumber());
 
         User adminUser = userService.findUserByEmail(userDetails.getUsername());
-        TransactionResponse response = depositService.processDeposit(request, adminUser);
+        TransactionResponse response = idempotencyService.execute(idempotencyKey, adminUser, "DEPOSIT", request,
+                TransactionResponse.class, () -> depositService.processDeposit(request, adminUser));
 
         return ResponseEntity.ok(response);
     }
@@ -63,13 +99,15 @@ public class TransactionController {
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<TransferResponse> transferMoney(
             @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @CurrentUser UserDetails userDetails) throws InvalidAccountException {
 
         log.info("Transfer request received from user: {} for amount: {}",
                 userDetails.getUsername(), request.getAmount());
 
             User currentUser = userService.findUserByEmail(userDetails.getUsername());
-            TransferResponse response = transferService.transferMoney(request, currentUser);
+            TransferResponse response = idempotencyService.execute(idempotencyKey, currentUser, "TRANSFER", request,
+                    TransferResponse.class, () -> transferService.transferMoney(request, currentUser));
 
             log.info("Transfer completed successfully with reference: {}", response.getTransferReference());
             return ResponseEntity.ok(response);
@@ -90,6 +128,8 @@ public class TransactionController {
             @RequestParam(defaultValue = "DESC") String sortDirection,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal,
             @CurrentUser UserDetails userDetails) {
 
         log.info("Transaction history request from user: {} for account: {}",
@@ -99,6 +139,8 @@ public class TransactionController {
         TransactionHistoryRequest request = buildTransactionHistoryRequest(
                 accountNumber, startDate, endDate, transactionType, transactionDirection,
                 minAmount, maxAmount, sortBy, sortDirection, page, size);
+        request.setCursor(cursor);
+        request.setIncludeTotal(includeTotal);
 
         User currentUser = userService.findUserByEmail(userDetails.getUsername());
         TransactionHistoryResponse response = transactionHistoryService.getTransactionHistory(request, currentUser);
@@ -108,6 +150,63 @@ public class TransactionController {
 
 //
 
+    // Full statement for an account and date range as CSV or NDJSON. The body is written while rows are read
+    // from the database, so it can be downloaded in one request whatever its size.
+    // The X-Opening-Balance header is the balance before its first line.
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @RequestParam String accountNumber,
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "CSV") String format,
+            @CurrentUser UserDetails userDetails) {
+
+        log.info("Statement export request from user: {} for account: {}", userDetails.getUsername(), accountNumber);
+
+        StatementFormat statementFormat = parseStatementFormat(format);
+        LocalDateTime start = parseStatementDate(startDate, LocalTime.MIN);
+        LocalDateTime end = parseStatementDate(endDate, LocalTime.MAX);
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+
+        User currentUser = userService.findUserByEmail(userDetails.getUsername());
+        Account account = transactionExportService.findExportableAccount(accountNumber, currentUser);
+        Long accountId = account.getId();
+
+        StreamingResponseBody body = outputStream ->
+                transactionExportService.writeStatement(accountId, start, end, statementFormat, outputStream);
+        String filename = "statement-" + account.getAccountNumber() + "." + statementFormat.name().toLowerCase();
+
+        // From the balance snapshots, not from the rows before the range
+        BigDecimal openingBalance = balanceSnapshotService.balanceAsOf(account, start);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(statementFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .header("X-Opening-Balance", openingBalance.toPlainString())
+                .body(body);
+    }
+
+    private StatementFormat parseStatementFormat(String format) {
+        try {
+            return StatementFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (use CSV or NDJSON)");
+        }
+    }
+
+    // Unlike the history filters, a statement's range is required, so a bad date is rejected, not ignored.
+    // A plain date covers the whole day.
+    private LocalDateTime parseStatementDate(String date, LocalTime timeOfDay) {
+        try {
+            return date.contains("T") ? LocalDateTime.parse(date.trim()) : LocalDate.parse(date.trim()).atTime(timeOfDay);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + date);
+        }
+    }
+
     // getting all transactions by admin
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
@@ -122,6 +221,8 @@ public class TransactionController {
             @RequestParam(defaultValue = "DESC") String sortDirection,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal,
             @CurrentUser UserDetails userDetails) {
 
         log.info("Admin requesting all transactions with filters");
@@ -130,6 +231,8 @@ public class TransactionController {
         TransactionHistoryRequest request = buildTransactionHistoryRequest(
                 null, startDate, endDate, transactionType, transactionDirection,
                 minAmount, maxAmount, sortBy, sortDirection, page, size);
+        request.setCursor(cursor);
+        request.setIncludeTotal(includeTotal);
 
         TransactionHistoryResponse response = transactionHistoryService.getAllTransactionsForAdmin(request);
 
@@ -243,6 +346,8 @@ public class TransactionController {
             @RequestParam(defaultValue = "DESC") String sortDirection,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal,
             @CurrentUser UserDetails userDetails) {
 
         log.info("Admin {} requesting transactions for user ID: {}", userDetails.getUsername(), userId);
@@ -251,6 +356,8 @@ public class TransactionController {
         TransactionHistoryRequest request = buildTransactionHistoryRequestWithUserId(
                 userId, null, startDate, endDate, transactionType, transactionDirection,
                 minAmount, maxAmount, sortBy, sortDirection, page, size);
+        request.setCursor(cursor);
+        request.setIncludeTotal(includeTotal);
 
         TransactionHistoryResponse response = transactionHistoryService.getUserTransactionsForAdmin(request);
 
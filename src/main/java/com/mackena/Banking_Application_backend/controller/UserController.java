@@ -57,7 +57,7 @@ public class UserController {
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        UserListResponse response = (UserListResponse) userService.getAllUsers(pageable);
+        UserListResponse response = UserListResponse.from(userService.getAllUsers(pageable));
         return ResponseEntity.ok(response);
     }
 
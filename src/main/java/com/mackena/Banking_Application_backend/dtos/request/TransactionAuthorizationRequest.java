@@ -0,0 +1,26 @@
+package com.mackena.Banking_Application_backend.dtos.request;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class TransactionAuthorizationRequest {
+
+    @NotBlank(message = "Account number is required")
+    private String accountNumber;
+
+    @NotBlank(message = "Transaction PIN is required")
+    @Size(min = 4, max = 6, message = "PIN must be 4-6 digits")
+    private String transactionPin;
+
+    // Total that all uses of the token together may move out of the account
+    @NotNull(message = "Maximum amount is required")
+    @DecimalMin(value = "0.01", message = "Maximum amount must be greater than 0")
+    @Digits(integer = 13, fraction = 2, message = "Invalid amount format")
+    private BigDecimal maxAmount;
+
+    @Min(value = 1, message = "Token must allow at least one use")
+    private Integer maxUses;
+}
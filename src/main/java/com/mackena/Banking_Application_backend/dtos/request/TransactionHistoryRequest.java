@@ -36,6 +36,13 @@ public class TransactionHistoryRequest {
     private int page = 0;
     private int size = 20;
 
+    // false skips counting: the response only says whether a next page exists
+    private boolean includeTotal = true;
+
+    // Keyset pagination: when set (empty for the first page), page is ignored and the next page starts after
+    // this cursor, taken from the previous response's nextCursor. Only createdAt ordering is supported.
+    private String cursor;
+
 
 
 }
@@ -0,0 +1,15 @@
+package com.mackena.Banking_Application_backend.dtos.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ValidateAccountsRequest {
+
+    // At most app.account-validation.max-batch-size numbers per request
+    @NotEmpty(message = "At least one account number is required")
+    private List<@NotBlank(message = "Account numbers cannot be blank") String> accountNumbers;
+}
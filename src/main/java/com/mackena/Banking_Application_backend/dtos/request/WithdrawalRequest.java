@@ -19,7 +19,10 @@ public class WithdrawalRequest {
     @Size(max = 500, message = "Notes cannot exceed 500 characters")
     private String notes;
 
-    @NotBlank(message = "Transaction PIN is required")
+    // Either the PIN or a token from POST /api/transactions/authorize
     @Size(min = 4, max = 6, message = "PIN must be 4-6 digits")
     private String transactionPin;
+
+    @Size(max = 1000, message = "Transaction token is too long")
+    private String transactionToken;
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.mackena.Banking_Application_backend.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSearchResponse {
+    // One page, best match first; the total counts every match
+    private List<AccountSearchResult> results;
+    private String query;
+    private long totalResults;
+    private int currentPage;
+    private int pageSize;
+    private int totalPages;
+    private boolean hasNext;
+
+    public static AccountSearchResponse of(List<AccountSearchResult> results, String query, int page, int size,
+                                           long total) {
+        return AccountSearchResponse.builder()
+                .results(results)
+                .query(query)
+                .totalResults(total)
+                .currentPage(page)
+                .pageSize(size)
+                .totalPages((int) Math.ceil((double) total / size))
+                .hasNext((long) (page + 1) * size < total)
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.mackena.Banking_Application_backend.dtos.response;
+
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.repository.projection.AccountSearchRow;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountSearchResult {
+    private Long id;
+    private String accountNumber;
+    private AccountType accountType;
+    private BigDecimal balance;
+    private boolean isActive;
+    private Long userId;
+    private String ownerName;
+    private String email;
+    // How closely the best matching field resembles the query, from 0 to 1
+    private double rank;
+
+    public static AccountSearchResult from(AccountSearchRow row, double rank) {
+        return AccountSearchResult.builder()
+                .id(row.id())
+                .accountNumber(row.accountNumber())
+                .accountType(row.accountType())
+                .balance(row.balance())
+                .isActive(row.active())
+                .userId(row.userId())
+                .ownerName(row.firstName() + " " + row.lastName())
+                .email(row.email())
+                .rank(rank)
+                .build();
+    }
+}
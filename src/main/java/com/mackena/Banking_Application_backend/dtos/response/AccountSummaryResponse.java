@@ -1,6 +1,7 @@
 package com.mackena.Banking_Application_backend.dtos.response;
 
 import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.repository.projection.LowBalanceAccountRow;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,5 +21,17 @@ public class AccountSummaryResponse {
     private AccountType accountType;
     private boolean isActive;
     private LocalDateTime createdAt;
+    private Long userId;
 
+    public static AccountSummaryResponse from(LowBalanceAccountRow row) {
+        return AccountSummaryResponse.builder()
+                .id(row.id())
+                .accountNumber(row.accountNumber())
+                .balance(row.balance())
+                .accountType(row.accountType())
+                .isActive(true)
+                .createdAt(row.createdAt())
+                .userId(row.userId())
+                .build();
+    }
 }
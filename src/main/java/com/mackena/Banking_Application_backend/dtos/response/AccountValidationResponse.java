@@ -0,0 +1,30 @@
+package com.mackena.Banking_Application_backend.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountValidationResponse {
+    // One result per distinct account number, in the order first requested
+    private List<AccountValidationResult> results;
+    private int totalAccounts;
+    private int validAccounts;
+    private int invalidAccounts;
+
+    public static AccountValidationResponse of(List<AccountValidationResult> results) {
+        int valid = (int) results.stream().filter(AccountValidationResult::isValid).count();
+        return AccountValidationResponse.builder()
+                .results(results)
+                .totalAccounts(results.size())
+                .validAccounts(valid)
+                .invalidAccounts(results.size() - valid)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.mackena.Banking_Application_backend.dtos.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mackena.Banking_Application_backend.repository.projection.AccountStatusRow;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountValidationResult {
+    private String accountNumber;
+    private boolean valid;
+    private boolean accountExists;
+    @JsonProperty("isActive")
+    private boolean isActive;
+    private boolean canReceiveTransfers;
+
+    // row is null when no account has the number
+    public static AccountValidationResult of(String accountNumber, AccountStatusRow row) {
+        boolean active = row != null && row.active();
+        return AccountValidationResult.builder()
+                .accountNumber(accountNumber)
+                .valid(active)
+                .accountExists(row != null)
+                .isActive(active)
+                .canReceiveTransfers(active)
+                .build();
+    }
+}
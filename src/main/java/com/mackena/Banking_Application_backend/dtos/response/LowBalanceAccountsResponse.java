@@ -1,6 +1,6 @@
 package com.mackena.Banking_Application_backend.dto.response;
 
-import com.mackena.Banking_Application_backend.dtos.response.AccountResponse;
+import com.mackena.Banking_Application_backend.dtos.response.AccountSummaryResponse;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,9 +14,31 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class LowBalanceAccountsResponse {
-    private List<AccountResponse> accounts;
+    // One page, lowest balance first; the totals cover every account below the threshold
+    private List<AccountSummaryResponse> accounts;
     private int totalLowBalanceAccounts;
     private BigDecimal threshold;
     private BigDecimal totalLowBalance;
+    private int currentPage;
+    private int totalPages;
+    private boolean hasNext;
+    // Served from the maintained watchlist rather than the accounts table
+    private boolean fromWatchlist;
     private String message;
-}
\ No newline at end of file
+
+    public static LowBalanceAccountsResponse of(List<AccountSummaryResponse> accounts, BigDecimal threshold,
+                                                int page, int size, long total, BigDecimal totalBalance,
+                                                boolean fromWatchlist) {
+        return LowBalanceAccountsResponse.builder()
+                .accounts(accounts)
+                .totalLowBalanceAccounts((int) total)
+                .threshold(threshold)
+                .totalLowBalance(totalBalance)
+                .currentPage(page)
+                .totalPages((int) Math.ceil((double) total / size))
+                .hasNext((long) (page + 1) * size < total)
+                .fromWatchlist(fromWatchlist)
+                .message("Total low balance: " + totalBalance)
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.mackena.Banking_Application_backend.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionAuthorizationResponse {
+    private String transactionToken;
+    private String accountNumber;
+    private BigDecimal maxAmount;
+    private Integer maxUses;
+    private LocalDateTime expiresAt;
+}
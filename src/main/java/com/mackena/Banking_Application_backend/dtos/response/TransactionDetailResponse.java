@@ -1,5 +1,7 @@
 package com.mackena.Banking_Application_backend.dtos.response;
 
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.repository.projection.TransactionHistoryRow;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,4 +27,36 @@ public class TransactionDetailResponse {
     private BigDecimal balanceAfter;
     private LocalDateTime createdAt;
     private String accountNumber;
-}
\ No newline at end of file
+
+    public static TransactionDetailResponse from(TransactionHistoryRow row) {
+        return TransactionDetailResponse.builder()
+                .id(row.id())
+                .referenceNumber(row.referenceNumber())
+                .transferReference(row.transferReference())
+                .amount(row.amount())
+                .transactionType(row.transactionType().getDescription())
+                .transactionDirection(row.transactionDirection().getValue())
+                .description(row.description())
+                .status(row.status().getDescription())
+                .balanceAfter(row.balanceAfter())
+                .createdAt(row.createdAt())
+                .accountNumber(row.accountNumber())
+                .build();
+    }
+
+    public static TransactionDetailResponse from(Transaction transaction) {
+        return TransactionDetailResponse.builder()
+                .id(transaction.getId())
+                .referenceNumber(transaction.getReferenceNumber())
+                .transferReference(transaction.getTransferReference())
+                .amount(transaction.getAmount())
+                .transactionType(transaction.getTransactionType().getDescription())
+                .transactionDirection(transaction.getTransactionDirection().getValue())
+                .description(transaction.getDescription())
+                .status(transaction.getStatus().getDescription())
+                .balanceAfter(transaction.getBalanceAfter())
+                .createdAt(transaction.getCreatedAt())
+                .accountNumber(transaction.getAccount().getAccountNumber())
+                .build();
+    }
+}
@@ -16,8 +16,13 @@ public class TransactionHistoryResponse {
 
     private List<TransactionDetailResponse> transactionDetails;
     private int currentPage;
-    private int totalPages;
-    private int totalElements;
+    // Not counted in cursor mode or with includeTotal=false
+    private Integer totalPages;
+    private Integer totalElements;
+    // Set when the totals come from the periodically refreshed count cache (admin views)
+    private boolean totalApproximate;
     private boolean hasNext;
     private boolean hasPrevious;
+    // Cursor for the page after this one; null on the last page
+    private String nextCursor;
 }
@@ -0,0 +1,7 @@
+package com.mackena.Banking_Application_backend.exceptions;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.mackena.Banking_Application_backend.exceptions;
+
+public class InvalidTransactionTokenException extends RuntimeException {
+    public InvalidTransactionTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,43 @@
+package com.mackena.Banking_Application_backend.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// An account's balance at the end of a day on which it had transactions. Written by the nightly snapshot job.
+@Entity
+@Table(name = "balance_snapshots",
+        indexes = @Index(name = "idx_balance_snapshot_date", columnList = "snapshot_date"))
+@IdClass(BalanceSnapshot.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceSnapshot {
+
+    @Id
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Id
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long accountId;
+        private LocalDate snapshotDate;
+    }
+}
@@ -0,0 +1,25 @@
+package com.mackena.Banking_Application_backend.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// The single row holding the last day the nightly snapshot job has processed, whether or not that day wrote
+// any snapshots. Every day up to it has been snapshotted.
+@Entity
+@Table(name = "balance_snapshot_watermark")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceSnapshotWatermark {
+
+    public static final int ROW_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "last_snapshot_date", nullable = false)
+    private LocalDate lastSnapshotDate;
+}
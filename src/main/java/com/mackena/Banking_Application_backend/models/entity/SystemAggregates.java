@@ -0,0 +1,40 @@
+package com.mackena.Banking_Application_backend.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// The single row of system-wide totals over accounts. Maintained by SystemAggregateService; the balance
+// counts active accounts only, in minor units.
+@Entity
+@Table(name = "system_aggregates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SystemAggregates {
+
+    public static final int ROW_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "total_balance_minor", nullable = false)
+    private long totalBalanceMinor;
+
+    @Column(name = "total_accounts", nullable = false)
+    private long totalAccounts;
+
+    @Column(name = "active_accounts", nullable = false)
+    private long activeAccounts;
+
+    @Column(name = "users_with_active_accounts", nullable = false)
+    private long usersWithActiveAccounts;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+}
@@ -3,22 +3,27 @@ package com.mackena.Banking_Application_backend.models.entity;
 import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
 import com.mackena.Banking_Application_backend.models.enums.TransactionStatus;
 import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import com.mackena.Banking_Application_backend.util.generator.ReferenceNumberGenerator;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions", indexes = {
-        @Index(name = "idx_transaction_reference", columnList = "reference_number"),
-        @Index(name = "idx_transaction_account", columnList = "account_id"),
-        @Index(name = "idx_transaction_type", columnList = "transaction_type"),
-        @Index(name = "idx_transaction_status", columnList = "status"),
-        @Index(name = "idx_transaction_date", columnList = "created_at")
-})
+@Table(name = "transactions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_transaction_reference_created",
+                columnNames = {"reference_number", "created_at"}),
+        indexes = {
+                @Index(name = "idx_transaction_status", columnList = "status"),
+                @Index(name = "idx_transaction_transfer_reference", columnList = "transfer_reference"),
+                @Index(name = "idx_transaction_account_created_id", columnList = "account_id, created_at, id"),
+                @Index(name = "idx_transaction_account_type_created_id", columnList = "account_id, transaction_type, created_at, id"),
+                @Index(name = "idx_transaction_user_created_id", columnList = "user_id, created_at, id"),
+                @Index(name = "idx_transaction_created_id", columnList = "created_at, id"),
+                @Index(name = "idx_transaction_type_created_id", columnList = "transaction_type, created_at, id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,13 +33,18 @@ import java.util.UUID;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
+    // The account owner's id, copied when the transaction is posted so per-user history needs no join
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
     @Column(precision = 15, scale = 2, nullable = false)
     private BigDecimal amount;
 
@@ -49,7 +59,8 @@ public class Transaction {
     @Column(columnDefinition = "TEXT")
     private String description;
 
-    @Column(name = "reference_number", unique = true, nullable = false, length = 20)
+    // Unique together with created_at, which is derived from it (see createdAt)
+    @Column(name = "reference_number", nullable = false, length = 20)
     private String referenceNumber;
 
     @Column(name = "transfer_reference", length = 255)
@@ -62,8 +73,19 @@ public class Transaction {
     @Column(name = "balance_after", precision = 15, scale = 2)
     private BigDecimal balanceAfter;
 
-    @CreationTimestamp
-    @Column(name = "created_at", updatable = false)
+    // Partition key of the table (one partition per month). Taken from the reference number's timestamp, so
+    // that the UNIQUE (reference_number, created_at) key also rejects a repeated reference.
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @PrePersist
+    void prePersist() {
+        // getId() on a lazy User proxy does not load the user
+        if (userId == null && account != null) {
+            userId = account.getUser().getId();
+        }
+        if (createdAt == null) {
+            createdAt = ReferenceNumberGenerator.timestampOf(referenceNumber);
+        }
+    }
 }
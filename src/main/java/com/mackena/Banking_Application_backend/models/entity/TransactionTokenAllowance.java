@@ -0,0 +1,38 @@
+package com.mackena.Banking_Application_backend.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Remaining uses and amount of a transaction token, shared by every instance that may redeem it
+@Entity
+@Table(name = "transaction_token_allowances",
+        indexes = @Index(name = "idx_token_allowance_expires", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionTokenAllowance {
+
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    // The user the token was issued to and the account it may debit
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "remaining_uses", nullable = false)
+    private int remainingUses;
+
+    @Column(name = "remaining_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal remainingAmount;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
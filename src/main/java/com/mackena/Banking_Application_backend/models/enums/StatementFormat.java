@@ -0,0 +1,16 @@
+package com.mackena.Banking_Application_backend.models.enums;
+
+public enum StatementFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    StatementFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
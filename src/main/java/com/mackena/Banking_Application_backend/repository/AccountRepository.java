@@ -3,6 +3,13 @@ package com.mackena.Banking_Application_backend.repository;
 import com.mackena.Banking_Application_backend.models.entity.Account;
 import com.mackena.Banking_Application_backend.models.entity.User;
 import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.repository.projection.AccountBalanceSnapshot;
+import com.mackena.Banking_Application_backend.repository.projection.AccountSearchMatch;
+import com.mackena.Banking_Application_backend.repository.projection.AccountSearchRow;
+import com.mackena.Banking_Application_backend.repository.projection.AccountStatusRow;
+import com.mackena.Banking_Application_backend.repository.projection.LowBalanceAccountRow;
+import com.mackena.Banking_Application_backend.repository.projection.LowBalanceTotals;
+import com.mackena.Banking_Application_backend.repository.projection.SystemTotals;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -14,6 +21,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +33,11 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     //getting an account
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    // Existence and status of many account numbers at once, through the unique account_number index
+    @Query("SELECT new com.mackena.Banking_Application_backend.repository.projection.AccountStatusRow(" +
+            "a.accountNumber, a.isActive) FROM Account a WHERE a.accountNumber IN :accountNumbers")
+    List<AccountStatusRow> findStatusByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+
     List<Account> findByUserIdAndIsActiveTrueOrderByCreatedAtDesc(Long userId);
 
     List<Account> findByUserId(Long userId);
@@ -33,9 +46,50 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     List<Account> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    // Single round-trip balance updates returning the new balance. Nothing is returned when the account
+    // is missing or inactive, or when the debit would take the balance below the floor.
+    @Query(value = "UPDATE accounts SET balance = balance + :amount, version = version + 1, updated_at = now() " +
+            "WHERE id = :id AND is_active = true RETURNING balance", nativeQuery = true)
+    Optional<BigDecimal> creditBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Query(value = "UPDATE accounts SET balance = balance - :amount, version = version + 1, updated_at = now() " +
+            "WHERE id = :id AND is_active = true AND balance - :amount >= :floor RETURNING balance", nativeQuery = true)
+    Optional<BigDecimal> debitBalance(@Param("id") Long id,
+                                      @Param("amount") BigDecimal amount,
+                                      @Param("floor") BigDecimal floor);
+
+    // Optimistic variant: read without locking, then write only if nobody changed the row in between
+    @Query(value = "SELECT balance, version, is_active AS active FROM accounts WHERE id = :id", nativeQuery = true)
+    Optional<AccountBalanceSnapshot> findBalanceSnapshot(@Param("id") Long id);
+
+    @Query(value = "UPDATE accounts SET balance = :balance, version = version + 1, updated_at = now() " +
+            "WHERE id = :id AND version = :version RETURNING balance", nativeQuery = true)
+    Optional<BigDecimal> compareAndSetBalance(@Param("id") Long id,
+                                              @Param("balance") BigDecimal balance,
+                                              @Param("version") Long version);
+
+    // Locks the given rows in ascending id order, for transactions that apply several postings
+    @Query(value = "SELECT id FROM accounts WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockInIdOrder(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT a FROM Account a WHERE a.balance < :threshold AND a.isActive = true ORDER BY a.balance ASC")
     List<Account> findAccountsWithLowBalance(@Param("threshold") BigDecimal threshold);
 
+    // Low-balance listing: a page of the idx_account_active_balance range below the threshold, in index order
+    @Query("SELECT new com.mackena.Banking_Application_backend.repository.projection.LowBalanceAccountRow(" +
+            "a.id, a.accountNumber, a.accountType, a.balance, a.user.id, a.createdAt) " +
+            "FROM Account a WHERE a.isActive = true AND a.balance < :threshold ORDER BY a.balance ASC, a.id ASC")
+    List<LowBalanceAccountRow> findLowBalanceRows(@Param("threshold") BigDecimal threshold, Pageable pageable);
+
+    @Query("SELECT new com.mackena.Banking_Application_backend.repository.projection.LowBalanceAccountRow(" +
+            "a.id, a.accountNumber, a.accountType, a.balance, a.user.id, a.createdAt) " +
+            "FROM Account a WHERE a.id IN :ids AND a.isActive = true")
+    List<LowBalanceAccountRow> findLowBalanceRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(a) AS accounts, COALESCE(SUM(a.balance), 0) AS totalBalance " +
+            "FROM Account a WHERE a.isActive = true AND a.balance < :threshold")
+    LowBalanceTotals getLowBalanceTotals(@Param("threshold") BigDecimal threshold);
+
     @Query("SELECT SUM(a.balance) FROM Account a WHERE a.isActive = true")
     BigDecimal getTotalSystemBalance();
 
@@ -45,6 +99,16 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("SELECT COUNT(DISTINCT a.user.id) FROM Account a WHERE a.isActive = true")
     long countUsersWithActiveAccounts();
 
+    // All of the system totals in one pass over accounts, for reconciling the maintained aggregates
+    @Query(value = """
+            SELECT COALESCE(SUM(balance) FILTER (WHERE is_active), 0) AS "totalBalance",
+                   COUNT(*)                                           AS "totalAccounts",
+                   COUNT(*) FILTER (WHERE is_active)                  AS "activeAccounts",
+                   COUNT(DISTINCT user_id) FILTER (WHERE is_active)   AS "usersWithActiveAccounts"
+            FROM accounts
+            """, nativeQuery = true)
+    SystemTotals computeSystemTotals();
+
     @Query("SELECT AVG(a.balance) FROM Account a WHERE a.isActive = true")
     BigDecimal getAverageBalance();
 
@@ -64,11 +128,46 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("SELECT SUM(a.balance) FROM Account a WHERE a.isActive = true")
     Optional<BigDecimal> sumAllActiveAccountBalances();
 
-    @Query("SELECT a FROM Account a WHERE " +
-            "(LOWER(a.accountNumber) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(a.user.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(a.user.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(a.user.email) LIKE LOWER(CONCAT('%', :query, '%')))")
-    List<Account> findByAccountNumberContainingIgnoreCaseOrUser_FirstNameContainingIgnoreCaseOrUser_LastNameContainingIgnoreCaseOrUser_EmailContainingIgnoreCase(
-            String query1, String query2, String query3, String query4, Pageable pageable);
+    // Account search on the trigram indexes: accounts whose number, or whose owner's first name, last name or
+    // email, matches the ILIKE pattern, best trigram similarity to the term first. Each branch of the UNION reads
+    // its own index; an OR across the join would read both tables whole.
+    @Query(value = """
+            WITH matched AS (
+                SELECT a.id, a.user_id FROM accounts a WHERE a.account_number ILIKE :pattern
+                UNION
+                SELECT a.id, a.user_id FROM users u JOIN accounts a ON a.user_id = u.id
+                WHERE u.first_name ILIKE :pattern OR u.last_name ILIKE :pattern OR u.email ILIKE :pattern
+            )
+            SELECT m.id AS "id",
+                   greatest(similarity(a.account_number, :term), similarity(u.first_name, :term),
+                            similarity(u.last_name, :term), similarity(u.email, :term)) AS "rank"
+            FROM matched m
+            JOIN accounts a ON a.id = m.id
+            JOIN users u ON u.id = m.user_id
+            ORDER BY 2 DESC, m.id
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<AccountSearchMatch> searchByTrigram(@Param("term") String term, @Param("pattern") String pattern,
+                                             @Param("offset") long offset, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT count(*) FROM (
+                SELECT a.id FROM accounts a WHERE a.account_number ILIKE :pattern
+                UNION
+                SELECT a.id FROM users u JOIN accounts a ON a.user_id = u.id
+                WHERE u.first_name ILIKE :pattern OR u.last_name ILIKE :pattern OR u.email ILIKE :pattern
+            ) matched
+            """, nativeQuery = true)
+    long countByTrigram(@Param("pattern") String pattern);
+
+    @Query("SELECT new com.mackena.Banking_Application_backend.repository.projection.AccountSearchRow(" +
+            "a.id, a.accountNumber, a.accountType, a.balance, a.isActive, u.id, u.firstName, u.lastName, u.email) " +
+            "FROM Account a JOIN a.user u WHERE a.id IN :ids")
+    List<AccountSearchRow> findSearchRowsByIds(@Param("ids") Collection<Long> ids);
+
+    // Every account in id order, a batch at a time, for building an in-process search index
+    @Query("SELECT new com.mackena.Banking_Application_backend.repository.projection.AccountSearchRow(" +
+            "a.id, a.accountNumber, a.accountType, a.balance, a.isActive, u.id, u.firstName, u.lastName, u.email) " +
+            "FROM Account a JOIN a.user u WHERE a.id > :afterId ORDER BY a.id")
+    List<AccountSearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
     }
\ No newline at end of file
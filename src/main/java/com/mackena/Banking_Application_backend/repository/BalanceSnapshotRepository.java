@@ -0,0 +1,52 @@
+package com.mackena.Banking_Application_backend.repository;
+
+import com.mackena.Banking_Application_backend.models.entity.BalanceSnapshot;
+import com.mackena.Banking_Application_backend.models.entity.BalanceSnapshotWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, BalanceSnapshot.Key> {
+
+    // Every day up to this one has been snapshotted, including days that wrote no rows
+    @Query("SELECT w.lastSnapshotDate FROM BalanceSnapshotWatermark w WHERE w.id = " + BalanceSnapshotWatermark.ROW_ID)
+    Optional<LocalDate> findLastSnapshotDate();
+
+    // Moves the watermark forward to the day; run in the transaction that wrote the day's snapshots
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO balance_snapshot_watermark (id, last_snapshot_date) VALUES (1, :day)
+            ON CONFLICT (id) DO UPDATE
+            SET last_snapshot_date = GREATEST(balance_snapshot_watermark.last_snapshot_date, EXCLUDED.last_snapshot_date)
+            """, nativeQuery = true)
+    int advanceWatermark(@Param("day") LocalDate day);
+
+    Optional<BalanceSnapshot> findFirstByAccountIdAndSnapshotDateBeforeOrderBySnapshotDateDesc(Long accountId,
+                                                                                              LocalDate date);
+
+    // One row per account with transactions on the day: the balance after its last one. Reads only the day's
+    // partition, and running it again for the same day overwrites that day's rows.
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO balance_snapshots (account_id, snapshot_date, balance, created_at)
+            SELECT DISTINCT ON (t.account_id) t.account_id, :day, t.balance_after, now()
+            FROM transactions t
+            WHERE t.created_at >= :dayStart AND t.created_at < :nextDayStart AND t.balance_after IS NOT NULL
+            ORDER BY t.account_id, t.created_at DESC, t.id DESC
+            ON CONFLICT (account_id, snapshot_date)
+            DO UPDATE SET balance = EXCLUDED.balance, created_at = EXCLUDED.created_at
+            """, nativeQuery = true)
+    int snapshotDay(@Param("day") LocalDate day,
+                    @Param("dayStart") LocalDateTime dayStart,
+                    @Param("nextDayStart") LocalDateTime nextDayStart);
+}
@@ -0,0 +1,35 @@
+package com.mackena.Banking_Application_backend.repository;
+
+import com.mackena.Banking_Application_backend.models.entity.SystemAggregates;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SystemAggregatesRepository extends JpaRepository<SystemAggregates, Integer> {
+
+    // Relative, so flushes from several instances add up instead of overwriting each other
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SystemAggregates s SET " +
+            "s.totalBalanceMinor = s.totalBalanceMinor + :balanceMinor, " +
+            "s.totalAccounts = s.totalAccounts + :accounts, " +
+            "s.activeAccounts = s.activeAccounts + :activeAccounts, " +
+            "s.usersWithActiveAccounts = s.usersWithActiveAccounts + :usersWithActiveAccounts, " +
+            "s.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE s.id = " + SystemAggregates.ROW_ID)
+    int addDeltas(@Param("balanceMinor") long balanceMinor,
+                  @Param("accounts") long accounts,
+                  @Param("activeAccounts") long activeAccounts,
+                  @Param("usersWithActiveAccounts") long usersWithActiveAccounts);
+
+    // Held by a reconciliation until it commits, so no flush lands between its read and its write
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SystemAggregates s WHERE s.id = " + SystemAggregates.ROW_ID)
+    Optional<SystemAggregates> lockRow();
+}
@@ -0,0 +1,14 @@
+package com.mackena.Banking_Application_backend.repository;
+
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.repository.projection.TransactionHistoryRow;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface TransactionHistoryRepository {
+
+    // Matching rows as projections, joined to their account in the same statement
+    List<TransactionHistoryRow> findHistoryRows(Specification<Transaction> specification, Sort sort, long offset, int limit);
+}
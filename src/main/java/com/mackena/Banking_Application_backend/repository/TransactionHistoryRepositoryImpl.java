@@ -0,0 +1,58 @@
+package com.mackena.Banking_Application_backend.repository;
+
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.repository.projection.TransactionHistoryRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class TransactionHistoryRepositoryImpl implements TransactionHistoryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TransactionHistoryRow> findHistoryRows(Specification<Transaction> specification, Sort sort,
+                                                       long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionHistoryRow> query = cb.createQuery(TransactionHistoryRow.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        // An inner join of its own, for the account number only. No filter in TransactionSpecifications joins
+        // accounts (they read columns of transactions), and one that did would get its own join, never this one.
+        Join<Transaction, Account> account = root.join("account");
+
+        query.select(cb.construct(TransactionHistoryRow.class,
+                root.get("id"),
+                root.get("referenceNumber"),
+                root.get("transferReference"),
+                root.get("amount"),
+                root.get("transactionType"),
+                root.get("transactionDirection"),
+                root.get("description"),
+                root.get("status"),
+                root.get("balanceAfter"),
+                root.get("createdAt"),
+                account.get("accountNumber")));
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,12 +1,16 @@
 package com.mackena.Banking_Application_backend.repository;
 
 import com.mackena.Banking_Application_backend.models.entity.Transaction;
-import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
 import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import com.mackena.Banking_Application_backend.repository.projection.TransactionHistoryRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,120 +18,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+// Filtered history queries are built from TransactionSpecifications: counts through JpaSpecificationExecutor,
+// page contents as projections through TransactionHistoryRepository
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-
-    // Find by account with pagination
-    Page<Transaction> findByAccountIdOrderByCreatedAtDesc(Long accountId, Pageable pageable);
-
-//    // Find by account with filters
-//    @Query("""
-//    SELECT t FROM Transaction t
-//    WHERE t.account.id = :accountId
-//      AND (:startDate IS NULL OR t.createdAt >= :startDate)
-//      AND (:endDate IS NULL OR t.createdAt <= :endDate)
-//      AND (:transactionType IS NULL OR t.transactionType = :transactionType)
-//      AND (:transactionDirection IS NULL OR t.transactionDirection = :transactionDirection)
-//      AND (:minAmount IS NULL OR t.amount >= :minAmount)
-//      AND (:maxAmount IS NULL OR t.amount <= :maxAmount)
-//    ORDER BY t.createdAt DESC
-//""")
-//    Page<Transaction> findTransactionsWithFilters(
-//            @Param("accountId") Long accountId,
-//            @Param("startDate") LocalDateTime startDate,
-//            @Param("endDate") LocalDateTime endDate,
-//            @Param("transactionType") TransactionType transactionType,
-//            @Param("transactionDirection") TransactionDirection transactionDirection,
-//            @Param("minAmount") BigDecimal minAmount,
-//            @Param("maxAmount") BigDecimal maxAmount,
-//            Pageable pageable
-//    );
-
-    // Simple queries for all transactions
-    @Query("SELECT t FROM Transaction t ORDER BY t.createdAt DESC")
-    Page<Transaction> findAllTransactionsOrderByCreatedAtDesc(Pageable pageable);
-
-    @Query("""
-SELECT t FROM Transaction t
-WHERE t.createdAt >= :startDate AND t.createdAt <= :endDate
-ORDER BY t.createdAt DESC
-""")
-    Page<Transaction> findAllTransactionsByDateRange(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate,
-            Pageable pageable
-    );
-
-    @Query("""
-SELECT t FROM Transaction t
-WHERE t.transactionType = :transactionType
-ORDER BY t.createdAt DESC
-""")
-    Page<Transaction> findAllTransactionsByType(
-            @Param("transactionType") TransactionType transactionType,
-            Pageable pageable
-    );
-
-    @Query("""
-SELECT t FROM Transaction t
-WHERE t.transactionDirection = :transactionDirection
-ORDER BY t.createdAt DESC
-""")
-    Page<Transaction> findAllTransactionsByDirection(
-            @Param("transactionDirection") TransactionDirection transactionDirection,
-            Pageable pageable
-    );
-
-    @Query("""
-SELECT t FROM Transaction t
-WHERE t.amount >= :minAmount AND t.amount <= :maxAmount
-ORDER BY t.createdAt DESC
-""")
-    Page<Transaction> findAllTransactionsByAmountRange(
-            @Param("minAmount") BigDecimal minAmount,
-            @Param("maxAmount") BigDecimal maxAmount,
-            Pageable pageable
-    );
-
-    // Combined queries for common filter combinations
-    @Query("""
-SELECT t FROM Transaction t
-WHERE t.createdAt >= :startDate AND t.createdAt <= :endDate
-  AND t.transactionType = :transactionType
-ORDER BY t.createdAt DESC
-""")
-    Page<Transaction> findAllTransactionsByDateRangeAndType(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate,
-            @Param("transactionType") TransactionType transactionType,
-            Pageable pageable
-    );
-
-    @Query("""
-SELECT t FROM Transaction t
-WHERE t.createdAt >= :startDate AND t.createdAt <= :endDate
-  AND t.transactionDirection = :transactionDirection
-ORDER BY t.createdAt DESC
-""")
-    Page<Transaction> findAllTransactionsByDateRangeAndDirection(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate,
-            @Param("transactionDirection") TransactionDirection transactionDirection,
-            Pageable pageable
-    );
-
-    @Query("""
-SELECT t FROM Transaction t
-WHERE t.transactionType = :transactionType
-  AND t.transactionDirection = :transactionDirection
-ORDER BY t.createdAt DESC
-""")
-    Page<Transaction> findAllTransactionsByTypeAndDirection(
-            @Param("transactionType") TransactionType transactionType,
-            @Param("transactionDirection") TransactionDirection transactionDirection,
-            Pageable pageable
-    );
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction>,
+        TransactionHistoryRepository {
 
     // Find by transfer reference
     List<Transaction> findByTransferReference(String transferReference);
@@ -150,119 +47,39 @@ ORDER BY t.createdAt DESC
     // Get all transactions ordered by date (for admin overview)
     Page<Transaction> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
-
-    // Account-specific queries with individual filters
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountUserIdOrderByCreatedAtDesc(@Param("userId") Long userId, Pageable pageable);
-
-    // User + Date range filtering
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId " +
-            "AND t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountUserIdAndDateRange(@Param("userId") Long userId,
-                                                      @Param("startDate") LocalDateTime startDate,
-                                                      @Param("endDate") LocalDateTime endDate,
-                                                      Pageable pageable);
-
-    // User + Transaction type filtering
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId " +
-            "AND t.transactionType = :transactionType ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountUserIdAndTransactionType(@Param("userId") Long userId,
-                                                            @Param("transactionType") TransactionType transactionType,
-                                                            Pageable pageable);
-
-    // User + Transaction direction filtering
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId " +
-            "AND t.transactionDirection = :transactionDirection ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountUserIdAndTransactionDirection(@Param("userId") Long userId,
-                                                                 @Param("transactionDirection") TransactionDirection transactionDirection,
-                                                                 Pageable pageable);
-
-    // User + Amount range filtering
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId " +
-            "AND t.amount BETWEEN :minAmount AND :maxAmount ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountUserIdAndAmountRange(@Param("userId") Long userId,
-                                                        @Param("minAmount") BigDecimal minAmount,
-                                                        @Param("maxAmount") BigDecimal maxAmount,
-                                                        Pageable pageable);
-
-    // User + Date + Type filtering
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId " +
-            "AND t.createdAt BETWEEN :startDate AND :endDate " +
-            "AND t.transactionType = :transactionType ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountUserIdAndDateRangeAndType(@Param("userId") Long userId,
-                                                             @Param("startDate") LocalDateTime startDate,
-                                                             @Param("endDate") LocalDateTime endDate,
-                                                             @Param("transactionType") TransactionType transactionType,
-                                                             Pageable pageable);
-
-    // User + Date + Direction filtering
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId " +
-            "AND t.createdAt BETWEEN :startDate AND :endDate " +
-            "AND t.transactionDirection = :transactionDirection ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountUserIdAndDateRangeAndDirection(@Param("userId") Long userId,
-                                                                  @Param("startDate") LocalDateTime startDate,
-                                                                  @Param("endDate") LocalDateTime endDate,
-                                                                  @Param("transactionDirection") TransactionDirection transactionDirection,
-                                                                  Pageable pageable);
-
-    // User + Type + Direction filtering
-    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId " +
-            "AND t.transactionType = :transactionType " +
-            "AND t.transactionDirection = :transactionDirection ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountUserIdAndTypeAndDirection(@Param("userId") Long userId,
-                                                             @Param("transactionType") TransactionType transactionType,
-                                                             @Param("transactionDirection") TransactionDirection transactionDirection,
-                                                             Pageable pageable);
-
-    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId " +
-            "AND t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountIdAndDateRange(@Param("accountId") Long accountId,
-                                                  @Param("startDate") LocalDateTime startDate,
-                                                  @Param("endDate") LocalDateTime endDate,
-                                                  Pageable pageable);
-
-    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId " +
-            "AND t.transactionType = :transactionType ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountIdAndTransactionType(@Param("accountId") Long accountId,
-                                                        @Param("transactionType") TransactionType transactionType,
-                                                        Pageable pageable);
-
-    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId " +
-            "AND t.transactionDirection = :transactionDirection ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountIdAndTransactionDirection(@Param("accountId") Long accountId,
-                                                             @Param("transactionDirection") TransactionDirection transactionDirection,
-                                                             Pageable pageable);
-
-    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId " +
-            "AND t.amount BETWEEN :minAmount AND :maxAmount ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountIdAndAmountRange(@Param("accountId") Long accountId,
-                                                    @Param("minAmount") BigDecimal minAmount,
-                                                    @Param("maxAmount") BigDecimal maxAmount,
-                                                    Pageable pageable);
-
-    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId " +
-            "AND t.createdAt BETWEEN :startDate AND :endDate " +
-            "AND t.transactionType = :transactionType ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountIdAndDateRangeAndType(@Param("accountId") Long accountId,
-                                                         @Param("startDate") LocalDateTime startDate,
-                                                         @Param("endDate") LocalDateTime endDate,
-                                                         @Param("transactionType") TransactionType transactionType,
-                                                         Pageable pageable);
-
-    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId " +
-            "AND t.createdAt BETWEEN :startDate AND :endDate " +
-            "AND t.transactionDirection = :transactionDirection ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountIdAndDateRangeAndDirection(@Param("accountId") Long accountId,
-                                                              @Param("startDate") LocalDateTime startDate,
-                                                              @Param("endDate") LocalDateTime endDate,
-                                                              @Param("transactionDirection") TransactionDirection transactionDirection,
-                                                              Pageable pageable);
-
-    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId " +
-            "AND t.transactionType = :transactionType " +
-            "AND t.transactionDirection = :transactionDirection ORDER BY t.createdAt DESC")
-    Page<Transaction> findByAccountIdAndTypeAndDirection(@Param("accountId") Long accountId,
-                                                         @Param("transactionType") TransactionType transactionType,
-                                                         @Param("transactionDirection") TransactionDirection transactionDirection,
-                                                         Pageable pageable);
-}
\ No newline at end of file
+    // Balance as of a moment: the balance after the account's last transaction before it, searched from a day
+    // whose opening balance is already known (see BalanceSnapshotService) so only the months between are read
+    @Query("SELECT t.balanceAfter FROM Transaction t WHERE t.account.id = :accountId " +
+            "AND t.createdAt >= :from AND t.createdAt < :before AND t.balanceAfter IS NOT NULL " +
+            "ORDER BY t.createdAt DESC, t.id DESC LIMIT 1")
+    Optional<BigDecimal> findLastBalanceBetween(
+            @Param("accountId") Long accountId,
+            @Param("from") LocalDateTime from,
+            @Param("before") LocalDateTime before);
+
+    // Same without a known starting point, reading back through every earlier month
+    @Query("SELECT t.balanceAfter FROM Transaction t WHERE t.account.id = :accountId " +
+            "AND t.createdAt < :before AND t.balanceAfter IS NOT NULL ORDER BY t.createdAt DESC, t.id DESC LIMIT 1")
+    Optional<BigDecimal> findLastBalanceBefore(@Param("accountId") Long accountId, @Param("before") LocalDateTime before);
+
+    Optional<Transaction> findFirstByAccountIdOrderByCreatedAtAscIdAsc(Long accountId);
+
+    @Query("SELECT MIN(t.createdAt) FROM Transaction t")
+    Optional<LocalDateTime> findFirstCreatedAt();
+
+    // Statement export. Must be consumed inside a transaction: PostgreSQL then reads through a server-side
+    // cursor, a fetch size at a time, and the projected rows never enter the persistence context
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.mackena.Banking_Application_backend.repository.projection.TransactionHistoryRow(" +
+            "t.id, t.referenceNumber, t.transferReference, t.amount, t.transactionType, t.transactionDirection, " +
+            "t.description, t.status, t.balanceAfter, t.createdAt, a.accountNumber) " +
+            "FROM Transaction t JOIN t.account a WHERE a.id = :accountId " +
+            "AND t.createdAt >= :startDate AND t.createdAt <= :endDate ORDER BY t.createdAt, t.id")
+    Stream<TransactionHistoryRow> streamStatementRows(
+            @Param("accountId") Long accountId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+}
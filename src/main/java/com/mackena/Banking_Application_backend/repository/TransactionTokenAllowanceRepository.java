@@ -0,0 +1,39 @@
+package com.mackena.Banking_Application_backend.repository;
+
+import com.mackena.Banking_Application_backend.models.entity.TransactionTokenAllowance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface TransactionTokenAllowanceRepository extends JpaRepository<TransactionTokenAllowance, String> {
+
+    // Takes one use and the amount in a single conditional update, so concurrent redemptions on any instance
+    // can never overdraw the allowance. Returns 0 when the token is unknown, issued to another user or account,
+    // expired, used up or too small.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE TransactionTokenAllowance a SET a.remainingUses = a.remainingUses - 1, " +
+            "a.remainingAmount = a.remainingAmount - :amount " +
+            "WHERE a.tokenId = :tokenId AND a.userId = :userId AND a.accountId = :accountId " +
+            "AND a.expiresAt > :now AND a.remainingUses > 0 AND a.remainingAmount >= :amount")
+    int redeem(@Param("tokenId") String tokenId, @Param("userId") Long userId, @Param("accountId") Long accountId,
+               @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE TransactionTokenAllowance a SET a.remainingUses = a.remainingUses + 1, " +
+            "a.remainingAmount = a.remainingAmount + :amount WHERE a.tokenId = :tokenId")
+    int release(@Param("tokenId") String tokenId, @Param("amount") BigDecimal amount);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TransactionTokenAllowance a WHERE a.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,9 +33,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT SUM(a.balance) FROM User u JOIN u.accounts a WHERE u.id = :userId AND a.isActive = true")
     BigDecimal getTotalBalanceByUserId(@Param("userId") Long userId);
 
+    @Query("SELECT COUNT(a) FROM User u JOIN u.accounts a WHERE u.id = :userId")
+    int getAccountCountByUserId(@Param("userId") Long userId);
+
     @Query("SELECT COUNT(a) FROM User u JOIN u.accounts a WHERE u.id = :userId AND a.isActive = true")
     int getActiveAccountCountByUserId(@Param("userId") Long userId);
 
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.accounts WHERE u.id = :id")
     Optional<User> findByIdWithAccounts(@Param("id") Long id);
+
+    // First step of the user listing: the page's ids alone, sorted and limited in the database
+    @Query(value = "SELECT u.id FROM User u", countQuery = "SELECT COUNT(u) FROM User u")
+    Page<Long> findUserIds(Pageable pageable);
+
+    // Second step: those users with all of their accounts in one query. A fetch join in the paged query itself
+    // would make Hibernate fetch every user and apply the page in memory.
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.accounts WHERE u.id IN :ids")
+    List<User> findAllWithAccountsByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
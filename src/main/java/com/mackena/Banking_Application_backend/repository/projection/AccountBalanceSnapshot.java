@@ -0,0 +1,12 @@
+package com.mackena.Banking_Application_backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface AccountBalanceSnapshot {
+
+    BigDecimal getBalance();
+
+    Long getVersion();
+
+    Boolean getActive();
+}
@@ -0,0 +1,9 @@
+package com.mackena.Banking_Application_backend.repository.projection;
+
+// An account matching a search, with its trigram similarity to the term (0 to 1)
+public interface AccountSearchMatch {
+
+    Long getId();
+
+    Double getRank();
+}
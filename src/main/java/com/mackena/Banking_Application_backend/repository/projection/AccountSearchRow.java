@@ -0,0 +1,17 @@
+package com.mackena.Banking_Application_backend.repository.projection;
+
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+
+import java.math.BigDecimal;
+
+// An account with the owner fields account search matches against
+public record AccountSearchRow(Long id,
+                               String accountNumber,
+                               AccountType accountType,
+                               BigDecimal balance,
+                               boolean active,
+                               Long userId,
+                               String firstName,
+                               String lastName,
+                               String email) {
+}
@@ -0,0 +1,5 @@
+package com.mackena.Banking_Application_backend.repository.projection;
+
+// Whether an account number exists and can receive transfers, without loading the account
+public record AccountStatusRow(String accountNumber, boolean active) {
+}
@@ -0,0 +1,15 @@
+package com.mackena.Banking_Application_backend.repository.projection;
+
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One line of the low-balance listing, selected from accounts alone: no user or transactions are loaded
+public record LowBalanceAccountRow(Long id,
+                                   String accountNumber,
+                                   AccountType accountType,
+                                   BigDecimal balance,
+                                   Long userId,
+                                   LocalDateTime createdAt) {
+}
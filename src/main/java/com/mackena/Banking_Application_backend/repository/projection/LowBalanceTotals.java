@@ -0,0 +1,10 @@
+package com.mackena.Banking_Application_backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface LowBalanceTotals {
+
+    Long getAccounts();
+
+    BigDecimal getTotalBalance();
+}
@@ -0,0 +1,15 @@
+package com.mackena.Banking_Application_backend.repository.projection;
+
+import java.math.BigDecimal;
+
+// Totals over every account, counted from the accounts table itself
+public interface SystemTotals {
+
+    BigDecimal getTotalBalance();
+
+    Long getTotalAccounts();
+
+    Long getActiveAccounts();
+
+    Long getUsersWithActiveAccounts();
+}
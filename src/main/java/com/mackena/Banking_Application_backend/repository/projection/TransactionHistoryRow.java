@@ -0,0 +1,22 @@
+package com.mackena.Banking_Application_backend.repository.projection;
+
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import com.mackena.Banking_Application_backend.models.enums.TransactionStatus;
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One history line, selected together with its account number so no Account has to be loaded
+public record TransactionHistoryRow(Long id,
+                                    String referenceNumber,
+                                    String transferReference,
+                                    BigDecimal amount,
+                                    TransactionType transactionType,
+                                    TransactionDirection transactionDirection,
+                                    String description,
+                                    TransactionStatus status,
+                                    BigDecimal balanceAfter,
+                                    LocalDateTime createdAt,
+                                    String accountNumber) {
+}
@@ -0,0 +1,25 @@
+package com.mackena.Banking_Application_backend.repository.specification;
+
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// The filters of one history query. Being a value, it also serves as the key for cached totals.
+public record TransactionHistoryFilter(Long accountId,
+                                       Long userId,
+                                       LocalDateTime startDate,
+                                       LocalDateTime endDate,
+                                       TransactionType transactionType,
+                                       TransactionDirection transactionDirection,
+                                       BigDecimal minAmount,
+                                       BigDecimal maxAmount) {
+
+    public Specification<Transaction> toSpecification() {
+        return TransactionSpecifications.history(accountId, userId, startDate, endDate,
+                transactionType, transactionDirection, minAmount, maxAmount);
+    }
+}
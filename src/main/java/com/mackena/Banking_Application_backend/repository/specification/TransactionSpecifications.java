@@ -0,0 +1,122 @@
+package com.mackena.Banking_Application_backend.repository.specification;
+
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Building blocks for transaction history queries. Each returns null when its filter is absent, so any
+// combination composes into one WHERE clause with only the predicates that apply.
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> history(Long accountId, Long userId,
+                                                     LocalDateTime startDate, LocalDateTime endDate,
+                                                     TransactionType transactionType,
+                                                     TransactionDirection transactionDirection,
+                                                     BigDecimal minAmount, BigDecimal maxAmount) {
+        List<Specification<Transaction>> filters = new ArrayList<>();
+        addIfPresent(filters, forAccount(accountId));
+        addIfPresent(filters, forUser(userId));
+        addIfPresent(filters, createdBetween(startDate, endDate));
+        addIfPresent(filters, ofType(transactionType));
+        addIfPresent(filters, inDirection(transactionDirection));
+        addIfPresent(filters, amountBetween(minAmount, maxAmount));
+        return Specification.allOf(filters);
+    }
+
+    public static Specification<Transaction> forAccount(Long accountId) {
+        if (accountId == null) {
+            return null;
+        }
+        // account.id is the account_id column, so this needs no join
+        return (root, query, cb) -> cb.equal(root.get("account").get("id"), accountId);
+    }
+
+    public static Specification<Transaction> forUser(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        // user_id is copied onto every transaction, so this needs no join either
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    // Either bound may be left open
+    public static Specification<Transaction> createdBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null && endDate == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (startDate == null) {
+                return cb.lessThanOrEqualTo(root.get("createdAt"), endDate);
+            }
+            if (endDate == null) {
+                return cb.greaterThanOrEqualTo(root.get("createdAt"), startDate);
+            }
+            return cb.between(root.get("createdAt"), startDate, endDate);
+        };
+    }
+
+    public static Specification<Transaction> ofType(TransactionType transactionType) {
+        if (transactionType == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("transactionType"), transactionType);
+    }
+
+    public static Specification<Transaction> inDirection(TransactionDirection transactionDirection) {
+        if (transactionDirection == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("transactionDirection"), transactionDirection);
+    }
+
+    // Either bound may be left open
+    public static Specification<Transaction> amountBetween(BigDecimal minAmount, BigDecimal maxAmount) {
+        if (minAmount == null && maxAmount == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (minAmount == null) {
+                return cb.lessThanOrEqualTo(root.get("amount"), maxAmount);
+            }
+            if (maxAmount == null) {
+                return cb.greaterThanOrEqualTo(root.get("amount"), minAmount);
+            }
+            return cb.between(root.get("amount"), minAmount, maxAmount);
+        };
+    }
+
+    // Rows strictly after the cursor in (createdAt, id) order. The plain createdAt bound is implied by the OR,
+    // but spelling it out gives the planner an index range to seek to.
+    public static Specification<Transaction> after(TransactionCursor cursor, boolean descending) {
+        if (cursor == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            var createdAt = root.<LocalDateTime>get("createdAt");
+            var id = root.<Long>get("id");
+            if (descending) {
+                return cb.and(
+                        cb.lessThanOrEqualTo(createdAt, cursor.createdAt()),
+                        cb.or(cb.lessThan(createdAt, cursor.createdAt()), cb.lessThan(id, cursor.id())));
+            }
+            return cb.and(
+                    cb.greaterThanOrEqualTo(createdAt, cursor.createdAt()),
+                    cb.or(cb.greaterThan(createdAt, cursor.createdAt()), cb.greaterThan(id, cursor.id())));
+        };
+    }
+
+    private static void addIfPresent(List<Specification<Transaction>> filters, Specification<Transaction> filter) {
+        if (filter != null) {
+            filters.add(filter);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.mackena.Banking_Application_backend.service;
 import com.mackena.Banking_Application_backend.dtos.request.CreateAccountRequest;
 import com.mackena.Banking_Application_backend.dtos.response.AccountListResponse;
 import com.mackena.Banking_Application_backend.dtos.response.AccountResponse;
+import com.mackena.Banking_Application_backend.dtos.response.AccountSearchResponse;
+import com.mackena.Banking_Application_backend.dtos.response.AccountValidationResponse;
 import com.mackena.Banking_Application_backend.dtos.response.CreateAccountResponse;
 import com.mackena.Banking_Application_backend.dtos.response.TotalBalanceResponse;
 import com.mackena.Banking_Application_backend.models.entity.Account;
@@ -22,7 +24,8 @@ public interface AccountService{
     AccountResponse getAccountByNumber(String accountNumber, Long CurrentUserId, boolean isAdmin);
 
 
-    LowBalanceAccountsResponse getLowBalanceAccounts(BigDecimal threshold);
+    // Active accounts below the threshold, lowest balance first, one page at a time
+    LowBalanceAccountsResponse getLowBalanceAccounts(BigDecimal threshold, int page, int size);
 
     CreateAccountResponse createAccountForUser(CreateAccountRequest request, String userEmail);
 
@@ -45,7 +48,11 @@ public interface AccountService{
 
     long getActiveAccountCount();
 
-    List<Account> searchAccounts(String query, int page, int size);
+    // Ranked substring search over account number and owner name and email; the query needs 3+ characters
+    AccountSearchResponse searchAccounts(String query, int page, int size);
+
+    // Whether each account number exists and can receive transfers, for up to app.account-validation.max-batch-size
+    AccountValidationResponse validateAccountsForTransfer(List<String> accountNumbers);
 
 
 }
@@ -0,0 +1,22 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.entity.Account;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface BalanceSnapshotService {
+
+    // Writes the end-of-day balance of every account with transactions on the day and returns how many were
+    // written. Safe to run again for a day already snapshotted.
+    int snapshotDay(LocalDate day);
+
+    // Nightly: snapshots every finished day after the watermark (all days since the first transaction on the
+    // first run), advancing the watermark with each day's snapshots
+    void snapshotPendingDays();
+
+    // The account's balance just before the moment, after every transaction created earlier: the last snapshot
+    // before the moment's day plus the transactions since, so old dates cost no more than recent ones
+    BigDecimal balanceAsOf(Account account, LocalDateTime moment);
+}
@@ -0,0 +1,18 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.entity.User;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    // Runs the action once per (user, key). A repeated key returns the stored response without running
+    // the action again. Without a key the action simply runs.
+    <T> T execute(String idempotencyKey, User user, String operation, Object request,
+                  Class<T> responseType, Supplier<T> action);
+
+    void purgeExpired();
+
+    // Saves completed responses whose first save failed
+    void saveUnsaved();
+}
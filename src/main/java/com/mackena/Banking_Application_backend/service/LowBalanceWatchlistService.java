@@ -0,0 +1,18 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dto.response.LowBalanceAccountsResponse;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface LowBalanceWatchlistService {
+
+    // A page of the watched accounts, or empty when the watchlist is disabled or kept for another threshold
+    Optional<LowBalanceAccountsResponse> page(BigDecimal threshold, int page, int size);
+
+    // An account's balance after a posting, counted once the caller's transaction commits
+    void recordBalance(Long accountId, BigDecimal balance);
+
+    // Reloads the watchlist from the accounts table
+    void refresh();
+}
@@ -0,0 +1,18 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dtos.response.TransactionHistoryResponse;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RecentTransactionService {
+
+    // The first page of an account's unfiltered history, newest first, served from the cache of each account's
+    // most recent transactions (loaded on the first read). Empty when the page is larger than what is kept.
+    Optional<TransactionHistoryResponse> firstPage(Long accountId, int size, boolean includeTotal);
+
+    // Adds committed transactions to the cached pages of their accounts in place. Accounts that are not cached
+    // are left for their next read to load.
+    void recordPosted(List<Transaction> transactions);
+}
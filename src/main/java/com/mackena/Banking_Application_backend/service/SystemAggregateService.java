@@ -0,0 +1,28 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.entity.SystemAggregates;
+
+import java.math.BigDecimal;
+
+public interface SystemAggregateService {
+
+    // System-wide totals without touching the database: the row as of the last flush plus this instance's
+    // changes since. Other instances' changes show up after their next flush.
+    SystemAggregates current();
+
+    // The changes below are counted once the caller's transaction commits (straight away outside one)
+
+    // The net change to active balances of a posting: credits minus debits
+    void recordBalanceChange(BigDecimal amount);
+
+    void recordAccountOpened(BigDecimal openingBalance, boolean firstActiveAccountOfUser);
+
+    // A deleted user takes all of their accounts with them
+    void recordUserDeleted(long accounts, long activeAccounts, BigDecimal activeBalance);
+
+    // Adds the changes recorded since the last flush to the summary row and picks up other instances' flushes
+    void flush();
+
+    // Compares the summary row with the real sums over accounts and corrects it
+    void reconcile();
+}
@@ -0,0 +1,22 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dtos.request.TransactionAuthorizationRequest;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionAuthorizationResponse;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+
+import java.math.BigDecimal;
+
+public interface TransactionAuthorizationService {
+
+    // Verifies the PIN once and issues a short-lived token for one account, capped by total amount and uses
+    TransactionAuthorizationResponse authorize(TransactionAuthorizationRequest request, User currentUser);
+
+    // Checks the token signature and claims, then takes one use and the amount from its allowance
+    void redeem(String transactionToken, Account account, User currentUser, BigDecimal amount);
+
+    // Gives a redeemed use and amount back when the money movement it authorized was rejected
+    void release(String transactionToken, BigDecimal amount);
+
+    void purgeExpired();
+}
@@ -0,0 +1,10 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.repository.specification.TransactionHistoryFilter;
+
+public interface TransactionCountService {
+
+    // Number of transactions matching the filter, possibly a little stale: counts are cached and refreshed
+    // in the background, so only the first request for a filter waits for a COUNT
+    long approximateCount(TransactionHistoryFilter filter);
+}
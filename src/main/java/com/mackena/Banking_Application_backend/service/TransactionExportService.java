@@ -0,0 +1,23 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.StatementFormat;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface TransactionExportService {
+
+    // Checked before the response starts: users export their own accounts, admins any account
+    @Transactional(readOnly = true)
+    Account findExportableAccount(String accountNumber, User currentUser);
+
+    // Writes the account's transactions created between the two dates, oldest first, and returns how many
+    // were written. Rows are written as the database hands them over, so memory use does not grow with them.
+    @Transactional(readOnly = true)
+    long writeStatement(Long accountId, LocalDateTime startDate, LocalDateTime endDate, StatementFormat format,
+                        OutputStream outputStream) throws IOException;
+}
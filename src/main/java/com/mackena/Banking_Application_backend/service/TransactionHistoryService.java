@@ -23,6 +23,7 @@ public interface TransactionHistoryService {
     @Transactional(readOnly = true)
     TransactionHistoryResponse getAccountTransactions(Long accountId, TransactionHistoryRequest request);
 
+    @Transactional(readOnly = true)
     TransactionHistoryResponse getUserTransactionsForAdmin(TransactionHistoryRequest request);
 
 }
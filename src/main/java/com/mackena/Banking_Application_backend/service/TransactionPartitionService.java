@@ -0,0 +1,22 @@
+package com.mackena.Banking_Application_backend.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface TransactionPartitionService {
+
+    // Creates the missing monthly partitions of transactions from one month to another (both included) and
+    // returns the months created. A row whose month has no partition cannot be inserted.
+    List<YearMonth> createPartitions(YearMonth from, YearMonth to);
+
+    // Detaches the month's partition, which stays in the database as a plain table named
+    // transactions_archive_yYYYYmMM that the application no longer reads. False if the month has no partition.
+    boolean detachPartition(YearMonth month);
+
+    // Months with an attached partition, oldest first
+    List<YearMonth> partitionedMonths();
+
+    // Runs at startup and then daily: creates partitions up to months-ahead months from now, and detaches
+    // those older than retention-months when a retention is set
+    void maintainPartitions();
+}
@@ -15,7 +15,9 @@ public interface UserService {
     @Transactional(readOnly = true)
     UserResponse getUserById(Long id);
 
-    Page<User> getAllUsers(Pageable pageable);
+    // A page of users with their accounts, read in a fixed number of queries whatever the page size
+    @Transactional(readOnly = true)
+    Page<UserResponse> getAllUsers(Pageable pageable);
 
     DeleteUserResponse deleteUser(Long userId);
 
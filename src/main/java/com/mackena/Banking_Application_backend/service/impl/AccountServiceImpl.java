@@ -4,28 +4,48 @@ import com.mackena.Banking_Application_backend.dto.response.LowBalanceAccountsRe
 import com.mackena.Banking_Application_backend.dtos.request.CreateAccountRequest;
 import com.mackena.Banking_Application_backend.dtos.response.AccountListResponse;
 import com.mackena.Banking_Application_backend.dtos.response.AccountResponse;
+import com.mackena.Banking_Application_backend.dtos.response.AccountSearchResponse;
+import com.mackena.Banking_Application_backend.dtos.response.AccountSearchResult;
+import com.mackena.Banking_Application_backend.dtos.response.AccountSummaryResponse;
+import com.mackena.Banking_Application_backend.dtos.response.AccountValidationResponse;
+import com.mackena.Banking_Application_backend.dtos.response.AccountValidationResult;
 import com.mackena.Banking_Application_backend.dtos.response.CreateAccountResponse;
 import com.mackena.Banking_Application_backend.dtos.response.TotalBalanceResponse;
 import com.mackena.Banking_Application_backend.exceptions.AccountAccessDeniedException;
 import com.mackena.Banking_Application_backend.exceptions.AccountNotFoundException;
 import com.mackena.Banking_Application_backend.exceptions.UserNotFoundException;
 import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.SystemAggregates;
 import com.mackena.Banking_Application_backend.models.entity.User;
 import com.mackena.Banking_Application_backend.repository.AccountRepository;
 import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.repository.projection.AccountSearchRow;
+import com.mackena.Banking_Application_backend.repository.projection.AccountStatusRow;
+import com.mackena.Banking_Application_backend.repository.projection.LowBalanceTotals;
 import com.mackena.Banking_Application_backend.service.AccountService;
+import com.mackena.Banking_Application_backend.service.LowBalanceWatchlistService;
+import com.mackena.Banking_Application_backend.service.SystemAggregateService;
+import com.mackena.Banking_Application_backend.service.search.AccountSearchHits;
+import com.mackena.Banking_Application_backend.service.search.AccountSearchIndex;
 import com.mackena.Banking_Application_backend.util.converter.EntityConverter;
 import com.mackena.Banking_Application_backend.util.generator.AccountNumberGenerator;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,6 +58,17 @@ public class AccountServiceImpl implements AccountService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AccountNumberGenerator accountNumberGenerator;
+    private final SystemAggregateService systemAggregateService;
+    private final LowBalanceWatchlistService lowBalanceWatchlistService;
+    private final AccountSearchIndex accountSearchIndex;
+
+    private static final int MIN_SEARCH_TERM_LENGTH = 3;
+
+    @Value("${app.account-validation.max-batch-size:1000}")
+    private int maxValidationBatchSize;
+
+    @Value("${app.account-validation.chunk-size:500}")
+    private int validationChunkSize;
 
 
     @Override
@@ -73,25 +104,28 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    public LowBalanceAccountsResponse getLowBalanceAccounts(BigDecimal threshold) {
-        List<Account> lowBalanceAccounts = accountRepository.findAccountsWithLowBalance(threshold);
-
-        List<AccountResponse> accountResponses = lowBalanceAccounts.stream()
-                .map(accountConverter::toAccountResponse)
-                .collect(Collectors.toList());
+    public LowBalanceAccountsResponse getLowBalanceAccounts(BigDecimal threshold, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        Optional<LowBalanceAccountsResponse> watched = lowBalanceWatchlistService.page(threshold, page, size);
+        if (watched.isPresent()) {
+            return watched.get();
+        }
 
-        BigDecimal totalLowBalance = lowBalanceAccounts.stream()
-                .map(Account::getBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return LowBalanceAccountsResponse.builder()
-                .accounts(accountResponses)
-                .totalLowBalanceAccounts(lowBalanceAccounts.size())
-                .threshold(threshold)
-                .totalLowBalance(totalLowBalance)
-                .message("Total low balance: " + totalLowBalance)
-                .build();
+        List<AccountSummaryResponse> accounts = accountRepository
+                .findLowBalanceRows(threshold, pageable)
+                .stream()
+                .map(AccountSummaryResponse::from)
+                .toList();
+        LowBalanceTotals totals = accountRepository.getLowBalanceTotals(threshold);
 
+        return LowBalanceAccountsResponse.of(accounts, threshold, page, size,
+                totals.getAccounts(), totals.getTotalBalance(), false);
     }
 
     @Override
@@ -116,6 +150,8 @@ public class AccountServiceImpl implements AccountService {
                     request.getAccountType().name().toLowerCase() + " account");
         }
 
+        boolean firstActiveAccount = user.getAccounts().stream().noneMatch(Account::isActive);
+
         // Log current account count
         int currentAccountCount = user.getAccounts().size();
         log.info("User {} currently has {} accounts, creating account #{}",
@@ -136,6 +172,7 @@ public class AccountServiceImpl implements AccountService {
 
         // Save account
         Account savedAccount = accountRepository.save(newAccount);
+        systemAggregateService.recordAccountOpened(savedAccount.getBalance(), firstActiveAccount);
 
         log.info("Successfully created account {} for user {}", accountNumber, userEmail);
 
@@ -160,9 +197,10 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public TotalBalanceResponse getTotalSystemBalance() {
-        BigDecimal totalBalance = accountRepository.getTotalSystemBalance();
-        long totalActiveAccount = accountRepository.countActiveAccounts();
-        long totalUsers = accountRepository.countUsersWithActiveAccounts();
+        SystemAggregates aggregates = systemAggregateService.current();
+        BigDecimal totalBalance = BigDecimal.valueOf(aggregates.getTotalBalanceMinor(), 2);
+        long totalActiveAccount = aggregates.getActiveAccounts();
+        long totalUsers = aggregates.getUsersWithActiveAccounts();
         BigDecimal averageBalance = BigDecimal.ZERO;
 
 
@@ -222,23 +260,71 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public long getTotalAccountCount() {
         log.debug("Getting total account count");
-        return accountRepository.count();
+        return systemAggregateService.current().getTotalAccounts();
     }
 
     @Override
     public long getActiveAccountCount() {
         log.debug("Getting active account count");
-        return accountRepository.countByIsActiveTrue();
+        return systemAggregateService.current().getActiveAccounts();
     }
 
     @Override
-    public List<Account> searchAccounts(String query, int page, int size) {
+    public AccountSearchResponse searchAccounts(String query, int page, int size) {
         log.debug("Searching accounts with query: {}, page: {}, size: {}", query, page, size);
 
+        // Shorter terms hold no trigram, so no index could narrow them down
+        String term = query == null ? "" : query.trim();
+        if (term.length() < MIN_SEARCH_TERM_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Search query must be at least " + MIN_SEARCH_TERM_LENGTH + " characters");
+        }
         Pageable pageable = PageRequest.of(page, size);
 
-        // Search by account number, user first name, last name, or email
-        return accountRepository.findByAccountNumberContainingIgnoreCaseOrUser_FirstNameContainingIgnoreCaseOrUser_LastNameContainingIgnoreCaseOrUser_EmailContainingIgnoreCase(
-                query, query, query, query, pageable);
+        // Search by account number, user first name, last name, or email; details are read for the page alone
+        AccountSearchHits hits = accountSearchIndex.search(term, pageable.getOffset(), size);
+        Map<Long, AccountSearchRow> rows = hits.hits().isEmpty() ? Map.of()
+                : accountRepository.findSearchRowsByIds(hits.hits().stream().map(AccountSearchHits.Hit::accountId).toList())
+                        .stream()
+                        .collect(Collectors.toMap(AccountSearchRow::id, Function.identity()));
+        List<AccountSearchResult> results = hits.hits().stream()
+                .filter(hit -> rows.containsKey(hit.accountId()))
+                .map(hit -> AccountSearchResult.from(rows.get(hit.accountId()), hit.rank()))
+                .toList();
+
+        return AccountSearchResponse.of(results, term, page, size, hits.total());
+    }
+
+    @Override
+    public AccountValidationResponse validateAccountsForTransfer(List<String> accountNumbers) {
+        // Normalised as the single-account check does; a number requested twice is looked up and reported once
+        LinkedHashSet<String> numbers = new LinkedHashSet<>();
+        for (String accountNumber : accountNumbers) {
+            if (accountNumber == null || accountNumber.isBlank()) {
+                throw new IllegalArgumentException("Account numbers cannot be blank");
+            }
+            numbers.add(accountNumber.trim().toUpperCase());
+        }
+        if (numbers.isEmpty()) {
+            throw new IllegalArgumentException("At least one account number is required");
+        }
+        if (numbers.size() > maxValidationBatchSize) {
+            throw new IllegalArgumentException(
+                    "At most " + maxValidationBatchSize + " account numbers can be validated at once");
+        }
+        log.debug("Validating {} account numbers for transfer", numbers.size());
+
+        // One IN-list query per chunk keeps each statement's bind parameters bounded
+        List<String> distinct = new ArrayList<>(numbers);
+        Map<String, AccountStatusRow> rows = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += validationChunkSize) {
+            List<String> chunk = distinct.subList(from, Math.min(from + validationChunkSize, distinct.size()));
+            accountRepository.findStatusByAccountNumberIn(chunk)
+                    .forEach(row -> rows.put(row.accountNumber(), row));
+        }
+
+        return AccountValidationResponse.of(distinct.stream()
+                .map(number -> AccountValidationResult.of(number, rows.get(number)))
+                .toList());
     }
 }
@@ -12,6 +12,7 @@ import com.mackena.Banking_Application_backend.models.enums.UserRole;
 import com.mackena.Banking_Application_backend.repository.UserRepository;
 import com.mackena.Banking_Application_backend.security.JwtTokenProvider;
 import com.mackena.Banking_Application_backend.service.AuthService;
+import com.mackena.Banking_Application_backend.service.SystemAggregateService;
 import com.mackena.Banking_Application_backend.util.converter.EntityConverter;
 import com.mackena.Banking_Application_backend.util.generator.AccountNumberGenerator;
 import com.mackena.Banking_Application_backend.util.helper.SecurityHelper;
@@ -38,6 +39,7 @@ public class AuthServiceImpl implements AuthService {
     private final SecurityHelper securityHelper;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final SystemAggregateService systemAggregateService;
 
     @Override
     public AuthResponse registerUser(UserRegistrationRequest request) {
@@ -57,6 +59,7 @@ public class AuthServiceImpl implements AuthService {
         Account account = createAccountForUser(request, savedUser);
         savedUser.getAccounts().add(account);
         userRepository.save(savedUser);
+        systemAggregateService.recordAccountOpened(account.getBalance(), true);
 
         log.info("User registered successfully with ID: {} and Account: {}",
                 savedUser.getId(), account.getAccountNumber());
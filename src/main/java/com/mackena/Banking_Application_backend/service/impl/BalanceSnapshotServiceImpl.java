@@ -0,0 +1,113 @@
+package com.mackena.Banking_Application_backend.service.impl;
+
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.BalanceSnapshot;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import com.mackena.Banking_Application_backend.repository.BalanceSnapshotRepository;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.service.BalanceSnapshotService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class BalanceSnapshotServiceImpl implements BalanceSnapshotService {
+
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BalanceSnapshotServiceImpl(BalanceSnapshotRepository balanceSnapshotRepository,
+                                      TransactionRepository transactionRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public int snapshotDay(LocalDate day) {
+        int accounts = balanceSnapshotRepository.snapshotDay(day, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        log.debug("Snapshotted {} account balances for {}", accounts, day);
+        return accounts;
+    }
+
+    // Only finished days are snapshotted: the run is scheduled well after midnight so that postings stamped
+    // just before it have committed
+    @Override
+    @Scheduled(cron = "${app.balance-snapshots.cron:0 30 1 * * *}")
+    public void snapshotPendingDays() {
+        LocalDate lastDay = LocalDate.now().minusDays(1);
+        Optional<LocalDate> firstDay = balanceSnapshotRepository.findLastSnapshotDate()
+                .map(day -> day.plusDays(1))
+                .or(() -> transactionRepository.findFirstCreatedAt().map(LocalDateTime::toLocalDate));
+        if (firstDay.isEmpty() || firstDay.get().isAfter(lastDay)) {
+            return;
+        }
+
+        int days = 0;
+        long balances = 0;
+        for (LocalDate day = firstDay.get(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            LocalDate snapshotted = day;
+            // A day without transactions writes no snapshots, but still moves the watermark past it
+            Integer written = transactionTemplate.execute(status -> {
+                int accounts = snapshotDay(snapshotted);
+                balanceSnapshotRepository.advanceWatermark(snapshotted);
+                return accounts;
+            });
+            balances += written != null ? written : 0;
+            days++;
+        }
+        log.info("Snapshotted {} account balances over {} days ({} to {})", balances, days, firstDay.get(), lastDay);
+    }
+
+    @Override
+    public BigDecimal balanceAsOf(Account account, LocalDateTime moment) {
+        // Days up to the last snapshotted one have their closing balances stored, so the search for the last
+        // transaction only goes back to the moment's day, or to the first day not snapshotted yet
+        Optional<LocalDate> lastSnapshotDate = balanceSnapshotRepository.findLastSnapshotDate();
+        if (lastSnapshotDate.isEmpty()) {
+            return transactionRepository.findLastBalanceBefore(account.getId(), moment)
+                    .orElseGet(() -> openingBalance(account));
+        }
+
+        LocalDateTime from = moment.toLocalDate().atStartOfDay();
+        LocalDateTime firstUnsnapshotted = lastSnapshotDate.get().plusDays(1).atStartOfDay();
+        if (firstUnsnapshotted.isBefore(from)) {
+            from = firstUnsnapshotted;
+        }
+
+        Optional<BigDecimal> latest = transactionRepository.findLastBalanceBetween(account.getId(), from, moment);
+        if (latest.isPresent()) {
+            return latest.get();
+        }
+        return balanceSnapshotRepository
+                .findFirstByAccountIdAndSnapshotDateBeforeOrderBySnapshotDateDesc(account.getId(), from.toLocalDate())
+                .map(BalanceSnapshot::getBalance)
+                .orElseGet(() -> openingBalance(account));
+    }
+
+    // The balance before the account's first transaction (an account can be opened with a balance), or its
+    // balance now if nothing was ever posted to it
+    private BigDecimal openingBalance(Account account) {
+        return transactionRepository.findFirstByAccountIdOrderByCreatedAtAscIdAsc(account.getId())
+                .filter(first -> first.getBalanceAfter() != null)
+                .map(this::balanceBefore)
+                .orElse(account.getBalance());
+    }
+
+    private BigDecimal balanceBefore(Transaction transaction) {
+        return transaction.getTransactionDirection() == TransactionDirection.CREDIT
+                ? transaction.getBalanceAfter().subtract(transaction.getAmount())
+                : transaction.getBalanceAfter().add(transaction.getAmount());
+    }
+}
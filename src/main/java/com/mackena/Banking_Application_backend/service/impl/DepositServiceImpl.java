@@ -10,15 +10,18 @@ import com.mackena.Banking_Application_backend.models.enums.TransactionDirection
 import com.mackena.Banking_Application_backend.models.enums.TransactionStatus;
 import com.mackena.Banking_Application_backend.models.enums.TransactionType;
 import com.mackena.Banking_Application_backend.repository.AccountRepository;
-import com.mackena.Banking_Application_backend.repository.TransactionRepository;
 import com.mackena.Banking_Application_backend.service.DepositService;
+import com.mackena.Banking_Application_backend.service.RecentTransactionService;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerLeg;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerPosting;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerWriter;
+import com.mackena.Banking_Application_backend.util.generator.ReferenceNumberGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -26,7 +29,9 @@ import java.util.UUID;
 public class DepositServiceImpl implements DepositService {
 
     private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
+    private final LedgerWriter ledgerWriter;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final RecentTransactionService recentTransactionService;
 
 
     @Override
@@ -35,37 +40,45 @@ public class DepositServiceImpl implements DepositService {
         //Validate account exists
         Account account = validateDepositAccount(request.getAccountNumber());
 
+        Transaction transaction;
         try {
             //Create deposit transaction
-            Transaction transaction = createDepositTransaction(account, request, adminUser);
-
-            //Update account balance
-            account.setBalance(account.getBalance().add(request.getAmount()));
-            transaction.setBalanceAfter(account.getBalance());
-
-            //Save transaction and account
-            transactionRepository.save(transaction);
-            accountRepository.save(account);
-
-            log.info("Deposit completed successfully by admin: {}. Reference: {}",
-                    adminUser.getEmail(), transaction.getReferenceNumber());
-
-            return TransactionResponse.builder()
-                    .referenceNumber(transaction.getReferenceNumber())
-                    .accountNumber(request.getAccountNumber())
-                    .amount(request.getAmount())
-                    .transactionType("DEPOSIT")
-                    .notes(request.getNotes())
-                    .status("COMPLETED")
-                    .balanceAfter(account.getBalance())
-                    .transactionDate(LocalDateTime.now())
-                    .message("Deposit completed successfully")
-                    .depositSource(request.getDepositSource())
-                    .build();
+            transaction = createDepositTransaction(account, request, adminUser);
 
+            //Update account balance and save transaction
+            ledgerWriter.post(LedgerPosting.of(LedgerLeg.credit(transaction,
+                    () -> new InsufficientFundsException("Cannot deposit to inactive account"))));
         } catch (Exception e) {
             log.error("Deposit failed for account: {}, Error: {}", request.getAccountNumber(), e.getMessage());
-            throw new RuntimeException("Deposit failed: " + e.getMessage());
+            throw new RuntimeException("Deposit failed: " + e.getMessage(), e);
+        }
+
+        // The credit is committed; from here on nothing may report the deposit as failed
+        recordPosted(transaction);
+
+        log.info("Deposit completed successfully by admin: {}. Reference: {}",
+                adminUser.getEmail(), transaction.getReferenceNumber());
+
+        return TransactionResponse.builder()
+                .referenceNumber(transaction.getReferenceNumber())
+                .accountNumber(request.getAccountNumber())
+                .amount(request.getAmount())
+                .transactionType("DEPOSIT")
+                .notes(request.getNotes())
+                .status("COMPLETED")
+                .balanceAfter(transaction.getBalanceAfter())
+                .transactionDate(LocalDateTime.now())
+                .message("Deposit completed successfully")
+                .depositSource(request.getDepositSource())
+                .build();
+    }
+
+    private void recordPosted(Transaction transaction) {
+        try {
+            recentTransactionService.recordPosted(List.of(transaction));
+        } catch (RuntimeException e) {
+            log.warn("Could not add deposit {} to the recent transactions cache: {}",
+                    transaction.getReferenceNumber(), e.getMessage());
         }
     }
 
@@ -97,6 +110,6 @@ public class DepositServiceImpl implements DepositService {
     }
 
     private String generateReferenceNumber() {
-        return "DEP" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+        return referenceNumberGenerator.generate(TransactionType.DEPOSIT);
     }
 }
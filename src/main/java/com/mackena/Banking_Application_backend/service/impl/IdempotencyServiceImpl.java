@@ -0,0 +1,263 @@
+package com.mackena.Banking_Application_backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mackena.Banking_Application_backend.exceptions.AccountAccessDeniedException;
+import com.mackena.Banking_Application_backend.exceptions.AccountNotFoundException;
+import com.mackena.Banking_Application_backend.exceptions.IdempotencyConflictException;
+import com.mackena.Banking_Application_backend.exceptions.InsufficientFundsException;
+import com.mackena.Banking_Application_backend.exceptions.InvalidAccountException;
+import com.mackena.Banking_Application_backend.exceptions.InvalidPinException;
+import com.mackena.Banking_Application_backend.exceptions.InvalidTransactionTokenException;
+import com.mackena.Banking_Application_backend.models.entity.IdempotencyRecord;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.TransactionStatus;
+import com.mackena.Banking_Application_backend.repository.IdempotencyRecordRepository;
+import com.mackena.Banking_Application_backend.service.IdempotencyService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final List<Class<? extends RuntimeException>> REJECTIONS = List.of(
+            InvalidAccountException.class,
+            InsufficientFundsException.class,
+            InvalidPinException.class,
+            InvalidTransactionTokenException.class,
+            AccountNotFoundException.class,
+            AccountAccessDeniedException.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    // Completed responses by "userId:key", least recently used evicted first. Replays within one instance
+    // are answered from here; the table covers restarts and the other instances.
+    private Map<String, IdempotencyRecord> recentResponses;
+
+    // Completed responses whose save failed after the money moved
+    private final Queue<IdempotencyRecord> unsavedResponses = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    void initCache() {
+        recentResponses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public <T> T execute(String idempotencyKey, User user, String operation, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = user.getId() + ":" + key;
+        String requestHash = hashRequest(operation, request);
+
+        IdempotencyRecord cached = recentResponses.get(cacheKey);
+        if (cached != null && cached.getExpiresAt().isAfter(LocalDateTime.now())) {
+            log.info("Replaying {} for idempotency key {} from cache", operation, key);
+            return replay(cached, requestHash, responseType);
+        }
+
+        IdempotencyRecord claim = claim(user.getId(), key, operation, requestHash);
+        if (claim.getStatus() == TransactionStatus.COMPLETED) {
+            log.info("Replaying {} for idempotency key {}", operation, key);
+            recentResponses.put(cacheKey, claim);
+            return replay(claim, requestHash, responseType);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            if (isRejection(e)) {
+                // Nothing was posted, so the client may retry with the same key
+                idempotencyRecordRepository.delete(claim);
+            } else {
+                // The money may or may not have moved; every retry with this key gets the same answer
+                markFailed(claim, operation, key, e);
+            }
+            throw e;
+        }
+
+        claim.setStatus(TransactionStatus.COMPLETED);
+        claim.setResponseBody(toJson(response));
+        recentResponses.put(cacheKey, claim);
+        try {
+            idempotencyRecordRepository.save(claim);
+        } catch (RuntimeException e) {
+            // The posting went through, so the client still gets its response. This instance replays it from
+            // the cache, and the record is saved again until the table has it.
+            log.error("Could not store the response of {} for idempotency key {}, retrying later", operation, key, e);
+            unsavedResponses.add(claim);
+        }
+
+        return response;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.idempotency.retry-interval-ms:5000}")
+    public void saveUnsaved() {
+        IdempotencyRecord record;
+        while ((record = unsavedResponses.peek()) != null) {
+            try {
+                idempotencyRecordRepository.save(record);
+            } catch (RuntimeException e) {
+                log.warn("Stored idempotent responses still failing to save: {}", e.getMessage());
+                return;
+            }
+            unsavedResponses.remove(record);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = idempotencyRecordRepository.deleteExpired(now);
+        recentResponses.values().removeIf(record -> record.getExpiresAt().isBefore(now));
+
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    // Inserts a PENDING record for the key, or returns the stored one if the key was seen before.
+    // The unique (user_id, idempotency_key) constraint decides between concurrent first attempts.
+    private IdempotencyRecord claim(Long userId, String key, String operation, String requestHash) {
+        IdempotencyRecord existing = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, key)
+                .orElse(null);
+
+        // Expired but not purged yet: the key is free again, as it is once the purge has run
+        if (existing != null && existing.getExpiresAt().isBefore(LocalDateTime.now())) {
+            idempotencyRecordRepository.delete(existing);
+            existing = null;
+        }
+
+        if (existing == null) {
+            try {
+                return idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .userId(userId)
+                        .idempotencyKey(key)
+                        .operation(operation)
+                        .requestHash(requestHash)
+                        .status(TransactionStatus.PENDING)
+                        .expiresAt(LocalDateTime.now().plusHours(ttlHours))
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                existing = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, key)
+                        .orElseThrow(() -> e);
+            }
+        }
+
+        if (!existing.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException("Idempotency key was already used for a different request");
+        }
+        if (existing.getStatus() == TransactionStatus.FAILED) {
+            throw new IdempotencyConflictException("A request with this idempotency key failed with an unknown "
+                    + "outcome; check the transaction history before retrying with a new key");
+        }
+        if (existing.getStatus() != TransactionStatus.COMPLETED) {
+            throw new IdempotencyConflictException("A request with this idempotency key is still being processed");
+        }
+        return existing;
+    }
+
+    // Thrown by request validation or by a rejected ledger leg, i.e. only when nothing was posted. Deposits and
+    // withdrawals wrap them, so the causes are checked too.
+    private static boolean isRejection(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            for (Class<? extends RuntimeException> rejection : REJECTIONS) {
+                if (rejection.isInstance(cause)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void markFailed(IdempotencyRecord claim, String operation, String key, RuntimeException failure) {
+        log.warn("{} with idempotency key {} failed with an unknown outcome, key blocked until it expires",
+                operation, key, failure);
+        claim.setStatus(TransactionStatus.FAILED);
+        try {
+            idempotencyRecordRepository.save(claim);
+        } catch (RuntimeException e) {
+            // Left PENDING, which retries also cannot get past
+            log.error("Could not mark idempotency key {} as failed", key, e);
+        }
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, Class<T> responseType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException("Idempotency key was already used for a different request");
+        }
+        try {
+            return objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    // The PIN and transaction token are left out so that the stored hash can't be used to brute-force the PIN,
+    // and a retry may switch between the two
+    private String hashRequest(String operation, Object request) {
+        ObjectNode body = objectMapper.valueToTree(request);
+        body.remove("transactionPin");
+        body.remove("transactionToken");
+        body.put("operation", operation);
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toJson(body).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+}
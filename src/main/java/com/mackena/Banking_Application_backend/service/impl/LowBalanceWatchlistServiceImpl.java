@@ -0,0 +1,158 @@
+package com.mackena.Banking_Application_backend.service.impl;
+
+import com.mackena.Banking_Application_backend.dto.response.LowBalanceAccountsResponse;
+import com.mackena.Banking_Application_backend.dtos.response.AccountSummaryResponse;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.projection.LowBalanceAccountRow;
+import com.mackena.Banking_Application_backend.service.LowBalanceWatchlistService;
+import com.mackena.Banking_Application_backend.util.helper.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LowBalanceWatchlistServiceImpl implements LowBalanceWatchlistService {
+
+    private static final Comparator<Watched> LOWEST_FIRST = Comparator
+            .comparing(Watched::balance)
+            .thenComparing(Watched::accountId);
+
+    private final AccountRepository accountRepository;
+
+    @Value("${app.low-balance-watchlist.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.low-balance-watchlist.threshold:100}")
+    private BigDecimal threshold;
+
+    // Beyond this many accounts below the threshold, pages are read from the partial index instead
+    @Value("${app.low-balance-watchlist.max-accounts:100000}")
+    private int maxAccounts;
+
+    // Replaced whole by each refresh; null until the first one. Postings through other instances, accounts
+    // opened or deleted, and two postings on one account whose commits are recorded out of order are only
+    // corrected by the next refresh.
+    private volatile Watchlist watchlist;
+
+    @Override
+    public Optional<LowBalanceAccountsResponse> page(BigDecimal threshold, int page, int size) {
+        Watchlist current = watchlist;
+        if (!enabled || current == null || threshold.compareTo(this.threshold) != 0) {
+            return Optional.empty();
+        }
+
+        // Balances come from the watchlist's order, details from a primary key lookup of the page alone
+        List<Long> accountIds = current.accountIds((long) page * size, size);
+        Map<Long, LowBalanceAccountRow> rows = accountIds.isEmpty() ? Map.of()
+                : accountRepository.findLowBalanceRowsByIds(accountIds).stream()
+                        .collect(Collectors.toMap(LowBalanceAccountRow::id, Function.identity()));
+        List<AccountSummaryResponse> accounts = accountIds.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .map(AccountSummaryResponse::from)
+                .toList();
+
+        return Optional.of(LowBalanceAccountsResponse.of(accounts, threshold, page, size,
+                current.size(), current.totalBalance(), true));
+    }
+
+    @Override
+    public void recordBalance(Long accountId, BigDecimal balance) {
+        if (!enabled || balance == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            Watchlist current = watchlist;
+            if (current != null) {
+                current.put(accountId, balance, balance.compareTo(threshold) < 0);
+                if (current.size() > maxAccounts) {
+                    dropOversized(current);
+                }
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.low-balance-watchlist.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        // One row past the cap is enough to tell the watchlist would be too large
+        List<LowBalanceAccountRow> rows = accountRepository.findLowBalanceRows(
+                threshold, PageRequest.of(0, maxAccounts + 1));
+        if (rows.size() > maxAccounts) {
+            watchlist = null;
+            log.warn("More than {} accounts below {}, low-balance pages are read from the database until the "
+                    + "next refresh", maxAccounts, threshold);
+            return;
+        }
+        Watchlist loaded = new Watchlist();
+        rows.forEach(row -> loaded.put(row.id(), row.balance(), true));
+        watchlist = loaded;
+        log.debug("Low-balance watchlist reloaded: {} accounts below {}", loaded.size(), threshold);
+    }
+
+    private synchronized void dropOversized(Watchlist current) {
+        if (watchlist == current) {
+            watchlist = null;
+            log.warn("Low-balance watchlist grew past {} accounts, dropped until the next refresh", maxAccounts);
+        }
+    }
+
+    private record Watched(BigDecimal balance, Long accountId) {
+    }
+
+    // Active accounts below the threshold by id, and the same accounts lowest balance first for paging
+    private static final class Watchlist {
+
+        private final Map<Long, BigDecimal> balances = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListSet<Watched> lowestFirst = new ConcurrentSkipListSet<>(LOWEST_FIRST);
+        private final AtomicReference<BigDecimal> totalBalance = new AtomicReference<>(BigDecimal.ZERO);
+
+        // Atomic per account: its entry in the ordered set and the total always match its balance here
+        void put(Long accountId, BigDecimal balance, boolean watched) {
+            balances.compute(accountId, (id, previous) -> {
+                BigDecimal change = watched ? balance : BigDecimal.ZERO;
+                if (previous != null) {
+                    lowestFirst.remove(new Watched(previous, id));
+                    change = change.subtract(previous);
+                }
+                if (watched) {
+                    lowestFirst.add(new Watched(balance, id));
+                }
+                totalBalance.accumulateAndGet(change, BigDecimal::add);
+                return watched ? balance : null;
+            });
+        }
+
+        List<Long> accountIds(long offset, int limit) {
+            return lowestFirst.stream().skip(offset).limit(limit).map(Watched::accountId).toList();
+        }
+
+        long size() {
+            return balances.size();
+        }
+
+        BigDecimal totalBalance() {
+            return totalBalance.get();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.mackena.Banking_Application_backend.service.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionDetailResponse;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionHistoryResponse;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.repository.projection.TransactionHistoryRow;
+import com.mackena.Banking_Application_backend.repository.specification.TransactionSpecifications;
+import com.mackena.Banking_Application_backend.service.RecentTransactionService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class RecentTransactionServiceImpl implements RecentTransactionService {
+
+    private static final String CACHE_NAME = "transactions.recent";
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+    private static final Comparator<TransactionDetailResponse> NEWEST_FIRST_ORDER = Comparator
+            .comparing(TransactionDetailResponse::getCreatedAt)
+            .thenComparing(TransactionDetailResponse::getId)
+            .reversed();
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate snapshotTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.history.recent-cache.transactions-per-account:20}")
+    private int transactionsPerAccount;
+
+    @Value("${app.history.recent-cache.max-accounts:10000}")
+    private long maxAccounts;
+
+    @Value("${app.history.recent-cache.expire-seconds:300}")
+    private long expireSeconds;
+
+    // Entries expire expireSeconds after they were loaded, however often they were updated since: postings made
+    // by other instances never reach this cache, so that is how stale a page can get
+    private LoadingCache<Long, RecentTransactions> recent;
+
+    public RecentTransactionServiceImpl(TransactionRepository transactionRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.meterRegistry = meterRegistry;
+        // The rows and the count of a load come from one snapshot, so a posting committed during the load is
+        // either in both (and skipped when recorded) or in neither (and added when recorded)
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void initCache() {
+        recent = Caffeine.newBuilder()
+                .maximumSize(maxAccounts)
+                .expireAfter(Expiry.creating((Long accountId, RecentTransactions transactions) ->
+                        Duration.ofSeconds(expireSeconds)))
+                .recordStats()
+                .build(accountId -> load(accountId, false));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", recent, cache -> cache.stats().hitRate())
+                .description("Share of first history pages served from the recent transactions cache")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<TransactionHistoryResponse> firstPage(Long accountId, int size, boolean includeTotal) {
+        if (size <= 0 || size > transactionsPerAccount) {
+            return Optional.empty();
+        }
+
+        RecentTransactions transactions = includeTotal
+                ? recent.get(accountId, id -> load(id, true))
+                : recent.get(accountId);
+        if (includeTotal && transactions.total() == null) {
+            // Loaded by a request that did not need the total; reload rows and count together
+            transactions = recent.asMap().compute(accountId, (id, stale) -> load(id, true));
+        }
+
+        List<TransactionDetailResponse> content = transactions.newestFirst()
+                .subList(0, Math.min(size, transactions.newestFirst().size()));
+        boolean hasNext = transactions.newestFirst().size() > size || transactions.more();
+        Long total = includeTotal ? transactions.total() : null;
+
+        return Optional.of(TransactionHistoryResponse.builder()
+                .transactionDetails(content)
+                .currentPage(0)
+                .totalPages(total == null ? null : (int) Math.ceil((double) total / size))
+                .totalElements(total == null ? null : total.intValue())
+                .totalApproximate(false)
+                .hasNext(hasNext)
+                .hasPrevious(false)
+                .build());
+    }
+
+    @Override
+    public void recordPosted(List<Transaction> transactions) {
+        Map<Long, List<TransactionDetailResponse>> byAccount = transactions.stream()
+                .collect(Collectors.groupingBy(transaction -> transaction.getAccount().getId(),
+                        Collectors.mapping(TransactionDetailResponse::from, Collectors.toList())));
+
+        byAccount.forEach((accountId, posted) -> recent.asMap().computeIfPresent(accountId,
+                (id, current) -> current.with(posted, transactionsPerAccount)));
+    }
+
+    // Reads one row past the window, which tells whether older transactions exist. The total is counted only
+    // when asked for and not already known from a window that holds every row.
+    private RecentTransactions load(Long accountId, boolean withTotal) {
+        return snapshotTemplate.execute(status -> {
+            Specification<Transaction> specification = TransactionSpecifications.forAccount(accountId);
+            List<TransactionHistoryRow> rows = transactionRepository.findHistoryRows(
+                    specification, NEWEST_FIRST, 0, transactionsPerAccount + 1);
+
+            boolean more = rows.size() > transactionsPerAccount;
+            List<TransactionDetailResponse> newestFirst = (more ? rows.subList(0, transactionsPerAccount) : rows)
+                    .stream()
+                    .map(TransactionDetailResponse::from)
+                    .toList();
+            Long total = !more ? Long.valueOf(rows.size())
+                    : withTotal ? Long.valueOf(transactionRepository.count(specification))
+                    : null;
+
+            log.debug("Loaded {} recent transactions for account ID: {}", newestFirst.size(), accountId);
+            return new RecentTransactions(newestFirst, more, total);
+        });
+    }
+
+    // An account's most recent transactions, newest first. more tells whether older ones exist; total is
+    // null until a page asked for it.
+    private record RecentTransactions(List<TransactionDetailResponse> newestFirst, boolean more, Long total) {
+
+        RecentTransactions with(List<TransactionDetailResponse> posted, int limit) {
+            List<TransactionDetailResponse> merged = new ArrayList<>(newestFirst);
+            long added = 0;
+            for (TransactionDetailResponse transaction : posted) {
+                // Already there when the load ran after the posting committed
+                if (merged.stream().noneMatch(existing -> existing.getId().equals(transaction.getId()))) {
+                    merged.add(transaction);
+                    added++;
+                }
+            }
+            merged.sort(NEWEST_FIRST_ORDER);
+
+            boolean trimmed = merged.size() > limit;
+            return new RecentTransactions(
+                    List.copyOf(trimmed ? merged.subList(0, limit) : merged),
+                    more || trimmed,
+                    total == null ? null : total + added);
+        }
+    }
+}
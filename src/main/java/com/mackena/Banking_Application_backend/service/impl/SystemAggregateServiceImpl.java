@@ -0,0 +1,245 @@
+package com.mackena.Banking_Application_backend.service.impl;
+
+import com.mackena.Banking_Application_backend.models.entity.SystemAggregates;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.SystemAggregatesRepository;
+import com.mackena.Banking_Application_backend.repository.projection.SystemTotals;
+import com.mackena.Banking_Application_backend.service.SystemAggregateService;
+import com.mackena.Banking_Application_backend.util.helper.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@Slf4j
+public class SystemAggregateServiceImpl implements SystemAggregateService {
+
+    private final SystemAggregatesRepository systemAggregatesRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Everything this instance has recorded since startup. Only ever added to: postings on many threads update
+    // separate cells instead of contending on one counter, and a flush sends the difference from what it sent
+    // before.
+    private final LongAdder balanceMinor = new LongAdder();
+    private final LongAdder accounts = new LongAdder();
+    private final LongAdder activeAccounts = new LongAdder();
+    private final LongAdder usersWithActiveAccounts = new LongAdder();
+
+    // The row as last read or written, and how much of this instance's recorded changes it already holds.
+    // Swapped as one, so a reader never counts a change twice or misses one during a flush.
+    private volatile Base base;
+
+    // How far apart two drifts may be, as a fraction of the larger, and still count as the same one
+    @Value("${app.system-aggregates.drift-tolerance:0.5}")
+    private double driftTolerance;
+
+    // The drift the last reconciliation found and left uncorrected
+    private Totals unconfirmedDrift = Totals.ZERO;
+
+    public SystemAggregateServiceImpl(SystemAggregatesRepository systemAggregatesRepository,
+                                      AccountRepository accountRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.systemAggregatesRepository = systemAggregatesRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public SystemAggregates current() {
+        Base current = base();
+        Totals totals = Totals.of(current.row()).plus(recorded().minus(current.included()));
+        return totals.copyOf(current.row());
+    }
+
+    @Override
+    public void recordBalanceChange(BigDecimal amount) {
+        long minor = toMinor(amount);
+        if (minor != 0) {
+            AfterCommit.run(() -> balanceMinor.add(minor));
+        }
+    }
+
+    @Override
+    public void recordAccountOpened(BigDecimal openingBalance, boolean firstActiveAccountOfUser) {
+        long minor = toMinor(openingBalance);
+        AfterCommit.run(() -> {
+            balanceMinor.add(minor);
+            accounts.increment();
+            activeAccounts.increment();
+            if (firstActiveAccountOfUser) {
+                usersWithActiveAccounts.increment();
+            }
+        });
+    }
+
+    @Override
+    public void recordUserDeleted(long accounts, long activeAccounts, BigDecimal activeBalance) {
+        long minor = toMinor(activeBalance);
+        AfterCommit.run(() -> {
+            balanceMinor.add(-minor);
+            this.accounts.add(-accounts);
+            this.activeAccounts.add(-activeAccounts);
+            if (activeAccounts > 0) {
+                usersWithActiveAccounts.decrement();
+            }
+        });
+    }
+
+    // Frequent and cheap: one relative update when something changed, otherwise a primary key read
+    @Override
+    @Scheduled(fixedDelayString = "${app.system-aggregates.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Totals recorded = recorded();
+        Totals delta = recorded.minus(base().included());
+
+        SystemAggregates row = delta.isZero()
+                ? loadRow()
+                : transactionTemplate.execute(status -> {
+                    systemAggregatesRepository.addDeltas(delta.balanceMinor(), delta.accounts(),
+                            delta.activeAccounts(), delta.usersWithActiveAccounts());
+                    return loadRow();
+                });
+        base = new Base(row, recorded);
+    }
+
+    // The summary row can drift from the accounts table: changes recorded by an instance that died before
+    // flushing, or balances changed outside the application. A difference is also seen while postings are in
+    // flight (committed but not yet recorded, or recorded by another instance but not yet flushed), and it is
+    // never exactly the same twice while postings flow. So each total is corrected once two reconciliations in
+    // a row find it off in the same direction by a similar amount, and only by the part both of them saw.
+    @Override
+    @Scheduled(fixedDelayString = "${app.system-aggregates.reconcile-interval-ms:600000}",
+            initialDelayString = "${app.system-aggregates.reconcile-interval-ms:600000}")
+    public synchronized void reconcile() {
+        Totals recorded = recorded();
+        SystemAggregates row = transactionTemplate.execute(status -> {
+            // Locked first, so other instances' flushes wait until the comparison is written
+            SystemAggregates locked = systemAggregatesRepository.lockRow()
+                    .orElseThrow(() -> new IllegalStateException("system_aggregates row is missing"));
+            Totals expected = Totals.of(locked).plus(recorded.minus(base().included()));
+            Totals drift = Totals.of(accountRepository.computeSystemTotals()).minus(expected);
+
+            Totals correction = drift.confirmedBy(unconfirmedDrift, driftTolerance);
+            if (!correction.isZero()) {
+                log.warn("System aggregates drifted from the accounts table by {}, correcting", correction);
+            }
+            unconfirmedDrift = drift.minus(correction);
+            if (!unconfirmedDrift.isZero()) {
+                log.info("System aggregates differ from the accounts table by {}, rechecking next run",
+                        unconfirmedDrift);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            expected.plus(correction).writeTo(locked);
+            locked.setUpdatedAt(now);
+            locked.setReconciledAt(now);
+            return locked;
+        });
+        base = new Base(row, recorded);
+    }
+
+    private Base base() {
+        Base current = base;
+        if (current == null) {
+            synchronized (this) {
+                if (base == null) {
+                    base = new Base(loadRow(), Totals.ZERO);
+                }
+                current = base;
+            }
+        }
+        return current;
+    }
+
+    private SystemAggregates loadRow() {
+        return systemAggregatesRepository.findById(SystemAggregates.ROW_ID)
+                .orElseThrow(() -> new IllegalStateException("system_aggregates row is missing"));
+    }
+
+    private Totals recorded() {
+        return new Totals(balanceMinor.sum(), accounts.sum(), activeAccounts.sum(), usersWithActiveAccounts.sum());
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private record Base(SystemAggregates row, Totals included) {
+    }
+
+    private record Totals(long balanceMinor, long accounts, long activeAccounts, long usersWithActiveAccounts) {
+
+        static final Totals ZERO = new Totals(0, 0, 0, 0);
+
+        static Totals of(SystemAggregates row) {
+            return new Totals(row.getTotalBalanceMinor(), row.getTotalAccounts(), row.getActiveAccounts(),
+                    row.getUsersWithActiveAccounts());
+        }
+
+        static Totals of(SystemTotals totals) {
+            return new Totals(toMinor(totals.getTotalBalance()), totals.getTotalAccounts(),
+                    totals.getActiveAccounts(), totals.getUsersWithActiveAccounts());
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(balanceMinor + other.balanceMinor, accounts + other.accounts,
+                    activeAccounts + other.activeAccounts, usersWithActiveAccounts + other.usersWithActiveAccounts);
+        }
+
+        Totals minus(Totals other) {
+            return new Totals(balanceMinor - other.balanceMinor, accounts - other.accounts,
+                    activeAccounts - other.activeAccounts, usersWithActiveAccounts - other.usersWithActiveAccounts);
+        }
+
+        boolean isZero() {
+            return equals(ZERO);
+        }
+
+        // Per total, the part of this drift that the previous one also showed: nothing unless both are off in
+        // the same direction by amounts within tolerance of each other, otherwise the one closer to zero
+        Totals confirmedBy(Totals previous, double tolerance) {
+            return new Totals(confirmed(balanceMinor, previous.balanceMinor, tolerance),
+                    confirmed(accounts, previous.accounts, tolerance),
+                    confirmed(activeAccounts, previous.activeAccounts, tolerance),
+                    confirmed(usersWithActiveAccounts, previous.usersWithActiveAccounts, tolerance));
+        }
+
+        private static long confirmed(long drift, long previous, double tolerance) {
+            if (Long.signum(drift) != Long.signum(previous)) {
+                return 0;
+            }
+            long smaller = Math.min(Math.abs(drift), Math.abs(previous));
+            long larger = Math.max(Math.abs(drift), Math.abs(previous));
+            if (larger - smaller > tolerance * larger) {
+                return 0;
+            }
+            return Long.signum(drift) * smaller;
+        }
+
+        void writeTo(SystemAggregates row) {
+            row.setTotalBalanceMinor(balanceMinor);
+            row.setTotalAccounts(accounts);
+            row.setActiveAccounts(activeAccounts);
+            row.setUsersWithActiveAccounts(usersWithActiveAccounts);
+        }
+
+        SystemAggregates copyOf(SystemAggregates row) {
+            SystemAggregates copy = SystemAggregates.builder()
+                    .id(row.getId())
+                    .updatedAt(row.getUpdatedAt())
+                    .reconciledAt(row.getReconciledAt())
+                    .build();
+            writeTo(copy);
+            return copy;
+        }
+    }
+}
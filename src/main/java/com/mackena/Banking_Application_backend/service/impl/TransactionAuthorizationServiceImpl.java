@@ -0,0 +1,202 @@
+package com.mackena.Banking_Application_backend.service.impl;
+
+import com.mackena.Banking_Application_backend.dtos.request.TransactionAuthorizationRequest;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionAuthorizationResponse;
+import com.mackena.Banking_Application_backend.exceptions.InvalidAccountException;
+import com.mackena.Banking_Application_backend.exceptions.InvalidPinException;
+import com.mackena.Banking_Application_backend.exceptions.InvalidTransactionTokenException;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.TransactionTokenAllowance;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.TransactionTokenAllowanceRepository;
+import com.mackena.Banking_Application_backend.service.TransactionAuthorizationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.DecodingException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionAuthorizationServiceImpl implements TransactionAuthorizationService {
+
+    private static final String ACCOUNT_CLAIM = "acct";
+    private static final int MIN_SECRET_BYTES = 32; // HMAC-SHA256
+
+    private final AccountRepository accountRepository;
+    private final TransactionTokenAllowanceRepository allowanceRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${app.transaction-token.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.transaction-token.max-uses:10}")
+    private int maxUsesLimit;
+
+    // Base64 HMAC key, the same on every instance so that a token issued by one is accepted by all
+    @Value("${app.transaction-token.secret}")
+    private String secret;
+
+    private SecretKey key;
+
+    // Anyone who knows the key can mint tokens that skip the PIN check, so there is no fallback key
+    @PostConstruct
+    void init() {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("app.transaction-token.secret must be set");
+        }
+        byte[] keyBytes;
+        try {
+            keyBytes = Decoders.BASE64.decode(secret.trim());
+        } catch (DecodingException e) {
+            throw new IllegalStateException("app.transaction-token.secret must be base64", e);
+        }
+        if (keyBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("app.transaction-token.secret must be at least " + MIN_SECRET_BYTES * 8
+                    + " bits, got " + keyBytes.length * 8);
+        }
+        this.key = Keys.hmacShaKeyFor(keyBytes);
+    }
+
+    @Override
+    public TransactionAuthorizationResponse authorize(TransactionAuthorizationRequest request, User currentUser) {
+        int maxUses = request.getMaxUses() != null ? request.getMaxUses() : 1;
+        if (maxUses < 1 || maxUses > maxUsesLimit) {
+            throw new IllegalArgumentException("A transaction token allows between 1 and " + maxUsesLimit + " uses");
+        }
+
+        Account account = accountRepository.findByAccountNumber(request.getAccountNumber().trim())
+                .orElseThrow(() -> new InvalidAccountException("Account not found: " + request.getAccountNumber()));
+
+        if (!account.getUser().getId().equals(currentUser.getId()) && !currentUser.getRole().isAdmin()) {
+            throw new InvalidAccountException("You don't have permission to authorize transactions on this account");
+        }
+
+        if (!account.isActive()) {
+            throw new InvalidAccountException("Account is not active");
+        }
+
+        if (account.getTransactionPin() == null) {
+            throw new InvalidPinException("Transaction PIN not set for this account");
+        }
+
+        // The only BCrypt check for the lifetime of the token
+        if (!passwordEncoder.matches(request.getTransactionPin(), account.getTransactionPin())) {
+            throw new InvalidPinException("Invalid transaction PIN");
+        }
+
+        String tokenId = UUID.randomUUID().toString();
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plusSeconds(ttlSeconds);
+
+        String token = Jwts.builder()
+                .id(tokenId)
+                .subject(String.valueOf(currentUser.getId()))
+                .claim(ACCOUNT_CLAIM, account.getId())
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(expiresAt))
+                .signWith(key)
+                .compact();
+
+        // The signed token only proves what was granted; what is left of it is kept in the database
+        allowanceRepository.save(TransactionTokenAllowance.builder()
+                .tokenId(tokenId)
+                .userId(currentUser.getId())
+                .accountId(account.getId())
+                .remainingUses(maxUses)
+                .remainingAmount(request.getMaxAmount())
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .build());
+
+        log.info("Issued transaction token for account {} ({} uses, up to {})",
+                account.getAccountNumber(), maxUses, request.getMaxAmount());
+
+        return TransactionAuthorizationResponse.builder()
+                .transactionToken(token)
+                .accountNumber(account.getAccountNumber())
+                .maxAmount(request.getMaxAmount())
+                .maxUses(maxUses)
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .build();
+    }
+
+    @Override
+    public void redeem(String transactionToken, Account account, User currentUser, BigDecimal amount) {
+        Claims claims = parse(transactionToken);
+
+        if (!String.valueOf(currentUser.getId()).equals(claims.getSubject())
+                || !account.getId().equals(claims.get(ACCOUNT_CLAIM, Long.class))) {
+            throw new InvalidTransactionTokenException("Transaction token was not issued for this account");
+        }
+
+        if (allowanceRepository.redeem(claims.getId(), currentUser.getId(), account.getId(), amount,
+                LocalDateTime.now()) == 1) {
+            return;
+        }
+        // Nothing was taken; read the allowance only to say why
+        TransactionTokenAllowance allowance = allowanceRepository.findById(claims.getId()).orElse(null);
+        if (allowance != null && (!allowance.getUserId().equals(currentUser.getId())
+                || !allowance.getAccountId().equals(account.getId()))) {
+            throw new InvalidTransactionTokenException("Transaction token was not issued for this account");
+        }
+        if (allowance == null || allowance.getRemainingUses() == 0
+                || !allowance.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new InvalidTransactionTokenException("Transaction token has expired or been used up");
+        }
+        throw new InvalidTransactionTokenException("Amount exceeds the remaining transaction token allowance of "
+                + allowance.getRemainingAmount());
+    }
+
+    @Override
+    public void release(String transactionToken, BigDecimal amount) {
+        Claims claims;
+        try {
+            claims = parse(transactionToken);
+        } catch (InvalidTransactionTokenException e) {
+            // Expired in the meantime, so there is nothing left to give back
+            return;
+        }
+
+        allowanceRepository.release(claims.getId(), amount);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.transaction-token.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int purged = allowanceRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired transaction token allowances", purged);
+        }
+    }
+
+    // HMAC-SHA256 signature and expiry check
+    private Claims parse(String transactionToken) {
+        try {
+            return Jwts.parser()
+                    .verifyWith(key)
+                    .build()
+                    .parseSignedClaims(transactionToken.trim())
+                    .getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTransactionTokenException("Invalid or expired transaction token");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.mackena.Banking_Application_backend.service.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.repository.specification.TransactionHistoryFilter;
+import com.mackena.Banking_Application_backend.service.TransactionCountService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionCountServiceImpl implements TransactionCountService {
+
+    private final TransactionRepository transactionRepository;
+
+    @Value("${app.history.total-cache.refresh-seconds:30}")
+    private long refreshSeconds;
+
+    @Value("${app.history.total-cache.expire-seconds:600}")
+    private long expireSeconds;
+
+    @Value("${app.history.total-cache.max-size:1000}")
+    private long maxSize;
+
+    // A count older than refreshSeconds is still returned, and a recount starts in the background.
+    // Filters nobody asked for in expireSeconds are dropped.
+    private LoadingCache<TransactionHistoryFilter, Long> counts;
+
+    @PostConstruct
+    void initCache() {
+        counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .build(this::count);
+    }
+
+    @Override
+    public long approximateCount(TransactionHistoryFilter filter) {
+        return counts.get(filter);
+    }
+
+    private long count(TransactionHistoryFilter filter) {
+        long count = transactionRepository.count(filter.toSpecification());
+        log.debug("Counted {} transactions for {}", count, filter);
+        return count;
+    }
+}
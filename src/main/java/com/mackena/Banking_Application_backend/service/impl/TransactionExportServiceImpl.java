@@ -0,0 +1,121 @@
+package com.mackena.Banking_Application_backend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionDetailResponse;
+import com.mackena.Banking_Application_backend.exceptions.AccountAccessDeniedException;
+import com.mackena.Banking_Application_backend.exceptions.AccountNotFoundException;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.StatementFormat;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.repository.projection.TransactionHistoryRow;
+import com.mackena.Banking_Application_backend.service.TransactionExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExportServiceImpl implements TransactionExportService {
+
+    private static final String CSV_HEADER = "id,referenceNumber,transferReference,createdAt,transactionType,"
+            + "transactionDirection,amount,balanceAfter,status,description,accountNumber";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Account findExportableAccount(String accountNumber, User currentUser) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+
+        if (currentUser.getRole() != UserRole.ADMIN && !account.getUser().getId().equals(currentUser.getId())) {
+            throw new AccountAccessDeniedException("You dont have permission to access this account");
+        }
+        return account;
+    }
+
+    @Override
+    public long writeStatement(Long accountId, LocalDateTime startDate, LocalDateTime endDate, StatementFormat format,
+                               OutputStream outputStream) throws IOException {
+        log.info("Exporting {} statement for account ID: {} from {} to {}", format, accountId, startDate, endDate);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        long written = 0;
+
+        if (format == StatementFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        // Each row is written and dropped before the next is read, so only the current fetch is in memory
+        try (Stream<TransactionHistoryRow> rows = transactionRepository.streamStatementRows(accountId, startDate, endDate)) {
+            Iterator<TransactionHistoryRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TransactionDetailResponse line = TransactionDetailResponse.from(iterator.next());
+                if (format == StatementFormat.CSV) {
+                    writeCsvLine(writer, line);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(line));
+                    writer.write('\n');
+                }
+                written++;
+            }
+        }
+
+        writer.flush();
+        log.info("Exported {} transactions for account ID: {}", written, accountId);
+        return written;
+    }
+
+    private void writeCsvLine(Writer writer, TransactionDetailResponse line) throws IOException {
+        writer.write(String.valueOf(line.getId()));
+        writer.write(',');
+        writer.write(csvField(line.getReferenceNumber()));
+        writer.write(',');
+        writer.write(csvField(line.getTransferReference()));
+        writer.write(',');
+        writer.write(csvField(line.getCreatedAt()));
+        writer.write(',');
+        writer.write(csvField(line.getTransactionType()));
+        writer.write(',');
+        writer.write(csvField(line.getTransactionDirection()));
+        writer.write(',');
+        writer.write(csvField(line.getAmount()));
+        writer.write(',');
+        writer.write(csvField(line.getBalanceAfter()));
+        writer.write(',');
+        writer.write(csvField(line.getStatus()));
+        writer.write(',');
+        writer.write(csvField(line.getDescription()));
+        writer.write(',');
+        writer.write(csvField(line.getAccountNumber()));
+        writer.write('\n');
+    }
+
+    // RFC 4180: fields holding a comma, quote or line break are quoted, with quotes doubled
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
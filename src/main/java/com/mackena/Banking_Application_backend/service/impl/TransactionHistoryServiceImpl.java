@@ -12,16 +12,25 @@ import com.mackena.Banking_Application_backend.models.enums.TransactionType;
 import com.mackena.Banking_Application_backend.models.enums.UserRole;
 import com.mackena.Banking_Application_backend.repository.AccountRepository;
 import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.repository.projection.TransactionHistoryRow;
+import com.mackena.Banking_Application_backend.repository.specification.TransactionCursor;
+import com.mackena.Banking_Application_backend.repository.specification.TransactionHistoryFilter;
+import com.mackena.Banking_Application_backend.repository.specification.TransactionSpecifications;
+import com.mackena.Banking_Application_backend.service.RecentTransactionService;
+import com.mackena.Banking_Application_backend.service.TransactionCountService;
 import com.mackena.Banking_Application_backend.service.TransactionHistoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +40,8 @@ public class TransactionHistoryServiceImpl implements TransactionHistoryService
 
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
+    private final TransactionCountService transactionCountService;
+    private final RecentTransactionService recentTransactionService;
 
     @Override
     public TransactionHistoryResponse getTransactionHistory(TransactionHistoryRequest request, User currentUser) {
@@ -73,7 +84,7 @@ public class TransactionHistoryServiceImpl implements TransactionHistoryService
             throw new RuntimeException("Access denied to this transaction");
         }
 
-        return convertToDto(transaction);
+        return TransactionDetailResponse.from(transaction);
     }
 
     @Override
@@ -86,93 +97,14 @@ public class TransactionHistoryServiceImpl implements TransactionHistoryService
             throw new RuntimeException("Access denied to this transaction");
         }
 
-        return convertToDto(transaction);
+        return TransactionDetailResponse.from(transaction);
     }
 
     @Override
     public TransactionHistoryResponse getAllTransactionsForAdmin(TransactionHistoryRequest request) {
         log.info("Admin requesting all transactions with filters");
 
-        String sortBy = request.getSortBy() != null ? request.getSortBy() : "createdAt";
-        String sortDirection = request.getSortDirection() != null ? request.getSortDirection() : "DESC";
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
-        Pageable pageable = PageRequest.of(request.getPage(), request.getSize(), sort);
-
-        // FIXED: Use simple query method selection to avoid PostgreSQL parameter issues
-        Page<Transaction> transactionPage = getFilteredTransactionsForAdmin(request, pageable);
-
-        return buildTransactionHistoryResponse(transactionPage);
-    }
-
-
-    private Page<Transaction> getFilteredTransactionsForAdmin(TransactionHistoryRequest request, Pageable pageable) {
-        // Parse enums safely
-        TransactionType transactionType = parseTransactionType(request.getTransactionType());
-        TransactionDirection transactionDirection = parseTransactionDirection(request.getTransactionDirection());
-
-        // Determine which filters are applied
-        boolean hasDateFilter = request.getStartDate() != null && request.getEndDate() != null;
-        boolean hasTypeFilter = transactionType != null;
-        boolean hasDirectionFilter = transactionDirection != null;
-        boolean hasAmountFilter = request.getMinAmount() != null && request.getMaxAmount() != null;
-
-        // Use specific query methods to avoid complex null parameter handling
-        try {
-            if (!hasDateFilter && !hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // No filters - get all transactions
-                log.debug("Getting all transactions without filters");
-                return transactionRepository.findAllTransactionsOrderByCreatedAtDesc(pageable);
-
-            } else if (hasDateFilter && !hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // Only date filter
-                log.debug("Getting transactions with date filter: {} to {}", request.getStartDate(), request.getEndDate());
-                return transactionRepository.findAllTransactionsByDateRange(
-                        request.getStartDate(), request.getEndDate(), pageable);
-
-            } else if (!hasDateFilter && hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // Only type filter
-                log.debug("Getting transactions with type filter: {}", transactionType);
-                return transactionRepository.findAllTransactionsByType(transactionType, pageable);
-
-            } else if (!hasDateFilter && !hasTypeFilter && hasDirectionFilter && !hasAmountFilter) {
-                // Only direction filter
-                log.debug("Getting transactions with direction filter: {}", transactionDirection);
-                return transactionRepository.findAllTransactionsByDirection(transactionDirection, pageable);
-
-            } else if (!hasDateFilter && !hasTypeFilter && !hasDirectionFilter && hasAmountFilter) {
-                // Only amount filter
-                log.debug("Getting transactions with amount filter: {} to {}", request.getMinAmount(), request.getMaxAmount());
-                return transactionRepository.findAllTransactionsByAmountRange(
-                        request.getMinAmount(), request.getMaxAmount(), pageable);
-
-            } else if (hasDateFilter && hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // Date and type filters
-                log.debug("Getting transactions with date and type filters");
-                return transactionRepository.findAllTransactionsByDateRangeAndType(
-                        request.getStartDate(), request.getEndDate(), transactionType, pageable);
-
-            } else if (hasDateFilter && !hasTypeFilter && hasDirectionFilter && !hasAmountFilter) {
-                // Date and direction filters
-                log.debug("Getting transactions with date and direction filters");
-                return transactionRepository.findAllTransactionsByDateRangeAndDirection(
-                        request.getStartDate(), request.getEndDate(), transactionDirection, pageable);
-
-            } else if (!hasDateFilter && hasTypeFilter && hasDirectionFilter && !hasAmountFilter) {
-                // Type and direction filters
-                log.debug("Getting transactions with type and direction filters");
-                return transactionRepository.findAllTransactionsByTypeAndDirection(
-                        transactionType, transactionDirection, pageable);
-
-            } else {
-                // Multiple complex filters - fallback to getting all and filtering in memory
-                log.debug("Complex filters detected, using in-memory filtering");
-                return filterTransactionsInMemory(request, pageable);
-            }
-        } catch (Exception e) {
-            log.error("Error with filter query, falling back to simple query: {}", e.getMessage());
-            // Fallback to basic query if any filtering fails
-            return transactionRepository.findAllTransactionsOrderByCreatedAtDesc(pageable);
-        }
+        return findTransactions(null, null, request, true);
     }
 
     @Override
@@ -183,97 +115,108 @@ public class TransactionHistoryServiceImpl implements TransactionHistoryService
             throw new IllegalArgumentException("User ID is required");
         }
 
-        String sortBy = request.getSortBy() != null ? request.getSortBy() : "createdAt";
-        String sortDirection = request.getSortDirection() != null ? request.getSortDirection() : "DESC";
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
-        Pageable pageable = PageRequest.of(request.getPage(), request.getSize(), sort);
-
         // Get transactions for the specific user
-        Page<Transaction> transactionPage = getTransactionsByUserId(request.getUserId(), request, pageable);
-
-        return buildTransactionHistoryResponse(transactionPage);
+        return findTransactions(null, request.getUserId(), request, true);
     }
 
-    private Page<Transaction> getTransactionsByUserId(Long userId, TransactionHistoryRequest request, Pageable pageable) {
-        log.info("Getting transactions for user ID: {}", userId);
+    // Every filter combination becomes one query with exactly the predicates that were given.
+    // Admin views take their total from the count cache instead of counting on every request.
+    private TransactionHistoryResponse findTransactions(Long accountId, Long userId, TransactionHistoryRequest request,
+                                                        boolean adminView) {
+        TransactionHistoryFilter filter = new TransactionHistoryFilter(
+                accountId,
+                userId,
+                request.getStartDate(),
+                request.getEndDate(),
+                parseTransactionType(request.getTransactionType()),
+                parseTransactionDirection(request.getTransactionDirection()),
+                request.getMinAmount(),
+                request.getMaxAmount());
+        Specification<Transaction> filters = filter.toSpecification();
+
+        String sortDirection = request.getSortDirection() != null ? request.getSortDirection() : "DESC";
+        if (isRecentPage(filter, request, sortDirection)) {
+            Optional<TransactionHistoryResponse> cached =
+                    recentTransactionService.firstPage(accountId, request.getSize(), request.isIncludeTotal());
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        if (request.getCursor() != null) {
+            return findTransactionsAfterCursor(filters, request, Sort.Direction.fromString(sortDirection));
+        }
 
-        // Parse other filters
-        TransactionType transactionType = parseTransactionType(request.getTransactionType());
-        TransactionDirection transactionDirection = parseTransactionDirection(request.getTransactionDirection());
+        String sortBy = request.getSortBy() != null ? request.getSortBy() : "createdAt";
+        Sort.Direction direction = Sort.Direction.fromString(sortDirection);
+        // id breaks ties, so rows sharing a sort value keep one order and no row shows on two pages or none
+        Sort sort = "id".equals(sortBy) ? Sort.by(direction, "id")
+                : Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+        Pageable pageable = PageRequest.of(request.getPage(), request.getSize(), sort);
 
-        boolean hasDateFilter = request.getStartDate() != null && request.getEndDate() != null;
-        boolean hasTypeFilter = transactionType != null;
-        boolean hasDirectionFilter = transactionDirection != null;
-        boolean hasAmountFilter = request.getMinAmount() != null && request.getMaxAmount() != null;
+        // The page is one statement: size + 1 projected rows, the extra one only answering hasNext
+        List<TransactionHistoryRow> rows = transactionRepository.findHistoryRows(
+                filters, sort, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        Slice<TransactionHistoryRow> slice =
+                new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
 
-        try {
-            if (!hasDateFilter && !hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // Only userId filter
-                log.debug("Getting transactions for user {} without additional filters", userId);
-                return transactionRepository.findByAccountUserIdOrderByCreatedAtDesc(userId, pageable);
-
-            } else if (hasDateFilter && !hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // UserId + date filter
-                log.debug("Getting transactions for user {} with date filter: {} to {}",
-                        userId, request.getStartDate(), request.getEndDate());
-                return transactionRepository.findByAccountUserIdAndDateRange(
-                        userId, request.getStartDate(), request.getEndDate(), pageable);
-
-            } else if (!hasDateFilter && hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // UserId + type filter
-                log.debug("Getting transactions for user {} with type filter: {}", userId, transactionType);
-                return transactionRepository.findByAccountUserIdAndTransactionType(
-                        userId, transactionType, pageable);
-
-            } else if (!hasDateFilter && !hasTypeFilter && hasDirectionFilter && !hasAmountFilter) {
-                // UserId + direction filter
-                log.debug("Getting transactions for user {} with direction filter: {}", userId, transactionDirection);
-                return transactionRepository.findByAccountUserIdAndTransactionDirection(
-                        userId, transactionDirection, pageable);
-
-            } else if (!hasDateFilter && !hasTypeFilter && !hasDirectionFilter && hasAmountFilter) {
-                // UserId + amount filter
-                log.debug("Getting transactions for user {} with amount filter: {} to {}",
-                        userId, request.getMinAmount(), request.getMaxAmount());
-                return transactionRepository.findByAccountUserIdAndAmountRange(
-                        userId, request.getMinAmount(), request.getMaxAmount(), pageable);
-
-            } else if (hasDateFilter && hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // UserId + date + type filters
-                log.debug("Getting transactions for user {} with date and type filters", userId);
-                return transactionRepository.findByAccountUserIdAndDateRangeAndType(
-                        userId, request.getStartDate(), request.getEndDate(), transactionType, pageable);
-
-            } else if (hasDateFilter && !hasTypeFilter && hasDirectionFilter && !hasAmountFilter) {
-                // UserId + date + direction filters
-                log.debug("Getting transactions for user {} with date and direction filters", userId);
-                return transactionRepository.findByAccountUserIdAndDateRangeAndDirection(
-                        userId, request.getStartDate(), request.getEndDate(), transactionDirection, pageable);
-
-            } else if (!hasDateFilter && hasTypeFilter && hasDirectionFilter && !hasAmountFilter) {
-                // UserId + type + direction filters
-                log.debug("Getting transactions for user {} with type and direction filters", userId);
-                return transactionRepository.findByAccountUserIdAndTypeAndDirection(
-                        userId, transactionType, transactionDirection, pageable);
-
-            } else {
-                // Complex filters - fallback to simple userId query
-                log.debug("Complex filters with userId {}, using simple userId query", userId);
-                return transactionRepository.findByAccountUserIdOrderByCreatedAtDesc(userId, pageable);
-            }
+        if (!request.isIncludeTotal()) {
+            return buildTransactionHistoryResponse(slice, null, false);
+        }
 
-        } catch (Exception e) {
-            log.error("Error with userId filter query for user {}: {}", userId, e.getMessage());
-            return transactionRepository.findByAccountUserIdOrderByCreatedAtDesc(userId, pageable);
+        if (adminView) {
+            return buildTransactionHistoryResponse(slice, transactionCountService.approximateCount(filter), true);
         }
+
+        // An exact total is a second statement, unless this page already shows where the results end
+        long total;
+        if (!hasNext && (slice.hasContent() || pageable.getOffset() == 0)) {
+            total = pageable.getOffset() + slice.getNumberOfElements();
+        } else {
+            total = transactionRepository.count(filters);
+        }
+        return buildTransactionHistoryResponse(slice, total, false);
+    }
+
+    // The first page of one account's unfiltered history, newest first: what a user sees after logging in or
+    // posting, and what the recent transactions cache holds
+    private boolean isRecentPage(TransactionHistoryFilter filter, TransactionHistoryRequest request, String sortDirection) {
+        return filter.equals(new TransactionHistoryFilter(filter.accountId(), null, null, null, null, null, null, null))
+                && filter.accountId() != null
+                && request.getCursor() == null
+                && request.getPage() == 0
+                && (request.getSortBy() == null || "createdAt".equals(request.getSortBy()))
+                && Sort.Direction.fromString(sortDirection).isDescending();
     }
 
-    // Fallback method for complex filtering - gets all transactions and filters in memory
-    private Page<Transaction> filterTransactionsInMemory(TransactionHistoryRequest request, Pageable pageable) {
-        log.info("Using in-memory filtering for complex query");
+    // Keyset page: an index seek to the cursor and size + 1 rows read from there, whatever the depth.
+    // The extra row only tells whether there is a next page, so no COUNT query is needed.
+    private TransactionHistoryResponse findTransactionsAfterCursor(Specification<Transaction> filters,
+                                                                   TransactionHistoryRequest request,
+                                                                   Sort.Direction direction) {
+        if (request.getSortBy() != null && !"createdAt".equals(request.getSortBy())) {
+            throw new IllegalArgumentException("Cursor pagination only supports sorting by createdAt");
+        }
+
+        TransactionCursor cursor = request.getCursor().isBlank() ? null : TransactionCursor.decode(request.getCursor());
+        Specification<Transaction> specification =
+                filters.and(TransactionSpecifications.after(cursor, direction.isDescending()));
+        Sort sort = Sort.by(direction, "createdAt").and(Sort.by(direction, "id"));
+        int size = request.getSize();
+
+        List<TransactionHistoryRow> rows = transactionRepository.findHistoryRows(specification, sort, 0, size + 1);
 
-        // For simplicity, just return all transactions when filters are too complex
-        return transactionRepository.findAllTransactionsOrderByCreatedAtDesc(pageable);
+        boolean hasNext = rows.size() > size;
+        List<TransactionHistoryRow> content = hasNext ? rows.subList(0, size) : rows;
+        TransactionHistoryRow last = content.isEmpty() ? null : content.get(content.size() - 1);
+
+        return TransactionHistoryResponse.builder()
+                .transactionDetails(content.stream().map(TransactionDetailResponse::from).collect(Collectors.toList()))
+                .currentPage(0)
+                .hasNext(hasNext)
+                .hasPrevious(cursor != null)
+                .nextCursor(hasNext ? new TransactionCursor(last.createdAt(), last.id()).encode() : null)
+                .build();
     }
 
     private TransactionType parseTransactionType(String transactionTypeStr) {
@@ -304,81 +247,7 @@ public class TransactionHistoryServiceImpl implements TransactionHistoryService
     public TransactionHistoryResponse getAccountTransactions(Long accountId, TransactionHistoryRequest request) {
         log.info("Getting transaction history for account ID: {}", accountId);
 
-        // Setup sorting and pagination
-        String sortBy = request.getSortBy() != null ? request.getSortBy() : "createdAt";
-        String sortDirection = request.getSortDirection() != null ? request.getSortDirection() : "DESC";
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
-        Pageable pageable = PageRequest.of(request.getPage(), request.getSize(), sort);
-
-        // Parse enums safely
-        TransactionType transactionTypeEnum = parseTransactionType(request.getTransactionType());
-        TransactionDirection transactionDirectionEnum = parseTransactionDirection(request.getTransactionDirection());
-
-        // Use conditional logic to avoid PostgreSQL null parameter issues
-        Page<Transaction> transactionPage = getFilteredAccountTransactions(
-                accountId, request, transactionTypeEnum, transactionDirectionEnum, pageable);
-
-        return buildTransactionHistoryResponse(transactionPage);
-    }
-
-
-    private Page<Transaction> getFilteredAccountTransactions(Long accountId,
-                                                             TransactionHistoryRequest request, TransactionType transactionType,
-                                                             TransactionDirection transactionDirection, Pageable pageable) {
-
-        // Determine which filters are applied
-        boolean hasDateFilter = request.getStartDate() != null && request.getEndDate() != null;
-        boolean hasTypeFilter = transactionType != null;
-        boolean hasDirectionFilter = transactionDirection != null;
-        boolean hasAmountFilter = request.getMinAmount() != null && request.getMaxAmount() != null;
-
-        try {
-            if (!hasDateFilter && !hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // No filters - just get by account
-                log.debug("Getting account transactions without filters");
-                return transactionRepository.findByAccountIdOrderByCreatedAtDesc(accountId, pageable);
-
-            } else if (hasDateFilter && !hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // Only date filter
-                log.debug("Getting account transactions with date filter");
-                return transactionRepository.findByAccountIdAndDateRange(
-                        accountId, request.getStartDate(), request.getEndDate(), pageable);
-
-            } else if (!hasDateFilter && hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // Only type filter
-                log.debug("Getting account transactions with type filter");
-                return transactionRepository.findByAccountIdAndTransactionType(
-                        accountId, transactionType, pageable);
-
-            } else if (!hasDateFilter && !hasTypeFilter && hasDirectionFilter && !hasAmountFilter) {
-                // Only direction filter
-                log.debug("Getting account transactions with direction filter");
-                return transactionRepository.findByAccountIdAndTransactionDirection(
-                        accountId, transactionDirection, pageable);
-
-            } else if (!hasDateFilter && !hasTypeFilter && !hasDirectionFilter && hasAmountFilter) {
-                // Only amount filter
-                log.debug("Getting account transactions with amount filter");
-                return transactionRepository.findByAccountIdAndAmountRange(
-                        accountId, request.getMinAmount(), request.getMaxAmount(), pageable);
-
-            } else if (hasDateFilter && hasTypeFilter && !hasDirectionFilter && !hasAmountFilter) {
-                // Date and type filters
-                log.debug("Getting account transactions with date and type filters");
-                return transactionRepository.findByAccountIdAndDateRangeAndType(
-                        accountId, request.getStartDate(), request.getEndDate(), transactionType, pageable);
-
-            } else {
-                // Complex combinations - fallback to basic query for now
-                log.debug("Complex filters detected, using basic account query");
-                return transactionRepository.findByAccountIdOrderByCreatedAtDesc(accountId, pageable);
-            }
-
-        } catch (Exception e) {
-            log.error("Error with account filter query: {}", e.getMessage());
-            // Fallback to basic account query
-            return transactionRepository.findByAccountIdOrderByCreatedAtDesc(accountId, pageable);
-        }
+        return findTransactions(accountId, null, request, false);
     }
 
     private boolean hasAccountAccess(Account account, User currentUser) {
@@ -390,36 +259,23 @@ public class TransactionHistoryServiceImpl implements TransactionHistoryService
                 currentUser.getRole() == UserRole.ADMIN;
     }
 
-    private TransactionHistoryResponse buildTransactionHistoryResponse(Page<Transaction> transactionPage) {
+    // total is null for a Slice response, which only knows whether a next page exists
+    private TransactionHistoryResponse buildTransactionHistoryResponse(Slice<TransactionHistoryRow> transactionPage, Long total,
+                                                                       boolean totalApproximate) {
         // Convert to DTOs
         List<TransactionDetailResponse> transactionDtos = transactionPage.getContent()
                 .stream()
-                .map(this::convertToDto)
+                .map(TransactionDetailResponse::from)
                 .collect(Collectors.toList());
 
         return TransactionHistoryResponse.builder()
                 .transactionDetails(transactionDtos)
                 .currentPage(transactionPage.getNumber())
-                .totalPages(transactionPage.getTotalPages())
-                .totalElements((int) transactionPage.getTotalElements())
+                .totalPages(total == null ? null : (int) Math.ceil((double) total / transactionPage.getSize()))
+                .totalElements(total == null ? null : total.intValue())
+                .totalApproximate(totalApproximate)
                 .hasNext(transactionPage.hasNext())
                 .hasPrevious(transactionPage.hasPrevious())
                 .build();
     }
-
-    private TransactionDetailResponse convertToDto(Transaction transaction) {
-        return TransactionDetailResponse.builder()
-                .id(transaction.getId())
-                .referenceNumber(transaction.getReferenceNumber())
-                .transferReference(transaction.getTransferReference())
-                .amount(transaction.getAmount())
-                .transactionType(transaction.getTransactionType().getDescription())
-                .transactionDirection(transaction.getTransactionDirection().getValue())
-                .description(transaction.getDescription())
-                .status(transaction.getStatus().getDescription())
-                .balanceAfter(transaction.getBalanceAfter())
-                .createdAt(transaction.getCreatedAt())
-                .accountNumber(transaction.getAccount().getAccountNumber())
-                .build();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.mackena.Banking_Application_backend.service.impl;
+
+import com.mackena.Banking_Application_backend.service.TransactionPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Partition DDL is built from YearMonth values only, never from request input
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionPartitionServiceImpl implements TransactionPartitionService {
+
+    private static final String PARTITION_PREFIX = "transactions_";
+    private static final String ARCHIVE_PREFIX = "transactions_archive_";
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("'y'uuuu'm'MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.transactions.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.transactions.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Override
+    public List<YearMonth> createPartitions(YearMonth from, YearMonth to) {
+        List<YearMonth> existing = partitionedMonths();
+        List<YearMonth> created = new ArrayList<>();
+
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (existing.contains(month)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF transactions FOR VALUES FROM ('%s') TO ('%s')",
+                        PARTITION_PREFIX + month.format(MONTH_SUFFIX), month.atDay(1), month.plusMonths(1).atDay(1)));
+                created.add(month);
+            } catch (DataAccessException e) {
+                // Another instance may have created it at the same moment
+                log.warn("Could not create transactions partition for {}: {}", month, e.getMessage());
+            }
+        }
+
+        if (!created.isEmpty()) {
+            log.info("Created transactions partitions for {}", created);
+        }
+        return created;
+    }
+
+    @Override
+    public boolean detachPartition(YearMonth month) {
+        if (!partitionedMonths().contains(month)) {
+            return false;
+        }
+        String suffix = month.format(MONTH_SUFFIX);
+        // CONCURRENTLY waits for queries reading the partition instead of locking the whole table
+        jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + PARTITION_PREFIX + suffix + " CONCURRENTLY");
+        jdbcTemplate.execute("ALTER TABLE " + PARTITION_PREFIX + suffix + " RENAME TO " + ARCHIVE_PREFIX + suffix);
+
+        log.info("Detached transactions partition for {} as {}", month, ARCHIVE_PREFIX + suffix);
+        return true;
+    }
+
+    @Override
+    public List<YearMonth> partitionedMonths() {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname
+                        FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = 'transactions'::regclass
+                        """, String.class)
+                .stream()
+                .map(this::partitionMonth)
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.transactions.partitions.maintenance-cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        YearMonth current = YearMonth.now();
+        createPartitions(current, current.plusMonths(monthsAhead));
+
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            partitionedMonths().stream()
+                    .filter(month -> month.isBefore(oldestKept))
+                    .forEach(this::detachPartition);
+        }
+    }
+
+    private YearMonth partitionMonth(String tableName) {
+        if (!tableName.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(tableName.substring(PARTITION_PREFIX.length()), MONTH_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
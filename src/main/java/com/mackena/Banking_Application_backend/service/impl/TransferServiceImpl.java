@@ -12,17 +12,21 @@ import com.mackena.Banking_Application_backend.models.enums.TransactionDirection
 import com.mackena.Banking_Application_backend.models.enums.TransactionStatus;
 import com.mackena.Banking_Application_backend.models.enums.TransactionType;
 import com.mackena.Banking_Application_backend.repository.AccountRepository;
-import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.service.RecentTransactionService;
+import com.mackena.Banking_Application_backend.service.TransactionAuthorizationService;
 import com.mackena.Banking_Application_backend.service.TransferService;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerLeg;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerPosting;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerWriter;
+import com.mackena.Banking_Application_backend.util.generator.ReferenceNumberGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -30,11 +34,15 @@ import java.util.UUID;
 public class TransferServiceImpl implements TransferService {
 
     private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
+    private final LedgerWriter ledgerWriter;
     private final PasswordEncoder passwordEncoder;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final RecentTransactionService recentTransactionService;
+    private final TransactionAuthorizationService transactionAuthorizationService;
 
+    // No surrounding transaction: the ledger writer owns the write transaction, and with group commit the
+    // caller must not hold a connection while it waits for the batch
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public TransferResponse transferMoney(TransferRequest request, User currentUser)
             throws InvalidAccountException {
 
@@ -45,43 +53,61 @@ public class TransferServiceImpl implements TransferService {
         // Pre-validate all inputs before starting transaction
         validateTransferRequest(request);
 
-        // 1. Validate accounts - with explicit null checks
+        // 1. Validate sender account - with explicit null checks
         Account senderAccount = validateSenderAccount(request.getSenderAccountNumber(), currentUser);
-        Account receiverAccount = validateReceiverAccount(request.getReceiverAccountNumber());
 
-        // 2. Validate PIN
-        validateTransactionPin(request.getTransactionPin(), senderAccount);
+        // 2. Validate PIN, unless a transaction token stands in for it (redeemed right before posting).
+        // BCrypt takes tens of milliseconds, so this runs between short reads and never while a pooled
+        // connection is held (connections are released after every transaction)
+        boolean tokenAuthorized = hasText(request.getTransactionToken());
+        if (!tokenAuthorized) {
+            validateTransactionPin(request.getTransactionPin(), senderAccount);
+        }
+
+        // 3. Validate receiver account
+        Account receiverAccount = validateReceiverAccount(request.getReceiverAccountNumber());
 
-        // 3. Validate sufficient balance
+        // 4. Fail fast on the balance we already read (the debit below re-checks it atomically)
         validateSufficientBalance(senderAccount, request.getAmount());
 
-        // 4. Generate transfer reference
+        // 5. Generate transfer reference
         String debitReferenceNumber = generateReferenceNumber();
         String creditReferenceNumber = generateReferenceNumber();
 
-        // 5. Create debit transaction (sender)
+        // 6. Create debit transaction (sender)
         Transaction debitTransaction = createDebitTransaction(
                 senderAccount, request.getAmount(), request.getNotes(), creditReferenceNumber);
 
-        // 6. Create credit transaction (receiver)
+        // 7. Create credit transaction (receiver)
         Transaction creditTransaction = createCreditTransaction(
                 receiverAccount, request.getAmount(), request.getNotes(), debitReferenceNumber);
 
-        // 7. Update balances
-        updateAccountBalance(senderAccount, request.getAmount().negate());
-        updateAccountBalance(receiverAccount, request.getAmount());
-
-        // 8. Set balance after for transactions
-        debitTransaction.setBalanceAfter(senderAccount.getBalance());
-        creditTransaction.setBalanceAfter(receiverAccount.getBalance());
+        // 8. Take the amount from the token's allowance (an HMAC check, no BCrypt)
+        if (tokenAuthorized) {
+            transactionAuthorizationService.redeem(
+                    request.getTransactionToken(), senderAccount, currentUser, request.getAmount());
+        }
 
-        // 9. Save transactions
-        transactionRepository.save(debitTransaction);
-        transactionRepository.save(creditTransaction);
+        // 9. Update balances and save transactions in one posting
+        try {
+            ledgerWriter.post(LedgerPosting.of(
+                    LedgerLeg.debit(debitTransaction, BigDecimal.ZERO, () -> new InsufficientFundsException(
+                            "Insufficient balance in sender account. Required: " + request.getAmount())),
+                    LedgerLeg.credit(creditTransaction, () -> new InvalidAccountException("Receiver account is not active"))));
+        } catch (RuntimeException e) {
+            if (tokenAuthorized) {
+                transactionAuthorizationService.release(request.getTransactionToken(), request.getAmount());
+            }
+            throw e;
+        }
 
-        // 10. Save updated accounts
-        accountRepository.save(senderAccount);
-        accountRepository.save(receiverAccount);
+        // Both legs are committed; from here on nothing may report the transfer as failed
+        try {
+            recentTransactionService.recordPosted(List.of(debitTransaction, creditTransaction));
+        } catch (RuntimeException e) {
+            log.warn("Could not add transfer {} to the recent transactions cache: {}",
+                    debitReferenceNumber, e.getMessage());
+        }
 
         log.info("Transfer completed successfully. Reference: {}", debitReferenceNumber);
 
@@ -92,7 +118,7 @@ public class TransferServiceImpl implements TransferService {
                 .amount(request.getAmount())
                 .notes(request.getNotes())
                 .status("COMPLETED")
-                .senderBalanceAfter(senderAccount.getBalance())
+                .senderBalanceAfter(debitTransaction.getBalanceAfter())
                 .transactionDate(LocalDateTime.now())
                 .message("Transfer completed successfully")
                 .build();
@@ -115,8 +141,8 @@ public class TransferServiceImpl implements TransferService {
             throw new InvalidAccountException("Amount must be greater than zero");
         }
 
-        if (request.getTransactionPin() == null || request.getTransactionPin().trim().isEmpty()) {
-            throw new InvalidPinException("Transaction PIN is required");
+        if (!hasText(request.getTransactionPin()) && !hasText(request.getTransactionToken())) {
+            throw new InvalidPinException("Transaction PIN or transaction token is required");
         }
 
         // Check if sender and receiver are the same
@@ -228,18 +254,11 @@ public class TransferServiceImpl implements TransferService {
                 .build();
     }
 
-    private void updateAccountBalance(Account account, BigDecimal amount) {
-        if (account.getBalance() == null) {
-            account.setBalance(BigDecimal.ZERO);
-        }
-
-        BigDecimal newBalance = account.getBalance().add(amount);
-        log.debug("Updating account {} balance from {} to {}",
-                account.getAccountNumber(), account.getBalance(), newBalance);
-        account.setBalance(newBalance);
+    private boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
     }
 
     private String generateReferenceNumber() {
-        return "TXN" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+        return referenceNumberGenerator.generate(TransactionType.TRANSFER);
     }
 }
\ No newline at end of file
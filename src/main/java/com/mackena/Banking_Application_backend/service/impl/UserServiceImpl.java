@@ -6,6 +6,7 @@ import com.mackena.Banking_Application_backend.exceptions.UserHasActiveBalanceEx
 import com.mackena.Banking_Application_backend.exceptions.UserNotFoundException;
 import com.mackena.Banking_Application_backend.models.entity.User;
 import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.service.SystemAggregateService;
 import com.mackena.Banking_Application_backend.service.UserService;
 import com.mackena.Banking_Application_backend.util.converter.EntityConverter;
 import org.springframework.data.domain.Page;
@@ -15,6 +16,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +27,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final EntityConverter userConverter;
+    private final SystemAggregateService systemAggregateService;
 
 
     @Override
@@ -45,9 +50,15 @@ public class UserServiceImpl implements UserService {
         return userConverter.toUserResponse(user);
     }
     @Override
-    public Page<User> getAllUsers(Pageable pageable) {
+    public Page<UserResponse> getAllUsers(Pageable pageable) {
         log.info("Getting all users with pagination: {}", pageable);
-        return userRepository.findAll(pageable);
+
+        // Converting each user walks its accounts, so they are fetched up front for the whole page
+        Page<Long> userIds = userRepository.findUserIds(pageable);
+        Map<Long, User> users = userIds.isEmpty() ? Map.of()
+                : userRepository.findAllWithAccountsByIdIn(userIds.getContent()).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+        return userIds.map(id -> userConverter.toUserResponse(users.get(id)));
     }
 
 
@@ -66,11 +77,13 @@ public class UserServiceImpl implements UserService {
         }
         //Get account count  before deleting
         int accountCount = userRepository.getActiveAccountCountByUserId(userId);
+        int allAccountCount = userRepository.getAccountCountByUserId(userId);
 
         //convert to response before deletion
         UserResponse userResponse = userConverter.toUserResponse(user);
 
         userRepository.delete(user);
+        systemAggregateService.recordUserDeleted(allAccountCount, accountCount, totalBalance);
 
         return DeleteUserResponse.builder()
                 .message("User Deleted Successful")
@@ -11,26 +11,35 @@ import com.mackena.Banking_Application_backend.models.enums.TransactionDirection
 import com.mackena.Banking_Application_backend.models.enums.TransactionStatus;
 import com.mackena.Banking_Application_backend.models.enums.TransactionType;
 import com.mackena.Banking_Application_backend.repository.AccountRepository;
-import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.service.RecentTransactionService;
+import com.mackena.Banking_Application_backend.service.TransactionAuthorizationService;
 import com.mackena.Banking_Application_backend.service.WithdrawalService;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerLeg;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerPosting;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerWriter;
+import com.mackena.Banking_Application_backend.util.generator.ReferenceNumberGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WithdrawalServiceImpl implements WithdrawalService {
 
+    private static final BigDecimal MINIMUM_BALANCE = BigDecimal.valueOf(10.00);
+
     private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
+    private final LedgerWriter ledgerWriter;
     private final PasswordEncoder passwordEncoder;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final RecentTransactionService recentTransactionService;
+    private final TransactionAuthorizationService transactionAuthorizationService;
 
 
     @Override
@@ -39,41 +48,61 @@ public class WithdrawalServiceImpl implements WithdrawalService {
         // Validate and get account
         Account account = validateWithdrawalAccount(request.getAccountNumber(), currentUser);
 
-        //Validate PIN
-        validateTransactionPin(request.getTransactionPin(), account);
+        //Validate PIN, unless a transaction token stands in for it
+        String transactionToken = request.getTransactionToken();
+        boolean tokenAuthorized = transactionToken != null && !transactionToken.trim().isEmpty();
+        if (!tokenAuthorized) {
+            validateTransactionPin(request.getTransactionPin(), account);
+        }
 
         // validates if balance is sufficient
         validateSufficientBalance(account, request.getAmount());
 
+        // Takes the amount from the token's allowance (an HMAC check, no BCrypt)
+        if (tokenAuthorized) {
+            transactionAuthorizationService.redeem(transactionToken, account, currentUser, request.getAmount());
+        }
+
+        Transaction transaction;
         try {
             // Creates withdrawal transaction
-            Transaction transaction = createWithdrawalTransaction(account, request);
-
-            // Updates account balance
-            account.setBalance(account.getBalance().subtract(request.getAmount()));
-            transaction.setBalanceAfter(account.getBalance());
-
-            // Save transaction and account
-            transactionRepository.save(transaction);
-            accountRepository.save(account);
-
-            log.info("Withdrawal completed successfully. Reference: {}", transaction.getReferenceNumber());
-
-            return TransactionResponse.builder()
-                    .referenceNumber(transaction.getReferenceNumber())
-                    .accountNumber(request.getAccountNumber())
-                    .amount(request.getAmount())
-                    .transactionType("WITHDRAWAL")
-                    .notes(request.getNotes())
-                    .status("COMPLETED")
-                    .balanceAfter(account.getBalance())
-                    .transactionDate(LocalDateTime.now())
-                    .message("Withdrawal completed successfully")
-                    .build();
+            transaction = createWithdrawalTransaction(account, request);
 
+            // Updates account balance and saves transaction; the minimum balance is re-checked by the update itself
+            ledgerWriter.post(LedgerPosting.of(LedgerLeg.debit(transaction, MINIMUM_BALANCE,
+                    () -> new InsufficientFundsException("Cannot withdraw. Minimum balance of Kes10 must be maintained"))));
         } catch (Exception e) {
+            if (tokenAuthorized) {
+                transactionAuthorizationService.release(transactionToken, request.getAmount());
+            }
             log.error("Withdrawal failed for account: {}, Error: {}", request.getAccountNumber(), e.getMessage());
-            throw new RuntimeException("Withdrawal failed: " + e.getMessage());
+            throw new RuntimeException("Withdrawal failed: " + e.getMessage(), e);
+        }
+
+        // The debit is committed; from here on nothing may report the withdrawal as failed
+        recordPosted(transaction);
+
+        log.info("Withdrawal completed successfully. Reference: {}", transaction.getReferenceNumber());
+
+        return TransactionResponse.builder()
+                .referenceNumber(transaction.getReferenceNumber())
+                .accountNumber(request.getAccountNumber())
+                .amount(request.getAmount())
+                .transactionType("WITHDRAWAL")
+                .notes(request.getNotes())
+                .status("COMPLETED")
+                .balanceAfter(transaction.getBalanceAfter())
+                .transactionDate(LocalDateTime.now())
+                .message("Withdrawal completed successfully")
+                .build();
+    }
+
+    private void recordPosted(Transaction transaction) {
+        try {
+            recentTransactionService.recordPosted(List.of(transaction));
+        } catch (RuntimeException e) {
+            log.warn("Could not add withdrawal {} to the recent transactions cache: {}",
+                    transaction.getReferenceNumber(), e.getMessage());
         }
     }
 
@@ -94,6 +123,10 @@ public class WithdrawalServiceImpl implements WithdrawalService {
     }
 
     private void validateTransactionPin(String enteredPin, Account account) {
+        if (enteredPin == null || enteredPin.trim().isEmpty()) {
+            throw new InvalidPinException("Transaction PIN or transaction token is required");
+        }
+
         if (account.getTransactionPin() == null) {
             throw new InvalidPinException("Transaction PIN not set for this account");
         }
@@ -109,8 +142,7 @@ public class WithdrawalServiceImpl implements WithdrawalService {
         }
 
         // Optional: Add minimum balance check
-        BigDecimal minBalance = BigDecimal.valueOf(10.00);
-        if (account.getBalance().subtract(amount).compareTo(minBalance) < 0) {
+        if (account.getBalance().subtract(amount).compareTo(MINIMUM_BALANCE) < 0) {
             throw new InsufficientFundsException("Cannot withdraw. Minimum balance of Kes10 must be maintained");
         }
     }
@@ -128,6 +160,6 @@ public class WithdrawalServiceImpl implements WithdrawalService {
     }
 
     private String generateReferenceNumber() {
-        return "WTH" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+        return referenceNumberGenerator.generate(TransactionType.WITHDRAW);
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// Every posting is its own database transaction
+@Component
+@ConditionalOnProperty(name = "app.ledger.posting-mode", havingValue = "DIRECT", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DirectLedgerWriter implements LedgerWriter {
+
+    private final LedgerPostingProcessor processor;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void post(LedgerPosting posting) {
+        processor.apply(posting);
+    }
+}
@@ -0,0 +1,146 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Coalesces postings that arrive within a short window into one database transaction, so concurrent
+// callers share a single commit instead of paying for one each. Callers block until their posting's
+// batch has committed; every posting still succeeds or fails on its own.
+@Component
+@ConditionalOnProperty(name = "app.ledger.posting-mode", havingValue = "GROUP_COMMIT")
+@Slf4j
+public class GroupCommitLedgerWriter implements LedgerWriter {
+
+    private final LedgerBatchCommitter committer;
+    private final long windowNanos;
+    private final int maxBatch;
+
+    private final BlockingQueue<PendingPosting> queue = new LinkedBlockingQueue<>();
+    // Held shared to check running and enqueue as one step, exclusively to stop: once running is cleared no
+    // caller can still add a posting the flusher or stop() would miss
+    private final ReadWriteLock enqueueLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public GroupCommitLedgerWriter(LedgerPostingProcessor processor,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.ledger.group-commit.window-ms:2}") long windowMs,
+                                   @Value("${app.ledger.group-commit.max-batch:256}") int maxBatch) {
+        this.committer = new LedgerBatchCommitter(processor, transactionManager);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatch = maxBatch;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "ledger-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Group commit ledger writer started (window {} ms, max batch {})",
+                TimeUnit.NANOSECONDS.toMillis(windowNanos), maxBatch);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        close();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        failQueued("Ledger writer is shutting down");
+    }
+
+    @Override
+    public void post(LedgerPosting posting) {
+        PendingPosting pending = new PendingPosting(posting);
+        enqueueLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Ledger writer is not running");
+            }
+            queue.add(pending);
+        } finally {
+            enqueueLock.readLock().unlock();
+        }
+        pending.await();
+    }
+
+    public long getCommittedBatches() {
+        return committer.getCommits();
+    }
+
+    private void flushLoop() {
+        List<PendingPosting> batch = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    collectBatch(batch);
+                    if (!batch.isEmpty()) {
+                        committer.commit(batch);
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Unexpected failure in ledger flusher", e);
+                    PendingPosting.failAll(batch, "Ledger posting failed");
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Reached with postings left only when the flusher was interrupted or died of an Error
+            if (running || !batch.isEmpty() || !queue.isEmpty()) {
+                log.error("Ledger flusher stopped unexpectedly, failing pending postings");
+                close();
+                PendingPosting.failAll(batch, "Ledger writer stopped");
+                failQueued("Ledger writer stopped");
+            }
+        }
+    }
+
+    private void close() {
+        enqueueLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            enqueueLock.writeLock().unlock();
+        }
+    }
+
+    private void failQueued(String reason) {
+        List<PendingPosting> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        PendingPosting.failAll(queued, reason);
+    }
+
+    // Waits for a first posting, then keeps collecting until the window closes or the batch is full
+    private void collectBatch(List<PendingPosting> batch) throws InterruptedException {
+        PendingPosting first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            PendingPosting next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                queue.drainTo(batch, maxBatch - batch.size());
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+}
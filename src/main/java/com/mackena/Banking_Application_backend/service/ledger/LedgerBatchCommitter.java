@@ -0,0 +1,78 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Applies a batch of postings in one database transaction and completes every posting with its own outcome.
+// Used by the background writers.
+@Slf4j
+class LedgerBatchCommitter {
+
+    private final LedgerPostingProcessor processor;
+    private final TransactionTemplate transactionTemplate;
+    // Counted before callers are released, so a caller that got its result also sees its commit counted
+    private final AtomicLong commits = new AtomicLong();
+
+    LedgerBatchCommitter(LedgerPostingProcessor processor, PlatformTransactionManager transactionManager) {
+        this.processor = processor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    long getCommits() {
+        return commits.get();
+    }
+
+    void commit(List<PendingPosting> batch) {
+        Map<PendingPosting, RuntimeException> rejections = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (batch.size() > 1) {
+                    processor.lockAccounts(batch.stream().map(PendingPosting::posting).toList());
+                }
+                for (PendingPosting pending : batch) {
+                    RuntimeException rejection = processor.tryApply(pending.posting());
+                    if (rejection != null) {
+                        rejections.put(pending, rejection);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // Nothing of the batch was committed. Retry each posting alone so one bad posting
+            // cannot fail the others.
+            log.warn("Ledger batch of {} postings failed, retrying individually: {}", batch.size(), e.getMessage());
+            batch.forEach(this::commitAlone);
+            return;
+        }
+
+        commits.incrementAndGet();
+        log.debug("Committed ledger batch of {} postings ({} rejected)", batch.size(), rejections.size());
+
+        for (PendingPosting pending : batch) {
+            RuntimeException rejection = rejections.get(pending);
+            if (rejection != null) {
+                pending.result().completeExceptionally(rejection);
+            } else {
+                pending.result().complete(null);
+            }
+        }
+    }
+
+    private void commitAlone(PendingPosting pending) {
+        // Ids handed out by the rolled back batch are gone again
+        pending.posting().getLegs().forEach(leg -> leg.getEntry().setId(null));
+        try {
+            transactionTemplate.executeWithoutResult(status -> processor.apply(pending.posting()));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+            return;
+        }
+        commits.incrementAndGet();
+        pending.result().complete(null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+// How LedgerPostingProcessor protects a balance update against concurrent writers
+public enum LedgerConcurrency {
+    // One conditional UPDATE per leg; concurrent writers queue on the row lock
+    PESSIMISTIC,
+    // Unlocked read, then a version-checked UPDATE, retried with jittered backoff when the version moved
+    OPTIMISTIC
+}
@@ -0,0 +1,42 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+// One balance movement of a posting. The entry is the transaction row to record; amount, direction and
+// account are taken from it and its balanceAfter is filled in once the balance update succeeds.
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class LedgerLeg {
+
+    private final Transaction entry;
+    private final BigDecimal floor;
+    private final Supplier<RuntimeException> rejection;
+
+    public static LedgerLeg credit(Transaction entry, Supplier<RuntimeException> rejection) {
+        return new LedgerLeg(entry, null, rejection);
+    }
+
+    // The debit is rejected when it would take the balance below the floor
+    public static LedgerLeg debit(Transaction entry, BigDecimal floor, Supplier<RuntimeException> rejection) {
+        return new LedgerLeg(entry, floor, rejection);
+    }
+
+    public Long getAccountId() {
+        return entry.getAccount().getId();
+    }
+
+    public BigDecimal getAmount() {
+        return entry.getAmount();
+    }
+
+    public boolean isDebit() {
+        return entry.getTransactionDirection() == TransactionDirection.DEBIT;
+    }
+}
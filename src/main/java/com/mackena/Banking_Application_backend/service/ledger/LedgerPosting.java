@@ -0,0 +1,20 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// All legs of a posting are applied together or not at all (a transfer has two, deposits and withdrawals one)
+@Getter
+public class LedgerPosting {
+
+    private final List<LedgerLeg> legs;
+
+    private LedgerPosting(List<LedgerLeg> legs) {
+        this.legs = legs;
+    }
+
+    public static LedgerPosting of(LedgerLeg... legs) {
+        return new LedgerPosting(List.of(legs));
+    }
+}
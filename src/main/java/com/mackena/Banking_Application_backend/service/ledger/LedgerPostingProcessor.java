@@ -0,0 +1,159 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.repository.projection.AccountBalanceSnapshot;
+import com.mackena.Banking_Application_backend.service.LowBalanceWatchlistService;
+import com.mackena.Banking_Application_backend.service.SystemAggregateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Applies postings inside the caller's transaction. Shared by every LedgerWriter.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerPostingProcessor {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final SystemAggregateService systemAggregateService;
+    private final LowBalanceWatchlistService lowBalanceWatchlistService;
+
+    @Value("${app.ledger.concurrency:PESSIMISTIC}")
+    private LedgerConcurrency concurrency = LedgerConcurrency.PESSIMISTIC;
+
+    @Value("${app.ledger.optimistic.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${app.ledger.optimistic.backoff-ms:2}")
+    private long backoffMs = 2;
+
+    // A transaction applying several postings takes all of their row locks up front in ascending id order.
+    // Locking posting by posting would interleave the order across postings and could deadlock against
+    // another batch.
+    public void lockAccounts(List<LedgerPosting> postings) {
+        List<Long> accountIds = postings.stream()
+                .flatMap(posting -> posting.getLegs().stream())
+                .map(LedgerLeg::getAccountId)
+                .distinct()
+                .sorted()
+                .toList();
+        accountRepository.lockInIdOrder(accountIds);
+    }
+
+    public void apply(LedgerPosting posting) {
+        RuntimeException rejection = tryApply(posting);
+        if (rejection != null) {
+            throw rejection;
+        }
+    }
+
+    // Returns the rejection instead of throwing it. A rejected posting leaves no trace in the transaction,
+    // so the caller can keep using it for other postings.
+    public RuntimeException tryApply(LedgerPosting posting) {
+        // Legs are applied in ascending account id order, so postings that touch the same accounts in
+        // opposite directions can never deadlock on the row locks taken by the updates
+        List<LedgerLeg> ordered = posting.getLegs().stream()
+                .sorted(Comparator.comparing(LedgerLeg::getAccountId))
+                .toList();
+
+        List<LedgerLeg> applied = new ArrayList<>();
+        for (LedgerLeg leg : ordered) {
+            Optional<BigDecimal> balanceAfter = concurrency == LedgerConcurrency.OPTIMISTIC
+                    ? applyOptimistically(leg)
+                    : applyPessimistically(leg);
+
+            if (balanceAfter.isEmpty()) {
+                log.debug("Posting rejected on account id {}", leg.getAccountId());
+                compensate(applied);
+                return leg.getRejection().get();
+            }
+
+            leg.getEntry().setBalanceAfter(balanceAfter.get());
+            applied.add(leg);
+        }
+
+        List<Transaction> entries = posting.getLegs().stream().map(LedgerLeg::getEntry).toList();
+        transactionRepository.saveAll(entries);
+        systemAggregateService.recordBalanceChange(netAmount(posting));
+        posting.getLegs().forEach(leg ->
+                lowBalanceWatchlistService.recordBalance(leg.getAccountId(), leg.getEntry().getBalanceAfter()));
+        return null;
+    }
+
+    // Credits minus debits: what the posting adds to the total of all balances (nothing, for a transfer)
+    private BigDecimal netAmount(LedgerPosting posting) {
+        return posting.getLegs().stream()
+                .map(leg -> leg.isDebit() ? leg.getAmount().negate() : leg.getAmount())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private Optional<BigDecimal> applyPessimistically(LedgerLeg leg) {
+        return leg.isDebit()
+                ? accountRepository.debitBalance(leg.getAccountId(), leg.getAmount(), leg.getFloor())
+                : accountRepository.creditBalance(leg.getAccountId(), leg.getAmount());
+    }
+
+    // Reads balance and version without a lock and writes the new balance only if the version is unchanged.
+    // A moved version means another posting got there first, so the leg is re-read and retried after a
+    // random (full jitter) exponential backoff, up to maxAttempts times.
+    private Optional<BigDecimal> applyOptimistically(LedgerLeg leg) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            AccountBalanceSnapshot snapshot = accountRepository.findBalanceSnapshot(leg.getAccountId()).orElse(null);
+            if (snapshot == null || !Boolean.TRUE.equals(snapshot.getActive())) {
+                return Optional.empty();
+            }
+
+            BigDecimal newBalance = leg.isDebit()
+                    ? snapshot.getBalance().subtract(leg.getAmount())
+                    : snapshot.getBalance().add(leg.getAmount());
+            if (leg.isDebit() && newBalance.compareTo(leg.getFloor()) < 0) {
+                return Optional.empty();
+            }
+
+            Optional<BigDecimal> balanceAfter = accountRepository.compareAndSetBalance(
+                    leg.getAccountId(), newBalance, snapshot.getVersion());
+            if (balanceAfter.isPresent()) {
+                return balanceAfter;
+            }
+
+            log.debug("Version conflict on account id {} (attempt {} of {})", leg.getAccountId(), attempt, maxAttempts);
+            backOff(attempt);
+        }
+
+        throw new OptimisticLockingFailureException(
+                "Account " + leg.getAccountId() + " kept changing, gave up after " + maxAttempts + " attempts");
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = backoffMs << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying ledger posting", e);
+        }
+    }
+
+    // Reverses already applied legs. The rows are still locked by this transaction, so a plain credit of the
+    // opposite amount cannot be rejected.
+    private void compensate(List<LedgerLeg> applied) {
+        for (int i = applied.size() - 1; i >= 0; i--) {
+            LedgerLeg leg = applied.get(i);
+            BigDecimal reversal = leg.isDebit() ? leg.getAmount() : leg.getAmount().negate();
+            accountRepository.creditBalance(leg.getAccountId(), reversal);
+            leg.getEntry().setBalanceAfter(null);
+        }
+    }
+}
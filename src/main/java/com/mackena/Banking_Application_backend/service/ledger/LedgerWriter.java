@@ -0,0 +1,8 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+public interface LedgerWriter {
+
+    // Applies the posting and records its transactions, filling in each entry's balanceAfter.
+    // Throws the rejecting leg's exception when the posting could not be applied.
+    void post(LedgerPosting posting);
+}
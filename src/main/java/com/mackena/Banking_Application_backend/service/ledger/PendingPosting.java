@@ -0,0 +1,35 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+// A posting handed to a background writer, together with the future its caller is blocked on
+record PendingPosting(LedgerPosting posting, CompletableFuture<Void> result) {
+
+    PendingPosting(LedgerPosting posting) {
+        this(posting, new CompletableFuture<>());
+    }
+
+    // No timeout on purpose: a caller giving up could not tell whether its posting was committed
+    void await() {
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Ledger posting failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ledger posting", e);
+        }
+    }
+
+    // Releases callers whose postings a stopped writer will never apply. A posting already completed keeps its
+    // outcome; one a dying writer was still committing may or may not have been applied.
+    static void failAll(Collection<PendingPosting> pendings, String reason) {
+        IllegalStateException failure = new IllegalStateException(reason);
+        pendings.forEach(pending -> pending.result().completeExceptionally(failure));
+    }
+}
@@ -0,0 +1,172 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Routes every posting to one of a fixed number of stripes by account id. Each stripe has a single writer
+// thread, so postings to a hot account (payroll, merchants) are applied back to back by one thread and
+// whatever queued up behind the previous commit goes into the next one, while unrelated accounts land on
+// other stripes and run in parallel.
+@Component
+@ConditionalOnProperty(name = "app.ledger.posting-mode", havingValue = "SEQUENCED")
+@Slf4j
+public class SequencedLedgerWriter implements LedgerWriter {
+
+    private final LedgerBatchCommitter committer;
+    private final MeterRegistry meterRegistry;
+    private final int stripeCount;
+    private final int maxBatch;
+
+    private final List<Stripe> stripes = new ArrayList<>();
+    // Held shared to check running and enqueue as one step, exclusively to stop: once running is cleared no
+    // caller can still add a posting a stripe writer or stop() would miss
+    private final ReadWriteLock enqueueLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+
+    public SequencedLedgerWriter(LedgerPostingProcessor processor,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.ledger.sequencer.stripes:16}") int stripeCount,
+                                 @Value("${app.ledger.sequencer.max-batch:64}") int maxBatch) {
+        this.committer = new LedgerBatchCommitter(processor, transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.stripeCount = stripeCount;
+        this.maxBatch = maxBatch;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < stripeCount; i++) {
+            BlockingQueue<PendingPosting> queue = new LinkedBlockingQueue<>();
+            Stripe stripe = new Stripe(queue, new Thread(() -> writeLoop(queue), "ledger-sequencer-" + i));
+            stripes.add(stripe);
+
+            Gauge.builder("ledger.sequencer.queue.depth", stripe.queue(), BlockingQueue::size)
+                    .description("Postings waiting on a sequencer stripe")
+                    .tag("stripe", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        FunctionCounter.builder("ledger.sequencer.commits", committer, LedgerBatchCommitter::getCommits)
+                .description("Database commits issued by the sequencer stripes")
+                .register(meterRegistry);
+
+        stripes.forEach(stripe -> {
+            stripe.writer().setDaemon(true);
+            stripe.writer().start();
+        });
+        log.info("Sequenced ledger writer started ({} stripes, max batch {})", stripeCount, maxBatch);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        close();
+        for (Stripe stripe : stripes) {
+            stripe.writer().join(TimeUnit.SECONDS.toMillis(10));
+            failQueued(stripe.queue(), "Ledger writer is shutting down");
+        }
+    }
+
+    @Override
+    public void post(LedgerPosting posting) {
+        PendingPosting pending = new PendingPosting(posting);
+        BlockingQueue<PendingPosting> queue = stripes.get(stripeIndex(routingAccountId(posting))).queue();
+        enqueueLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Ledger writer is not running");
+            }
+            queue.add(pending);
+        } finally {
+            enqueueLock.readLock().unlock();
+        }
+        pending.await();
+    }
+
+    public long getCommittedBatches() {
+        return committer.getCommits();
+    }
+
+    // Credits are what pile up on hot accounts, so a posting follows its credited account. Postings with
+    // only a debit follow the debited one. The other leg of a transfer is still protected by its row lock.
+    static Long routingAccountId(LedgerPosting posting) {
+        return posting.getLegs().stream()
+                .filter(leg -> !leg.isDebit())
+                .findFirst()
+                .orElse(posting.getLegs().get(0))
+                .getAccountId();
+    }
+
+    // Sequential ids would otherwise fill the stripes round robin, so the id is mixed first
+    int stripeIndex(Long accountId) {
+        return Math.floorMod(Long.hashCode(accountId * 0x9E3779B97F4A7C15L), stripeCount);
+    }
+
+    private void writeLoop(BlockingQueue<PendingPosting> queue) {
+        List<PendingPosting> batch = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingPosting first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    committer.commit(batch);
+                } catch (RuntimeException e) {
+                    log.error("Unexpected failure in ledger sequencer", e);
+                    PendingPosting.failAll(batch, "Ledger posting failed");
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Reached with postings left only when the stripe was interrupted or died of an Error. Its account
+            // range cannot be posted to any more, so the whole writer stops taking postings; the other stripes
+            // finish what they hold.
+            if (running || !batch.isEmpty() || !queue.isEmpty()) {
+                log.error("Ledger sequencer stripe {} stopped unexpectedly, failing pending postings",
+                        Thread.currentThread().getName());
+                close();
+                PendingPosting.failAll(batch, "Ledger writer stopped");
+                failQueued(queue, "Ledger writer stopped");
+            }
+        }
+    }
+
+    private void close() {
+        enqueueLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            enqueueLock.writeLock().unlock();
+        }
+    }
+
+    private static void failQueued(BlockingQueue<PendingPosting> queue, String reason) {
+        List<PendingPosting> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        PendingPosting.failAll(queued, reason);
+    }
+
+    private record Stripe(BlockingQueue<PendingPosting> queue, Thread writer) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.mackena.Banking_Application_backend.service.search;
+
+import java.util.List;
+
+// One page of matching account ids, best match first, and how many accounts match in all
+public record AccountSearchHits(List<Hit> hits, long total) {
+
+    public record Hit(Long accountId, double rank) {
+    }
+}
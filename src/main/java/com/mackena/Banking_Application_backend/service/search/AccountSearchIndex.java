@@ -0,0 +1,8 @@
+package com.mackena.Banking_Application_backend.service.search;
+
+public interface AccountSearchIndex {
+
+    // Accounts whose number, or whose owner's first name, last name or email, contains the term (ignoring
+    // case), ranked by how closely the best matching field resembles it. The term has at least three characters.
+    AccountSearchHits search(String term, long offset, int limit);
+}
@@ -0,0 +1,217 @@
+package com.mackena.Banking_Application_backend.service.search;
+
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.projection.AccountSearchRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Searches an in-process trigram index of every account, for databases without pg_trgm. The index is rebuilt
+// from the accounts table every refresh interval; accounts opened or changed since are found after the next one.
+@Component
+@ConditionalOnProperty(name = "app.account-search.engine", havingValue = "NGRAM")
+@RequiredArgsConstructor
+@Slf4j
+public class NgramAccountSearchIndex implements AccountSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final char FIELD_SEPARATOR = '\0';
+    private static final Comparator<AccountSearchHits.Hit> BEST_FIRST = Comparator
+            .comparingDouble(AccountSearchHits.Hit::rank).reversed()
+            .thenComparing(AccountSearchHits.Hit::accountId);
+
+    private final AccountRepository accountRepository;
+
+    @Value("${app.account-search.ngram.load-batch-size:10000}")
+    private int loadBatchSize;
+
+    // Replaced whole by each refresh; null until the first one
+    private volatile Snapshot snapshot;
+
+    @Override
+    public AccountSearchHits search(String term, long offset, int limit) {
+        Snapshot current = snapshot();
+        String needle = term.toLowerCase(Locale.ROOT);
+
+        // Documents holding every trigram of the term, then only those holding the term itself in one field
+        List<AccountSearchHits.Hit> hits = new ArrayList<>();
+        for (int document : current.candidates(needle)) {
+            double rank = current.rank(document, needle);
+            if (rank > 0) {
+                hits.add(new AccountSearchHits.Hit(current.accountIds[document], rank));
+            }
+        }
+        hits.sort(BEST_FIRST);
+
+        int from = (int) Math.min(offset, hits.size());
+        int to = (int) Math.min(offset + limit, hits.size());
+        return new AccountSearchHits(List.copyOf(hits.subList(from, to)), hits.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.account-search.ngram.refresh-interval-ms:60000}")
+    public void refresh() {
+        long started = System.nanoTime();
+        Builder builder = new Builder();
+        Long afterId = 0L;
+        List<AccountSearchRow> batch;
+        do {
+            batch = accountRepository.findSearchRowsAfter(afterId, PageRequest.of(0, loadBatchSize));
+            batch.forEach(builder::add);
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == loadBatchSize);
+
+        snapshot = builder.build();
+        log.debug("Account search index rebuilt: {} accounts, {} trigrams in {} ms", snapshot.accountIds.length,
+                snapshot.postings.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    // Three characters packed into one key, so building the index allocates no substrings
+    private static long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static String lower(String field) {
+        return field == null ? "" : field.toLowerCase(Locale.ROOT);
+    }
+
+    // Documents are numbered in load order, so every posting list is sorted ascending
+    private record Snapshot(long[] accountIds, String[] fields, Map<Long, int[]> postings) {
+
+        int[] candidates(String needle) {
+            if (needle.length() < GRAM) {
+                int[] all = new int[accountIds.length];
+                Arrays.setAll(all, i -> i);
+                return all;
+            }
+            Set<Long> grams = new HashSet<>();
+            for (int i = 0; i + GRAM <= needle.length(); i++) {
+                grams.add(gram(needle, i));
+            }
+            List<int[]> lists = new ArrayList<>();
+            for (Long gram : grams) {
+                int[] list = postings.get(gram);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            // Shortest first, so each intersection is at most as long as the rarest trigram's list
+            lists.sort(Comparator.comparingInt(list -> list.length));
+            int[] result = lists.get(0);
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = intersect(result, lists.get(i));
+            }
+            return result;
+        }
+
+        // The share of the best matching field the term covers: 1 for an exact match, 0 when no field contains it
+        double rank(int document, String needle) {
+            double best = 0;
+            for (String field : fields[document].split(String.valueOf(FIELD_SEPARATOR), -1)) {
+                if (field.contains(needle)) {
+                    best = Math.max(best, (double) needle.length() / field.length());
+                }
+            }
+            return best;
+        }
+
+        private static int[] intersect(int[] left, int[] right) {
+            int[] result = new int[Math.min(left.length, right.length)];
+            int size = 0;
+            for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+                if (left[i] < right[j]) {
+                    i++;
+                } else if (left[i] > right[j]) {
+                    j++;
+                } else {
+                    result[size++] = left[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, size);
+        }
+    }
+
+    private static final class Builder {
+
+        private long[] accountIds = new long[1024];
+        private final List<String> fields = new ArrayList<>();
+        private final Map<Long, IntList> postings = new HashMap<>();
+
+        void add(AccountSearchRow row) {
+            int document = fields.size();
+            if (document == accountIds.length) {
+                accountIds = Arrays.copyOf(accountIds, document * 2);
+            }
+            accountIds[document] = row.id();
+
+            String[] values = {lower(row.accountNumber()), lower(row.firstName()), lower(row.lastName()),
+                    lower(row.email())};
+            fields.add(String.join(String.valueOf(FIELD_SEPARATOR), values));
+
+            // Trigrams never span two fields; a trigram in several fields is posted once
+            Set<Long> grams = new HashSet<>();
+            for (String value : values) {
+                for (int i = 0; i + GRAM <= value.length(); i++) {
+                    grams.add(gram(value, i));
+                }
+            }
+            for (Long gram : grams) {
+                postings.computeIfAbsent(gram, key -> new IntList()).add(document);
+            }
+        }
+
+        Snapshot build() {
+            Map<Long, int[]> lists = new HashMap<>(postings.size() * 2);
+            postings.forEach((gram, list) -> lists.put(gram, list.toArray()));
+            return new Snapshot(Arrays.copyOf(accountIds, fields.size()), fields.toArray(String[]::new), lists);
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mackena.Banking_Application_backend.service.search;
+
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Searches in PostgreSQL through the pg_trgm GIN indexes on account number, first name, last name and email
+@Component
+@ConditionalOnProperty(name = "app.account-search.engine", havingValue = "TRIGRAM", matchIfMissing = true)
+@RequiredArgsConstructor
+public class TrigramAccountSearchIndex implements AccountSearchIndex {
+
+    private final AccountRepository accountRepository;
+
+    @Override
+    public AccountSearchHits search(String term, long offset, int limit) {
+        String pattern = "%" + escapeLike(term) + "%";
+        List<AccountSearchHits.Hit> hits = accountRepository.searchByTrigram(term, pattern, offset, limit).stream()
+                .map(match -> new AccountSearchHits.Hit(match.getId(), match.getRank()))
+                .toList();
+
+        // A short page that is not past the end already tells the total
+        boolean lastPage = hits.size() < limit && (offset == 0 || !hits.isEmpty());
+        long total = lastPage ? offset + hits.size() : accountRepository.countByTrigram(pattern);
+        return new AccountSearchHits(hits, total);
+    }
+
+    // The term is matched literally: LIKE wildcards in it are escaped with PostgreSQL's default escape character
+    static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
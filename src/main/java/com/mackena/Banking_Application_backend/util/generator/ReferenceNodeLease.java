@@ -0,0 +1,159 @@
+package com.mackena.Banking_Application_backend.util.generator;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This instance's lease on its reference node id (table {@code reference_node_leases}). A configured
+ * {@code app.reference.node-id} that another running instance holds fails startup; without one the lowest free
+ * id is taken. The lease is renewed in the background and counts as held for half its duration after the last
+ * renewal, so an instance that loses the database stops handing out references well before another may take
+ * its id over. Each renewal first records the last millisecond the holder may use until the next one
+ * ({@code issued_until}); the next holder of the id starts after the one it finds.
+ */
+@Component
+@Slf4j
+public class ReferenceNodeLease {
+
+    static final int MAX_NODE_ID = 1023;
+
+    private static final int CLAIM_ATTEMPTS = 10;
+
+    // A row whose lease has run out may be taken over by whoever claims it. issued_until is left as the previous
+    // holder wrote it, so RETURNING shows where that holder stopped (0 for a new row).
+    private static final String CLAIM_CONFLICT = """
+             ON CONFLICT (node_id) DO UPDATE SET instance_id = EXCLUDED.instance_id, renewed_at = EXCLUDED.renewed_at
+             WHERE reference_node_leases.renewed_at < now() - ? * interval '1 second'
+            RETURNING node_id, issued_until""";
+
+    private static final String CLAIM_NODE = """
+            INSERT INTO reference_node_leases (node_id, instance_id, renewed_at) VALUES (?, ?, now())""" + CLAIM_CONFLICT;
+
+    private static final String CLAIM_FREE_NODE = """
+            INSERT INTO reference_node_leases (node_id, instance_id, renewed_at)
+            SELECT n, ?, now() FROM generate_series(0, %d) AS n
+            WHERE NOT EXISTS (SELECT 1 FROM reference_node_leases l
+                              WHERE l.node_id = n AND l.renewed_at >= now() - ? * interval '1 second')
+            ORDER BY n LIMIT 1""".formatted(MAX_NODE_ID) + CLAIM_CONFLICT;
+
+    private static final RowMapper<long[]> CLAIMED =
+            (rs, rowNum) -> new long[] {rs.getInt("node_id"), rs.getLong("issued_until")};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long leaseSeconds;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final int nodeId;
+    private final long previousIssuedUntilMillis;
+
+    // System.nanoTime() after which this instance must stop using nodeId
+    private volatile long heldUntilNanos;
+
+    // Wall-clock millisecond up to which issued_until covers references made under this lease
+    private volatile long issuableUntilMillis;
+
+    public ReferenceNodeLease(JdbcTemplate jdbcTemplate,
+                              @Value("${app.reference.node-id:-1}") int configuredNodeId,
+                              @Value("${app.reference.node-lease-seconds:60}") long leaseSeconds) {
+        if (configuredNodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.reference.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseSeconds = leaseSeconds;
+
+        long[] claimed = configuredNodeId >= 0 ? claim(configuredNodeId) : claimFree();
+        this.nodeId = (int) claimed[0];
+        this.previousIssuedUntilMillis = claimed[1];
+        renew();
+        if (!isHeld()) {
+            throw new IllegalStateException("Could not record the lease on reference node id " + nodeId);
+        }
+        log.info("Leased reference node id {}", nodeId);
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    public boolean isHeld() {
+        return System.nanoTime() - heldUntilNanos < 0;
+    }
+
+    // The last millisecond the previous holder of nodeId may have put into a reference
+    public long previousIssuedUntilMillis() {
+        return previousIssuedUntilMillis;
+    }
+
+    public long issuableUntilMillis() {
+        return issuableUntilMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reference.node-lease-renew-ms:15000}")
+    public void renew() {
+        long started = System.nanoTime();
+        // The holder stops by started + holdNanos(), so its clock cannot have passed this by then without jumping
+        long issuableUntil = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(holdNanos());
+        try {
+            int renewed = jdbcTemplate.update("UPDATE reference_node_leases SET renewed_at = now(), "
+                            + "issued_until = GREATEST(issued_until, ?) WHERE node_id = ? AND instance_id = ?",
+                    issuableUntil, nodeId, instanceId);
+            if (renewed == 1) {
+                issuableUntilMillis = issuableUntil;
+                heldUntilNanos = started + holdNanos();
+            } else {
+                heldUntilNanos = started;
+                log.error("Reference node id {} was taken over by another instance; no more references will be generated",
+                        nodeId);
+            }
+        } catch (DataAccessException e) {
+            // Still held until heldUntilNanos; the next run tries again
+            log.warn("Could not renew the lease on reference node id {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    // Expires the lease but keeps the row, whose issued_until the next holder starts after
+    @PreDestroy
+    public void release() {
+        heldUntilNanos = System.nanoTime();
+        try {
+            jdbcTemplate.update("UPDATE reference_node_leases SET renewed_at = '-infinity' "
+                            + "WHERE node_id = ? AND instance_id = ?",
+                    nodeId, instanceId);
+        } catch (DataAccessException e) {
+            log.warn("Could not release reference node id {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    // {node id, issued_until of the previous holder}
+    private long[] claim(int node) {
+        List<long[]> claimed = jdbcTemplate.query(CLAIM_NODE, CLAIMED, node, instanceId, leaseSeconds);
+        if (claimed.isEmpty()) {
+            throw new IllegalStateException("Reference node id " + node + " is held by another running instance");
+        }
+        return claimed.get(0);
+    }
+
+    private long[] claimFree() {
+        // Another instance starting at the same moment may take the id picked here first; pick again
+        for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+            List<long[]> claimed = jdbcTemplate.query(CLAIM_FREE_NODE, CLAIMED, instanceId, leaseSeconds, leaseSeconds);
+            if (!claimed.isEmpty()) {
+                return claimed.get(0);
+            }
+        }
+        throw new IllegalStateException("No free reference node id; all " + (MAX_NODE_ID + 1) + " are leased");
+    }
+
+    private long holdNanos() {
+        return TimeUnit.SECONDS.toNanos(leaseSeconds) / 2;
+    }
+}
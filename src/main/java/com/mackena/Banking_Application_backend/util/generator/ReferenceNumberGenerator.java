@@ -0,0 +1,117 @@
+package com.mackena.Banking_Application_backend.util.generator;
+
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style transaction references: a 64-bit id made of milliseconds since 2024-01-01 (41 bits), the
+ * node id (10 bits) and a per-millisecond sequence (12 bits), written as 13 base-36 digits after the type
+ * prefix, e.g. {@code TXN0A1B2C3D4E5F6}. References from one node never repeat and sort by creation time.
+ * Nodes sharing a database get distinct node ids through {@link ReferenceNodeLease}.
+ */
+@Component
+public class ReferenceNumberGenerator {
+
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1; // ReferenceNodeLease.MAX_NODE_ID
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int PREFIX_LENGTH = 3;
+    private static final int ID_DIGITS = 13; // 36^13 > 2^63
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private final long nodeBits;
+    private final ReferenceNodeLease lease; // null for a fixed node id
+
+    // (millis since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last id handed out. Advancing it with
+    // max(last + 1, now << SEQUENCE_BITS) keeps ids unique within this process when the clock steps back or more
+    // than 4096 ids are asked for in one millisecond: the generator then runs slightly ahead of the clock instead
+    // of waiting. It is not kept across restarts; instead it starts past the last millisecond the node id's
+    // previous holder was allowed to use (ReferenceNodeLease), which covers a restart with the clock set back
+    // and a takeover by an instance whose clock is behind.
+    private final AtomicLong lastState;
+
+    @Autowired
+    public ReferenceNumberGenerator(ReferenceNodeLease lease) {
+        this(lease.nodeId(), lease);
+    }
+
+    public ReferenceNumberGenerator(long nodeId) {
+        this(nodeId, null);
+    }
+
+    private ReferenceNumberGenerator(long nodeId, ReferenceNodeLease lease) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.reference.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.lease = lease;
+        long startMillis = lease != null ? lease.previousIssuedUntilMillis() + 1 - EPOCH_MILLIS : 0;
+        this.lastState = new AtomicLong(Math.max(0, (startMillis << SEQUENCE_BITS) - 1));
+    }
+
+    public String generate(TransactionType type) {
+        if (lease == null) {
+            return format(prefix(type), nextId());
+        }
+        // Once the lease lapses another instance may take the node id over, and its references could repeat ours
+        if (!lease.isHeld()) {
+            throw new IllegalStateException("Lease on reference node id " + lease.nodeId() + " has lapsed");
+        }
+        // A later millisecond than the lease records would not be skipped by the node id's next holder
+        long id = nextId();
+        if ((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS > lease.issuableUntilMillis()) {
+            throw new IllegalStateException("Clock is ahead of the lease on reference node id " + lease.nodeId());
+        }
+        return format(prefix(type), id);
+    }
+
+    // The millisecond a reference was generated at, in the JVM's zone like the other timestamps
+    public static LocalDateTime timestampOf(String reference) {
+        if (reference == null || reference.length() != PREFIX_LENGTH + ID_DIGITS) {
+            throw new IllegalArgumentException("Not a generated reference number: " + reference);
+        }
+        long id;
+        try {
+            id = Long.parseLong(reference.substring(PREFIX_LENGTH), 36);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a generated reference number: " + reference, e);
+        }
+        long millis = (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long state = lastState.updateAndGet(last -> Math.max(last + 1, now));
+        long millis = state >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (state & SEQUENCE_MASK);
+    }
+
+    // Fixed width, so references order the same way as their ids
+    private static String format(String prefix, long id) {
+        char[] chars = new char[PREFIX_LENGTH + ID_DIGITS];
+        prefix.getChars(0, PREFIX_LENGTH, chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX_LENGTH; i--) {
+            chars[i] = DIGITS[(int) (id % 36)];
+            id /= 36;
+        }
+        return new String(chars);
+    }
+
+    private static String prefix(TransactionType type) {
+        return switch (type) {
+            case TRANSFER -> "TXN";
+            case DEPOSIT -> "DEP";
+            case WITHDRAW -> "WTH";
+        };
+    }
+}
@@ -0,0 +1,9 @@
+-- Account search matches a substring of the account number or of the owner's first name, last name or email.
+-- A B-tree cannot serve '%term%', so each searched column gets a trigram GIN index: ILIKE '%term%' reads only
+-- rows holding every trigram of the term, and similarity() ranks the matches.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_account_number_trgm ON accounts USING gin (account_number gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_user_first_name_trgm ON users USING gin (first_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_user_last_name_trgm ON users USING gin (last_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_user_email_trgm ON users USING gin (email gin_trgm_ops);
@@ -0,0 +1,11 @@
+-- What is left of each transaction token's allowance. The signed token only proves what was granted; the
+-- remaining uses and amount live here so that every instance redeems against the same balance.
+
+CREATE TABLE transaction_token_allowances (
+    token_id         varchar(36)    PRIMARY KEY,
+    remaining_uses   integer        NOT NULL CHECK (remaining_uses >= 0),
+    remaining_amount numeric(15, 2) NOT NULL CHECK (remaining_amount >= 0),
+    expires_at       timestamp(6)   NOT NULL
+);
+
+CREATE INDEX idx_token_allowance_expires ON transaction_token_allowances (expires_at);
@@ -0,0 +1,9 @@
+-- Which instance holds each reference node id. transactions is partitioned and cannot carry a UNIQUE key on
+-- reference_number, so references are unique only as long as no two running instances share a node id; an
+-- instance leases its id here at startup and keeps renewing it while it runs.
+
+CREATE TABLE reference_node_leases (
+    node_id     integer      PRIMARY KEY CHECK (node_id BETWEEN 0 AND 1023),
+    instance_id varchar(36)  NOT NULL,
+    renewed_at  timestamp(6) NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Tie each transaction token allowance to the user it was issued to and the account it may debit, so that a
+-- redemption is checked against the database and not only against the token's claims. Allowances live for
+-- minutes; the ones issued before this migration carry no owner and are dropped.
+
+DELETE FROM transaction_token_allowances;
+
+ALTER TABLE transaction_token_allowances
+    ADD COLUMN user_id    bigint NOT NULL,
+    ADD COLUMN account_id bigint NOT NULL;
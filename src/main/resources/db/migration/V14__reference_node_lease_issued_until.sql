@@ -0,0 +1,5 @@
+-- The last millisecond (since 1970) the holder of a node id may put into a reference, raised before the holder
+-- uses it. The next holder starts its references after it, so they cannot repeat earlier ones even when its
+-- clock is behind. Released leases keep the row for this reason.
+
+ALTER TABLE reference_node_leases ADD COLUMN issued_until bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,8 @@
+-- A UNIQUE key on a partitioned table must include the partition key, so reference_number is unique together
+-- with created_at. created_at is the millisecond encoded in the reference (Transaction.createdAt), so a
+-- repeated reference always carries the same created_at, lands in the same partition and is rejected here.
+-- The key's index also serves lookups by reference number, replacing idx_transaction_reference.
+
+ALTER TABLE transactions ADD CONSTRAINT uk_transaction_reference_created UNIQUE (reference_number, created_at);
+
+DROP INDEX idx_transaction_reference;
@@ -0,0 +1,13 @@
+-- The last day the nightly balance snapshot job has processed, in one row. A day without balance changes
+-- writes no snapshot rows, so the latest snapshot_date is not where the job should resume; it advances this
+-- row in the same transaction as each day's snapshots instead.
+
+CREATE TABLE balance_snapshot_watermark (
+    id                 integer PRIMARY KEY CHECK (id = 1),
+    last_snapshot_date date    NOT NULL
+);
+
+INSERT INTO balance_snapshot_watermark (id, last_snapshot_date)
+SELECT 1, max(snapshot_date)
+FROM balance_snapshots
+HAVING max(snapshot_date) IS NOT NULL;
@@ -0,0 +1,70 @@
+-- Schema as Hibernate generated it before migrations were introduced. Every statement is guarded, so on a
+-- database that already has the schema (baselined at version 0) this only adds what is missing.
+
+CREATE TABLE IF NOT EXISTS users (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email        varchar(255) NOT NULL UNIQUE,
+    password     varchar(255) NOT NULL,
+    first_name   varchar(100) NOT NULL,
+    last_name    varchar(100) NOT NULL,
+    phone_number varchar(15),
+    address      text,
+    role         varchar(255) NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    is_enabled   boolean,
+    created_at   timestamp(6),
+    updated_at   timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS accounts (
+    id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id         bigint NOT NULL REFERENCES users (id),
+    account_number  varchar(20) NOT NULL UNIQUE,
+    account_type    varchar(255) NOT NULL CHECK (account_type IN ('SAVINGS', 'CHECKING')),
+    balance         numeric(15, 2) NOT NULL,
+    transaction_pin varchar(60),
+    is_active       boolean,
+    created_at      timestamp(6),
+    updated_at      timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id                    bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id            bigint NOT NULL REFERENCES accounts (id),
+    amount                numeric(15, 2) NOT NULL,
+    transaction_type      varchar(255) NOT NULL CHECK (transaction_type IN ('WITHDRAW', 'DEPOSIT', 'TRANSFER')),
+    transaction_direction varchar(255) NOT NULL CHECK (transaction_direction IN ('DEBIT', 'CREDIT')),
+    description           text,
+    reference_number      varchar(20) NOT NULL UNIQUE,
+    transfer_reference    varchar(255),
+    status                varchar(255) CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    balance_after         numeric(15, 2),
+    created_at            timestamp(6)
+);
+
+-- Optimistic locking on accounts
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id         bigint NOT NULL,
+    idempotency_key varchar(100) NOT NULL,
+    operation       varchar(20) NOT NULL,
+    request_hash    varchar(64) NOT NULL,
+    status          varchar(20) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    response_body   text,
+    created_at      timestamp(6),
+    expires_at      timestamp(6) NOT NULL,
+    CONSTRAINT uk_idempotency_user_key UNIQUE (user_id, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_email ON users (email);
+CREATE INDEX IF NOT EXISTS idx_user_phone ON users (phone_number);
+CREATE INDEX IF NOT EXISTS idx_account_number ON accounts (account_number);
+CREATE INDEX IF NOT EXISTS idx_account_user ON accounts (user_id);
+CREATE INDEX IF NOT EXISTS idx_account_type ON accounts (account_type);
+CREATE INDEX IF NOT EXISTS idx_transaction_reference ON transactions (reference_number);
+CREATE INDEX IF NOT EXISTS idx_transaction_account ON transactions (account_id);
+CREATE INDEX IF NOT EXISTS idx_transaction_type ON transactions (transaction_type);
+CREATE INDEX IF NOT EXISTS idx_transaction_status ON transactions (status);
+CREATE INDEX IF NOT EXISTS idx_transaction_date ON transactions (created_at);
+CREATE INDEX IF NOT EXISTS idx_idempotency_expires ON idempotency_keys (expires_at);
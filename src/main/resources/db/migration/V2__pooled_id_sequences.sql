@@ -0,0 +1,16 @@
+-- users, accounts and transactions switch from IDENTITY to pooled sequences (Hibernate reserves 50 ids per
+-- nextval), so inserts no longer have to run one by one to learn their id and can be batched.
+-- With the pooled optimizer a nextval of N hands out N-49..N, so each sequence is positioned such that its
+-- next value is at least max(id) + 50.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS accounts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('users_seq', max(id)) FROM users HAVING max(id) IS NOT NULL;
+SELECT setval('accounts_seq', max(id)) FROM accounts HAVING max(id) IS NOT NULL;
+SELECT setval('transactions_seq', max(id)) FROM transactions HAVING max(id) IS NOT NULL;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE accounts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
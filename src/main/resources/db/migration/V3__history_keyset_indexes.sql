@@ -0,0 +1,4 @@
+-- Keyset pagination of transaction history seeks on (created_at, id), with id breaking ties between rows
+-- written in the same instant. One index for per-account history, one for the admin-wide listing.
+CREATE INDEX IF NOT EXISTS idx_transaction_account_created_id ON transactions (account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_transaction_created_id ON transactions (created_at, id);
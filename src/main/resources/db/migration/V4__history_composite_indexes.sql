@@ -0,0 +1,16 @@
+-- Composite indexes for the history access paths: every history query is scoped to an account (or reads the
+-- whole table), filters by type more often than by anything else, and orders by created_at, id. PostgreSQL
+-- reads a b-tree backwards for DESC, so the ascending (account_id, created_at, id) from V3 already serves
+-- newest-first pages without a sort.
+CREATE INDEX IF NOT EXISTS idx_transaction_account_type_created_id
+    ON transactions (account_id, transaction_type, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_transaction_type_created_id ON transactions (transaction_type, created_at, id);
+-- Transfers look up both legs by the shared transfer reference
+CREATE INDEX IF NOT EXISTS idx_transaction_transfer_reference ON transactions (transfer_reference);
+
+-- Superseded single-column indexes: each is a prefix of a composite index above or in V3, and
+-- reference_number is already indexed by its unique constraint. Dropping them saves a write per insert.
+DROP INDEX IF EXISTS idx_transaction_account;
+DROP INDEX IF EXISTS idx_transaction_type;
+DROP INDEX IF EXISTS idx_transaction_date;
+DROP INDEX IF EXISTS idx_transaction_reference;
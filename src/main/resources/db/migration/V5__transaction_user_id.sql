@@ -0,0 +1,15 @@
+-- Per-user history used to filter on accounts.user_id, so every query joined accounts and the rows of the
+-- user's accounts had to be merged with a sort. Each transaction now carries its owner's id, copied from the
+-- account when it is posted (accounts never change owner), and per-user pages read the index below in order.
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS user_id bigint;
+
+UPDATE transactions t
+SET user_id = a.user_id
+FROM accounts a
+WHERE a.id = t.account_id
+  AND t.user_id IS NULL;
+
+ALTER TABLE transactions ALTER COLUMN user_id SET NOT NULL;
+ALTER TABLE transactions ADD CONSTRAINT fk_transaction_user FOREIGN KEY (user_id) REFERENCES users (id);
+
+CREATE INDEX IF NOT EXISTS idx_transaction_user_created_id ON transactions (user_id, created_at, id);
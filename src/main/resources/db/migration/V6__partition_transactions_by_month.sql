@@ -0,0 +1,59 @@
+-- transactions becomes a table range-partitioned by created_at month (transactions_yYYYYmMM). A date-range
+-- query then only reads the months it covers, and old months can be detached for archival without a
+-- DELETE. TransactionPartitionService keeps partitions created ahead of time and detaches expired ones.
+--
+-- Partitioning constrains the schema:
+--  * unique constraints must include created_at, so the primary key is (id, created_at) and reference_number
+--    is no longer unique in the database (ReferenceNumberGenerator guarantees it)
+--  * created_at is NOT NULL, and a row can only be stored if its month has a partition. There is no default
+--    partition, so that creating a partition never has to check or move existing rows.
+
+CREATE TABLE transactions_partitioned (
+    id                    bigint         NOT NULL,
+    account_id            bigint         NOT NULL REFERENCES accounts (id),
+    user_id               bigint         NOT NULL REFERENCES users (id),
+    amount                numeric(15, 2) NOT NULL,
+    transaction_type      varchar(255)   NOT NULL CHECK (transaction_type IN ('WITHDRAW', 'DEPOSIT', 'TRANSFER')),
+    transaction_direction varchar(255)   NOT NULL CHECK (transaction_direction IN ('DEBIT', 'CREDIT')),
+    description           text,
+    reference_number      varchar(20)    NOT NULL,
+    transfer_reference    varchar(255),
+    status                varchar(255) CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    balance_after         numeric(15, 2),
+    created_at            timestamp(6)   NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- One partition per month from the oldest existing row to three months ahead
+DO $$
+DECLARE
+    month      timestamp := date_trunc('month', LEAST(COALESCE((SELECT min(created_at) FROM transactions), now()), now()));
+    last_month timestamp := date_trunc('month', now()) + INTERVAL '3 months';
+BEGIN
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transactions_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'transactions_' || to_char(month, '"y"YYYY"m"MM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO transactions_partitioned (id, account_id, user_id, amount, transaction_type, transaction_direction,
+                                      description, reference_number, transfer_reference, status, balance_after,
+                                      created_at)
+SELECT id, account_id, user_id, amount, transaction_type, transaction_direction,
+       description, reference_number, transfer_reference, status, balance_after,
+       COALESCE(created_at, now())
+FROM transactions;
+
+DROP TABLE transactions;
+ALTER TABLE transactions_partitioned RENAME TO transactions;
+
+-- Indexes on the parent are created on every partition, present and future
+CREATE INDEX idx_transaction_reference ON transactions (reference_number);
+CREATE INDEX idx_transaction_status ON transactions (status);
+CREATE INDEX idx_transaction_transfer_reference ON transactions (transfer_reference);
+CREATE INDEX idx_transaction_account_created_id ON transactions (account_id, created_at, id);
+CREATE INDEX idx_transaction_account_type_created_id ON transactions (account_id, transaction_type, created_at, id);
+CREATE INDEX idx_transaction_user_created_id ON transactions (user_id, created_at, id);
+CREATE INDEX idx_transaction_created_id ON transactions (created_at, id);
+CREATE INDEX idx_transaction_type_created_id ON transactions (transaction_type, created_at, id);
@@ -0,0 +1,15 @@
+-- End-of-day balance of each account on each day it had transactions, written by BalanceSnapshotService once
+-- the day is over. A balance as of any moment is then the last snapshot before that day plus the day's own
+-- transactions, instead of a search back through every earlier month for the last balance_after.
+
+CREATE TABLE balance_snapshots (
+    account_id    bigint         NOT NULL,
+    snapshot_date date           NOT NULL,
+    balance       numeric(15, 2) NOT NULL,
+    created_at    timestamp(6)   NOT NULL,
+    PRIMARY KEY (account_id, snapshot_date),
+    CONSTRAINT fk_balance_snapshot_account FOREIGN KEY (account_id) REFERENCES accounts (id) ON DELETE CASCADE
+);
+
+-- The last snapshotted day, where the nightly job resumes
+CREATE INDEX idx_balance_snapshot_date ON balance_snapshots (snapshot_date);
@@ -0,0 +1,24 @@
+-- System-wide totals behind the admin total-balance endpoint, in one row. SystemAggregateService adds the
+-- changes each instance has accumulated since its last flush and a periodic reconciliation corrects any drift
+-- from the real sums over accounts. The balance is in minor units (cents) so that deltas add up exactly.
+
+CREATE TABLE system_aggregates (
+    id                         integer      PRIMARY KEY CHECK (id = 1),
+    total_balance_minor        bigint       NOT NULL,
+    total_accounts             bigint       NOT NULL,
+    active_accounts            bigint       NOT NULL,
+    users_with_active_accounts bigint       NOT NULL,
+    updated_at                 timestamp(6) NOT NULL,
+    reconciled_at              timestamp(6)
+);
+
+INSERT INTO system_aggregates (id, total_balance_minor, total_accounts, active_accounts, users_with_active_accounts,
+                               updated_at, reconciled_at)
+SELECT 1,
+       COALESCE(SUM(balance) FILTER (WHERE is_active), 0) * 100,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE is_active),
+       COUNT(DISTINCT user_id) FILTER (WHERE is_active),
+       now(),
+       now()
+FROM accounts;
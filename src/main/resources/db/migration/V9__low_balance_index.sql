@@ -0,0 +1,4 @@
+-- The low-balance listing pages through active accounts lowest balance first. Only active accounts are indexed,
+-- and id breaks ties between equal balances so every page is a range of the index read in order. The same range
+-- also answers the listing's count and sum with an index-only scan.
+CREATE INDEX IF NOT EXISTS idx_account_active_balance ON accounts (balance, id) WHERE is_active;
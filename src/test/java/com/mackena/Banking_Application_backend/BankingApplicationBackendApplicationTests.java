@@ -3,7 +3,8 @@ package com.mackena.Banking_Application_backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Test-only key; deployments set TRANSACTION_TOKEN_SECRET
+@SpringBootTest(properties = "app.transaction-token.secret=Y29udGV4dC10ZXN0LXRyYW5zYWN0aW9uLXRva2VuLWtleS1ub3QtZm9yLXByb2Q=")
 class BankingApplicationBackendApplicationTests {
 
 	@Test
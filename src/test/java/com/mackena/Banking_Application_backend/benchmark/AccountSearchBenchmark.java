@@ -0,0 +1,133 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.dtos.response.AccountSearchResponse;
+import com.mackena.Banking_Application_backend.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times admin account searches over a large dataset: one million accounts by default (override with
+ * -Dsearch.accounts=N), two per user, with owners drawn from 40 first and 40 last names. The dataset is
+ * seeded once and left in place for the other search engine's run. Each term is searched for the first page
+ * of 20 results; the report shows the matches found and the median and p95 latency.
+ */
+abstract class AccountSearchBenchmark {
+
+    private static final int ACCOUNTS = Integer.getInteger("search.accounts", 1_000_000);
+    private static final int WARMUP = 3;
+    private static final int RUNS = 20;
+    private static final String DOMAIN = "@search-bench.example";
+
+    private static final String[] FIRST_NAMES = {"Olivia", "Liam", "Emma", "Noah", "Amelia", "Oliver", "Ava",
+            "Elijah", "Sophia", "James", "Isabella", "William", "Mia", "Benjamin", "Evelyn", "Lucas", "Harper",
+            "Henry", "Luna", "Theodore", "Camila", "Jack", "Gianna", "Levi", "Elizabeth", "Alexander", "Eleanor",
+            "Jackson", "Ella", "Mateo", "Abigail", "Daniel", "Sofia", "Michael", "Avery", "Mason", "Scarlett",
+            "Sebastian", "Emily", "Ethan"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson",
+            "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris",
+            "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright",
+            "Scott", "Torres", "Nguyen", "Hill", "Flores"};
+
+    @Autowired private AccountService accountService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    protected abstract String mode();
+
+    // Runs once the dataset is in place, before any search is timed
+    protected void prepare() {
+    }
+
+    @Test
+    void searchMillionAccounts() {
+        seed();
+        prepare();
+
+        int user = ACCOUNTS / 4;
+        Map<String, String> terms = new LinkedHashMap<>();
+        terms.put("common last name", "smith");
+        terms.put("name in email", "olivia.smith");
+        terms.put("account number", accountNumber(user, 2));
+        terms.put("email of one owner", "." + user + DOMAIN);
+        terms.put("no match", "qqxz");
+
+        for (Map.Entry<String, String> term : terms.entrySet()) {
+            AccountSearchResponse response = null;
+            for (int i = 0; i < WARMUP; i++) {
+                response = accountService.searchAccounts(term.getValue(), 0, 20);
+            }
+            long[] nanos = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                long started = System.nanoTime();
+                accountService.searchAccounts(term.getValue(), 0, 20);
+                nanos[i] = System.nanoTime() - started;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("[%s] %s \"%s\": %d matches, median %.1f ms, p95 %.1f ms%n", mode(), term.getKey(),
+                    term.getValue(), response.getTotalResults(), nanos[RUNS / 2] / 1e6, nanos[RUNS * 95 / 100] / 1e6);
+
+            if (term.getKey().equals("account number")) {
+                assertThat(response.getResults().get(0).getAccountNumber()).isEqualTo(term.getValue());
+            }
+        }
+        assertThat(accountService.searchAccounts("." + user + DOMAIN, 0, 20).getTotalResults()).isEqualTo(2);
+        assertThat(accountService.searchAccounts("qqxz", 0, 20).getTotalResults()).isZero();
+    }
+
+    private static String accountNumber(int user, int account) {
+        return String.format("SB%09d%d", user, account);
+    }
+
+    private void seed() {
+        int users = ACCOUNTS / 2;
+        Integer seeded = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE email LIKE ?", Integer.class, "%" + DOMAIN);
+        if (seeded != null && seeded >= users) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM accounts WHERE account_number LIKE 'SB%' AND user_id IN "
+                + "(SELECT id FROM users WHERE email LIKE ?)", "%" + DOMAIN);
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", "%" + DOMAIN);
+
+        long started = System.nanoTime();
+        String firstNames = sqlArray(FIRST_NAMES);
+        String lastNames = sqlArray(LAST_NAMES);
+        // Name pairs repeat every 1,600 users, and the user's number keeps every email unique
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, password, first_name, last_name, role, is_enabled, created_at)
+                SELECT nextval('users_seq'), lower(first_name || '.' || last_name) || '.' || n || ?,
+                       'unused', first_name, last_name, 'USER', true, now()
+                FROM (SELECT n, (%s)[1 + n %% 40] AS first_name, (%s)[1 + (n / 40) %% 40] AS last_name
+                      FROM generate_series(1, ?) n) names
+                """.formatted(firstNames, lastNames), DOMAIN, users);
+        jdbcTemplate.update("""
+                INSERT INTO accounts (id, user_id, account_number, account_type, balance, is_active, created_at, version)
+                SELECT nextval('accounts_seq'), u.id,
+                       'SB' || lpad(substring(u.email FROM '\\.(\\d+)@'), 9, '0') || k,
+                       (ARRAY['SAVINGS', 'CHECKING'])[k], 1000.00, true, now(), 0
+                FROM users u CROSS JOIN generate_series(1, 2) k
+                WHERE u.email LIKE ?
+                """, "%" + DOMAIN);
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+        jdbcTemplate.execute("VACUUM ANALYZE accounts");
+        System.out.printf("[%s] seeded %d accounts of %d users in %.1f s%n", mode(), ACCOUNTS, users,
+                (System.nanoTime() - started) / 1e9);
+    }
+
+    private static String sqlArray(String[] values) {
+        List<String> quoted = new ArrayList<>();
+        for (String value : values) {
+            quoted.add("'" + value + "'");
+        }
+        return "ARRAY[" + String.join(", ", quoted) + "]";
+    }
+}
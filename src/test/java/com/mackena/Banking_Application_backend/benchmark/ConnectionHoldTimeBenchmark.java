@@ -0,0 +1,147 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.dtos.request.TransferRequest;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures how long each transfer keeps a pooled JDBC connection, using HikariCP's usage and acquire timers.
+ * Transfers run the way a web request does: inside an open EntityManager (open-in-view) and with the real
+ * BCrypt PIN check. The pool is smaller than the number of threads, so connection hold time shows up as
+ * waiting for a connection.
+ */
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=4")
+abstract class ConnectionHoldTimeBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 20;
+    private static final String PIN = "1234";
+
+    @Autowired private TransferService transferService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private MeterRegistry meterRegistry;
+
+    protected abstract String mode();
+
+    @Test
+    void transfersWithPinCheck() throws Exception {
+        User owner = userRepository.save(User.builder()
+                .email("hold-bench-" + UUID.randomUUID() + "@example.com")
+                .password("unused")
+                .firstName("Bench")
+                .lastName("Owner")
+                .role(UserRole.USER)
+                .build());
+        List<Account> accounts = createAccounts(owner, THREADS * 2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        Timer usage = meterRegistry.get("hikaricp.connections.usage").timer();
+        Timer acquire = meterRegistry.get("hikaricp.connections.acquire").timer();
+        long usageCountBefore = usage.count();
+        double usageMillisBefore = usage.totalTime(TimeUnit.MILLISECONDS);
+        double acquireMillisBefore = acquire.totalTime(TimeUnit.MILLISECONDS);
+
+        for (int t = 0; t < THREADS; t++) {
+            Account from = accounts.get(t * 2);
+            Account to = accounts.get(t * 2 + 1);
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    try {
+                        transferInOpenEntityManager(request(from, to), owner);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - began) / 1_000_000_000.0;
+
+        int transfers = THREADS * TRANSFERS_PER_THREAD;
+        long checkouts = usage.count() - usageCountBefore;
+        double heldMillis = usage.totalTime(TimeUnit.MILLISECONDS) - usageMillisBefore;
+        double waitedMillis = acquire.totalTime(TimeUnit.MILLISECONDS) - acquireMillisBefore;
+        System.out.printf("[%s] %d transfers, %d threads, pool 4: %.0f transfers/sec, connection held %.1f ms per transfer "
+                        + "(%.1f checkouts), waited %.1f ms per transfer for a connection, %d failures%n",
+                mode(), transfers, THREADS, transfers / seconds, heldMillis / transfers, (double) checkouts / transfers,
+                waitedMillis / transfers, failures.get());
+
+        assertThat(failures.get()).isZero();
+    }
+
+    // Same binding OpenEntityManagerInViewInterceptor does for a web request
+    private void transferInOpenEntityManager(TransferRequest request, User owner) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            transferService.transferMoney(request, owner);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            EntityManagerFactoryUtils.closeEntityManager(entityManager);
+        }
+    }
+
+    private List<Account> createAccounts(User owner, int count) {
+        String pinHash = passwordEncoder.encode(PIN);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            accounts.add(Account.builder()
+                    .user(owner)
+                    .accountNumber("CH" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase())
+                    .accountType(AccountType.CHECKING)
+                    .balance(new BigDecimal("1000.00"))
+                    .transactionPin(pinHash)
+                    .isActive(true)
+                    .build());
+        }
+        return accountRepository.saveAll(accounts);
+    }
+
+    private TransferRequest request(Account from, Account to) {
+        TransferRequest request = new TransferRequest();
+        request.setSenderAccountNumber(from.getAccountNumber());
+        request.setReceiverAccountNumber(to.getAccountNumber());
+        request.setAmount(new BigDecimal("1.00"));
+        request.setTransactionPin(PIN);
+        return request;
+    }
+}
@@ -0,0 +1,13 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+
+// Current configuration: connections go back to the pool after every transaction
+@PostgresIntegrationTest
+class ConnectionHoldTimeBenchmarkTest extends ConnectionHoldTimeBenchmark {
+
+    @Override
+    protected String mode() {
+        return "release-after-transaction";
+    }
+}
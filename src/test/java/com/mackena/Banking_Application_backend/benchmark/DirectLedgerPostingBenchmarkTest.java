@@ -0,0 +1,18 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+
+@PostgresIntegrationTest
+class DirectLedgerPostingBenchmarkTest extends LedgerPostingBenchmark {
+
+    @Override
+    protected String mode() {
+        return "DIRECT";
+    }
+
+    // One commit per posting
+    @Override
+    protected long commits(long postings) {
+        return postings;
+    }
+}
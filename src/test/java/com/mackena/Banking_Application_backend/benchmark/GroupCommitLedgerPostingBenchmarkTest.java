@@ -0,0 +1,23 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.service.ledger.GroupCommitLedgerWriter;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+@PostgresIntegrationTest
+@TestPropertySource(properties = "app.ledger.posting-mode=GROUP_COMMIT")
+class GroupCommitLedgerPostingBenchmarkTest extends LedgerPostingBenchmark {
+
+    @Autowired private GroupCommitLedgerWriter ledgerWriter;
+
+    @Override
+    protected String mode() {
+        return "GROUP_COMMIT";
+    }
+
+    @Override
+    protected long commits(long postings) {
+        return ledgerWriter.getCommittedBatches();
+    }
+}
@@ -0,0 +1,158 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.dtos.request.TransferRequest;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.service.TransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the same concurrent transfer loads against one ledger posting mode and reports postings/sec and
+ * database commits/sec, so the modes can be compared side by side: disjoint account pairs (commit cost)
+ * and many payers crediting one merchant account (hot row contention).
+ */
+abstract class LedgerPostingBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 100;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired private TransferService transferService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+
+    // BCrypt would dominate the measurement
+    @MockitoBean private PasswordEncoder passwordEncoder;
+
+    private User owner;
+
+    protected abstract String mode();
+
+    // Number of database commits the writer has issued so far for the given number of postings
+    protected abstract long commits(long postings);
+
+    @BeforeEach
+    void setUp() {
+        when(passwordEncoder.matches(any(), any())).thenReturn(true);
+
+        owner = userRepository.save(User.builder()
+                .email("ledger-bench-" + UUID.randomUUID() + "@example.com")
+                .password("unused")
+                .firstName("Bench")
+                .lastName("Owner")
+                .role(UserRole.USER)
+                .build());
+    }
+
+    @Test
+    void disjointTransfers() throws Exception {
+        List<Account> accounts = createAccounts(THREADS * 2);
+
+        // Every thread moves money back and forth within its own pair
+        run("disjoint", accounts, (thread, i) -> i % 2 == 0
+                ? new Account[]{accounts.get(thread * 2), accounts.get(thread * 2 + 1)}
+                : new Account[]{accounts.get(thread * 2 + 1), accounts.get(thread * 2)});
+    }
+
+    @Test
+    void hotReceiver() throws Exception {
+        List<Account> accounts = createAccounts(THREADS + 1);
+        Account merchant = accounts.get(THREADS);
+
+        // Every thread pays the same merchant account from its own account
+        run("hot-receiver", accounts, (thread, i) -> new Account[]{accounts.get(thread), merchant});
+    }
+
+    private void run(String scenario, List<Account> accounts, TransferSelector selector) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        long commitsBefore = commits(0);
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    Account[] pair = selector.select(thread, i);
+                    try {
+                        transferService.transferMoney(request(pair[0], pair[1]), owner);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - began) / 1_000_000_000.0;
+
+        long postings = (long) THREADS * TRANSFERS_PER_THREAD - failures.get();
+        long commits = commits(postings) - commitsBefore;
+        System.out.printf("[%s/%s] %d postings, %d threads: %.0f postings/sec, %.0f commits/sec (%.1f postings per commit), %d failures%n",
+                mode(), scenario, postings, THREADS, postings / seconds, commits / seconds,
+                (double) postings / commits, failures.get());
+
+        assertThat(failures.get()).isZero();
+        BigDecimal total = accountRepository.findAllById(accounts.stream().map(Account::getId).toList()).stream()
+                .map(Account::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo(OPENING_BALANCE.multiply(BigDecimal.valueOf(accounts.size())));
+    }
+
+    private List<Account> createAccounts(int count) {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            accounts.add(Account.builder()
+                    .user(owner)
+                    .accountNumber("LB" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase())
+                    .accountType(AccountType.CHECKING)
+                    .balance(OPENING_BALANCE)
+                    .transactionPin("unused")
+                    .isActive(true)
+                    .build());
+        }
+        return accountRepository.saveAll(accounts);
+    }
+
+    private TransferRequest request(Account from, Account to) {
+        TransferRequest request = new TransferRequest();
+        request.setSenderAccountNumber(from.getAccountNumber());
+        request.setReceiverAccountNumber(to.getAccountNumber());
+        request.setAmount(AMOUNT);
+        request.setTransactionPin("1234");
+        return request;
+    }
+
+    @FunctionalInterface
+    private interface TransferSelector {
+        Account[] select(int thread, int iteration);
+    }
+}
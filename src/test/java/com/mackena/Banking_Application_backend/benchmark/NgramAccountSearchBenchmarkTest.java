@@ -0,0 +1,31 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.service.search.NgramAccountSearchIndex;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+// Searches the in-process trigram index, built once the dataset is seeded
+@PostgresIntegrationTest
+@TestPropertySource(properties = {
+        "app.account-search.engine=NGRAM",
+        "app.account-search.ngram.refresh-interval-ms=3600000"
+})
+class NgramAccountSearchBenchmarkTest extends AccountSearchBenchmark {
+
+    @Autowired private NgramAccountSearchIndex searchIndex;
+
+    @Override
+    protected String mode() {
+        return "NGRAM";
+    }
+
+    @Override
+    protected void prepare() {
+        long started = System.nanoTime();
+        searchIndex.refresh();
+        System.out.printf("[%s] index built in %.1f s, heap in use %d MB%n", mode(),
+                (System.nanoTime() - started) / 1e9,
+                (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / (1024 * 1024));
+    }
+}
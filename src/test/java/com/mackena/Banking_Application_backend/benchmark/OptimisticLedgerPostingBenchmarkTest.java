@@ -0,0 +1,21 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.springframework.test.context.TestPropertySource;
+
+// Same loads as DirectLedgerPostingBenchmarkTest (pessimistic), with version-checked updates instead
+@PostgresIntegrationTest
+@TestPropertySource(properties = "app.ledger.concurrency=OPTIMISTIC")
+class OptimisticLedgerPostingBenchmarkTest extends LedgerPostingBenchmark {
+
+    @Override
+    protected String mode() {
+        return "DIRECT+OPTIMISTIC";
+    }
+
+    // One commit per posting
+    @Override
+    protected long commits(long postings) {
+        return postings;
+    }
+}
@@ -0,0 +1,45 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import com.mackena.Banking_Application_backend.util.generator.ReferenceNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the Snowflake reference generator with the per-service UUID substring it replaced,
+ * single-threaded and with 8 threads sharing one generator. Run through {@link ReferenceNumberGeneratorBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceNumberGeneratorBenchmark {
+
+    private final ReferenceNumberGenerator generator = new ReferenceNumberGenerator(1);
+
+    @Benchmark
+    public String snowflake() {
+        return generator.generate(TransactionType.TRANSFER);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeContended() {
+        return generator.generate(TransactionType.TRANSFER);
+    }
+
+    @Benchmark
+    public String uuidSubstring() {
+        return "TXN" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidSubstringContended() {
+        return "TXN" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    }
+}
@@ -0,0 +1,33 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link ReferenceNumberGeneratorBenchmark}. Skipped by default; run it with
+ * {@code mvn test -Djmh=true -Dtest=ReferenceNumberGeneratorBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "jmh", matches = "true")
+class ReferenceNumberGeneratorBenchmarkTest {
+
+    @Test
+    void referenceGeneration() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(ReferenceNumberGeneratorBenchmark.class.getName())
+                // Surefire's classpath is not visible to a forked JVM, so JMH measures in this one
+                .forks(0)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertThat(results).hasSize(4);
+    }
+}
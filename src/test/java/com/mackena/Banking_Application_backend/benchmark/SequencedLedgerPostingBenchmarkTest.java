@@ -0,0 +1,23 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.service.ledger.SequencedLedgerWriter;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+@PostgresIntegrationTest
+@TestPropertySource(properties = "app.ledger.posting-mode=SEQUENCED")
+class SequencedLedgerPostingBenchmarkTest extends LedgerPostingBenchmark {
+
+    @Autowired private SequencedLedgerWriter ledgerWriter;
+
+    @Override
+    protected String mode() {
+        return "SEQUENCED";
+    }
+
+    @Override
+    protected long commits(long postings) {
+        return ledgerWriter.getCommittedBatches();
+    }
+}
@@ -0,0 +1,15 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.springframework.test.context.TestPropertySource;
+
+// Previous behaviour for comparison: the EntityManager keeps its connection until it is closed
+@PostgresIntegrationTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.connection.handling_mode=DELAYED_ACQUISITION_AND_HOLD")
+class SessionHeldConnectionHoldTimeBenchmarkTest extends ConnectionHoldTimeBenchmark {
+
+    @Override
+    protected String mode() {
+        return "hold-until-close";
+    }
+}
@@ -0,0 +1,176 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.dtos.request.TransferRequest;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.service.TransferService;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Multi-threaded transfer stress run. Reports transfers/sec and p99 latency for a hot pair of accounts
+ * (every thread moves money back and forth between the same two rows) and for cold, disjoint pairs,
+ * then checks that no money was created or lost.
+ */
+@PostgresIntegrationTest
+class TransferContentionBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 100;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired private TransferService transferService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+
+    // BCrypt would dominate the measurement, the benchmark is about row contention
+    @MockitoBean private PasswordEncoder passwordEncoder;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        when(passwordEncoder.matches(any(), any())).thenReturn(true);
+
+        owner = userRepository.save(User.builder()
+                .email("bench-" + UUID.randomUUID() + "@example.com")
+                .password("unused")
+                .firstName("Bench")
+                .lastName("Owner")
+                .role(UserRole.USER)
+                .build());
+    }
+
+    @Test
+    void hotAccounts() throws Exception {
+        List<Account> accounts = createAccounts(2);
+
+        BenchmarkResult result = run("hot", accounts, thread -> {
+            Account from = accounts.get(thread % 2);
+            Account to = accounts.get((thread + 1) % 2);
+            return new Account[]{from, to};
+        });
+
+        assertThat(result.failures()).isZero();
+        assertMoneyConserved(accounts);
+    }
+
+    @Test
+    void coldAccounts() throws Exception {
+        List<Account> accounts = createAccounts(THREADS * 2);
+
+        BenchmarkResult result = run("cold", accounts,
+                thread -> new Account[]{accounts.get(thread * 2), accounts.get(thread * 2 + 1)});
+
+        assertThat(result.failures()).isZero();
+        assertMoneyConserved(accounts);
+    }
+
+    private BenchmarkResult run(String scenario, List<Account> accounts, PairSelector selector) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        long[][] latencies = new long[THREADS][TRANSFERS_PER_THREAD];
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                Account[] pair = selector.select(thread);
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    // Alternate direction so opposite transfers on the same rows overlap
+                    Account from = i % 2 == 0 ? pair[0] : pair[1];
+                    Account to = i % 2 == 0 ? pair[1] : pair[0];
+                    long began = System.nanoTime();
+                    try {
+                        transferService.transferMoney(request(from, to), owner);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[thread][i] = System.nanoTime() - began;
+                }
+                return null;
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        long elapsed = System.nanoTime() - began;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        int total = all.length;
+        double perSecond = total / (elapsed / 1_000_000_000.0);
+        double p99Millis = all[(int) Math.ceil(total * 0.99) - 1] / 1_000_000.0;
+
+        System.out.printf("[%s] %d transfers over %d accounts, %d threads: %.0f transfers/sec, p99 %.2f ms, %d failures%n",
+                scenario, total, accounts.size(), THREADS, perSecond, p99Millis, failures.get());
+
+        return new BenchmarkResult(perSecond, p99Millis, failures.get());
+    }
+
+    private List<Account> createAccounts(int count) {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            accounts.add(Account.builder()
+                    .user(owner)
+                    .accountNumber("BN" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase())
+                    .accountType(AccountType.CHECKING)
+                    .balance(OPENING_BALANCE)
+                    .transactionPin("unused")
+                    .isActive(true)
+                    .build());
+        }
+        return accountRepository.saveAll(accounts);
+    }
+
+    private TransferRequest request(Account from, Account to) {
+        TransferRequest request = new TransferRequest();
+        request.setSenderAccountNumber(from.getAccountNumber());
+        request.setReceiverAccountNumber(to.getAccountNumber());
+        request.setAmount(AMOUNT);
+        request.setTransactionPin("1234");
+        return request;
+    }
+
+    private void assertMoneyConserved(List<Account> accounts) {
+        BigDecimal expected = OPENING_BALANCE.multiply(BigDecimal.valueOf(accounts.size()));
+        BigDecimal actual = accountRepository.findAllById(accounts.stream().map(Account::getId).toList()).stream()
+                .map(Account::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(actual).isEqualByComparingTo(expected);
+    }
+
+    @FunctionalInterface
+    private interface PairSelector {
+        Account[] select(int thread);
+    }
+
+    private record BenchmarkResult(double transfersPerSecond, double p99Millis, int failures) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.mackena.Banking_Application_backend.benchmark;
+
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.springframework.test.context.TestPropertySource;
+
+// Searches PostgreSQL through the pg_trgm GIN indexes
+@PostgresIntegrationTest
+@TestPropertySource(properties = "app.account-search.engine=TRIGRAM")
+class TrigramAccountSearchBenchmarkTest extends AccountSearchBenchmark {
+
+    @Override
+    protected String mode() {
+        return "TRIGRAM";
+    }
+}
@@ -0,0 +1,101 @@
+package com.mackena.Banking_Application_backend.controller;
+
+import com.mackena.Banking_Application_backend.dtos.response.UserListResponse;
+import com.mackena.Banking_Application_backend.dtos.response.UserResponse;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import com.mackena.Banking_Application_backend.support.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lists users through both admin listing endpoints, newest first so the users seeded here (with several
+ * accounts each) fill the page, and counts the SELECTs: a page id query, its count and one fetch of the users
+ * with their accounts, however many users the page holds. Each listed user must carry all of its accounts.
+ */
+@PostgresIntegrationTest
+@Import(SqlStatementRecorder.class)
+@WithMockUser(roles = "ADMIN")
+class UserListingStatementCountTest {
+
+    private static final int USERS = 12;
+    private static final int ACCOUNTS_PER_USER = 3;
+
+    @Autowired private AdminUserController adminUserController;
+    @Autowired private UserController userController;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private SqlStatementRecorder sqlStatementRecorder;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < USERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .email("listing-" + tag + "-" + i + "@example.com")
+                    .password("unused")
+                    .firstName("Listing")
+                    .lastName("User" + i)
+                    .role(UserRole.USER)
+                    .build());
+            List<Account> accounts = new ArrayList<>();
+            for (int j = 0; j < ACCOUNTS_PER_USER; j++) {
+                accounts.add(Account.builder()
+                        .user(user)
+                        .accountNumber("LS" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase())
+                        .accountType(AccountType.SAVINGS)
+                        .balance(new BigDecimal("10.00"))
+                        .isActive(true)
+                        .build());
+            }
+            accountRepository.saveAll(accounts);
+        }
+    }
+
+    private void assertHasAllAccounts(UserResponse user) {
+        Integer accounts = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM accounts WHERE user_id = ?", Integer.class, user.getId());
+        assertThat(user.getAccounts()).as(user.getEmail()).hasSize(accounts);
+    }
+
+    @Test
+    void testAdminListing_readsAccountsOfWholePageInOneQuery() {
+        for (int size : new int[]{2, USERS}) {
+            sqlStatementRecorder.clear();
+            Page<UserResponse> page = adminUserController.getAllUsers(0, size, "createdAt", "DESC").getBody();
+
+            assertThat(sqlStatementRecorder.executionsStartingWith("select")).as("page of %d", size).hasSize(3);
+            assertThat(page.getContent()).hasSize(size).allSatisfy(this::assertHasAllAccounts);
+        }
+    }
+
+    @Test
+    void testUserListing_readsAccountsOfWholePageInOneQuery() {
+        for (int size : new int[]{2, USERS}) {
+            sqlStatementRecorder.clear();
+            UserListResponse response = userController.getAllUsers(0, size, "createdAt", "desc").getBody();
+
+            assertThat(sqlStatementRecorder.executionsStartingWith("select")).as("page of %d", size).hasSize(3);
+            assertThat(response.getUsers()).hasSize(size).allSatisfy(this::assertHasAllAccounts);
+            assertThat(response.getTotalElements()).isGreaterThanOrEqualTo(USERS);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.mackena.Banking_Application_backend.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import com.mackena.Banking_Application_backend.repository.specification.TransactionCursor;
+import com.mackena.Banking_Application_backend.repository.specification.TransactionHistoryFilter;
+import com.mackena.Banking_Application_backend.repository.specification.TransactionSpecifications;
+import com.mackena.Banking_Application_backend.service.TransactionPartitionService;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import com.mackena.Banking_Application_backend.support.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the SQL of every TransactionRepository query against PostgreSQL seeded with synthetic
+ * history (4,000 accounts of 50 transactions each, plus one busy account with 5,000), and fails when a plan
+ * reads transactions with a sequential scan or sorts rows instead of reading them in index order. Queries
+ * are checked against the busy account: for a short history the planner rightly prefers sorting a few rows.
+ * Date-range queries must also be pruned to the monthly partitions their range covers. One account in fifty is
+ * seeded below the low-balance threshold, whose listing must read the partial index on active balances, and
+ * account search must find accounts by number or owner email through the trigram indexes (30,000 more users
+ * without accounts make the users table large enough for them).
+ */
+@PostgresIntegrationTest
+@Import(SqlStatementRecorder.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionRepositoryQueryPlanTest {
+
+    private static final int USERS = 2000;
+    private static final int ACCOUNTS_PER_USER = 2;
+    private static final int USERS_WITHOUT_ACCOUNTS = 30000;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 50;
+    private static final int TRANSACTIONS_OF_BUSY_ACCOUNT = 5000;
+    private static final int SMALL_PARTITION_PAGES = 8;
+
+    private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private SqlStatementRecorder sqlStatementRecorder;
+    @Autowired private TransactionPartitionService transactionPartitionService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Long userId;
+    private Long accountId;
+    private String referenceNumber;
+    private String transferReference;
+
+    @BeforeAll
+    void seed() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        transactionPartitionService.createPartitions(YearMonth.of(2020, 1), YearMonth.of(2024, 12));
+
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, password, first_name, last_name, role, is_enabled, created_at)
+                SELECT id, 'plan-' || id || '@example.com', 'unused', 'Plan', ?, 'USER', true, now()
+                FROM (SELECT nextval('users_seq') AS id FROM generate_series(1, ?)) ids
+                """, tag, USERS);
+        jdbcTemplate.update("""
+                INSERT INTO accounts (id, user_id, account_number, account_type, balance, is_active, created_at, version)
+                SELECT id, user_id, 'PLN' || id, 'SAVINGS', 1000.00, true, now(), 0
+                FROM (SELECT nextval('accounts_seq') AS id, u.id AS user_id
+                      FROM users u CROSS JOIN generate_series(1, ?)
+                      WHERE u.last_name = ?) ids
+                """, ACCOUNTS_PER_USER, tag);
+        // Users without accounts, so scanning users costs more than reading its trigram indexes
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, password, first_name, last_name, role, is_enabled, created_at)
+                SELECT id, 'plan-search-' || id || '@example.com', 'unused', 'Search', 'Only', 'USER', true, now()
+                FROM (SELECT nextval('users_seq') AS id FROM generate_series(1, ?)) ids
+                """, USERS_WITHOUT_ACCOUNTS);
+        userId = jdbcTemplate.queryForObject(
+                "SELECT min(id) FROM users WHERE last_name = ?", Long.class, tag);
+        accountId = jdbcTemplate.queryForObject(
+                "SELECT min(id) FROM accounts WHERE user_id = ?", Long.class, userId);
+
+        // Types and directions rotate, and created_at spreads each account's rows evenly over four years
+        String insertTransactions = """
+                INSERT INTO transactions (id, account_id, user_id, amount, transaction_type, transaction_direction,
+                                          description, reference_number, transfer_reference, status,
+                                          balance_after, created_at)
+                SELECT id, account_id, user_id, 10 + n % 500,
+                       (ARRAY['WITHDRAW', 'DEPOSIT', 'TRANSFER'])[1 + n % 3],
+                       (ARRAY['DEBIT', 'CREDIT'])[1 + n % 2],
+                       'Synthetic', 'PLN' || id,
+                       CASE WHEN n % 3 = 2 THEN 'PLX' || id END,
+                       'COMPLETED', 1000.00,
+                       TIMESTAMP '2020-01-01' + n * INTERVAL '1460 days' / ? + (account_id % 60) * INTERVAL '1 minute'
+                FROM (SELECT nextval('transactions_seq') AS id, a.id AS account_id, u.id AS user_id, n
+                      FROM accounts a JOIN users u ON u.id = a.user_id CROSS JOIN generate_series(1, ?) n
+                      WHERE u.last_name = ? AND a.id :busy ?) ids
+                """;
+        jdbcTemplate.update(insertTransactions.replace(":busy", "<>"),
+                TRANSACTIONS_PER_ACCOUNT, TRANSACTIONS_PER_ACCOUNT, tag, accountId);
+        jdbcTemplate.update(insertTransactions.replace(":busy", "="),
+                TRANSACTIONS_OF_BUSY_ACCOUNT, TRANSACTIONS_OF_BUSY_ACCOUNT, tag, accountId);
+        // One account in fifty is low on funds
+        jdbcTemplate.update("""
+                UPDATE accounts SET balance = id % 100
+                WHERE id % 50 = 0 AND user_id IN (SELECT id FROM users WHERE last_name = ?)
+                """, tag);
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+        jdbcTemplate.execute("VACUUM ANALYZE accounts");
+        jdbcTemplate.execute("VACUUM ANALYZE transactions");
+        referenceNumber = jdbcTemplate.queryForObject(
+                "SELECT min(reference_number) FROM transactions WHERE account_id = ?", String.class, accountId);
+        transferReference = jdbcTemplate.queryForObject(
+                "SELECT min(transfer_reference) FROM transactions WHERE account_id = ?", String.class, accountId);
+    }
+
+    @Test
+    void testFindByReferenceNumber_usesIndex() {
+        assertIndexOrdered(executionsOf(() -> transactionRepository.findByReferenceNumber(referenceNumber)));
+    }
+
+    @Test
+    void testFindByTransferReference_usesIndex() {
+        assertIndexOrdered(executionsOf(() -> transactionRepository.findByTransferReference(transferReference)));
+    }
+
+    @Test
+    void testCountTransactionsByAccountAndDateRange_usesIndex() {
+        assertIndexOrdered(executionsOf(() ->
+                transactionRepository.countTransactionsByAccountAndDateRange(accountId, START, END)));
+    }
+
+    @Test
+    void testFindByTransactionType_readsInIndexOrder() {
+        List<SqlStatementRecorder.Execution> executions = executionsOf(() ->
+                transactionRepository.findByTransactionType(TransactionType.DEPOSIT, PageRequest.of(0, 20)));
+
+        // The page's COUNT visits a third of the table, so only the page itself is checked
+        assertIndexOrdered(withoutCounts(executions));
+    }
+
+    @Test
+    void testFindAllByOrderByCreatedAtDesc_readsInIndexOrder() {
+        List<SqlStatementRecorder.Execution> executions = executionsOf(() ->
+                transactionRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, 20)));
+
+        // Counting the whole table reads all of it whichever path is chosen
+        assertIndexOrdered(withoutCounts(executions));
+    }
+
+    @Test
+    void testAccountHistory_readsInIndexOrder() {
+        assertIndexOrdered(historyPage(filter(accountId, null, null, null, null)));
+    }
+
+    @Test
+    void testAccountHistory_byType_readsInIndexOrder() {
+        assertIndexOrdered(historyPage(filter(accountId, null, null, null, TransactionType.TRANSFER)));
+    }
+
+    @Test
+    void testAccountHistory_byDateRange_readsInIndexOrder() {
+        assertIndexOrdered(historyPage(filter(accountId, null, START, END, null)));
+    }
+
+    @Test
+    void testAccountHistory_byTypeAndDirection_readsInIndexOrder() {
+        TransactionHistoryFilter filter = new TransactionHistoryFilter(accountId, null, null, null,
+                TransactionType.WITHDRAW, TransactionDirection.DEBIT, BigDecimal.ONE, null);
+
+        assertIndexOrdered(historyPage(filter));
+    }
+
+    @Test
+    void testAccountHistory_afterCursor_readsInIndexOrder() {
+        Specification<Transaction> specification = filter(accountId, null, null, null, null).toSpecification()
+                .and(TransactionSpecifications.after(new TransactionCursor(END, Long.MAX_VALUE), true));
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
+        assertIndexOrdered(executionsOf(() -> transactionRepository.findHistoryRows(specification, sort, 0, 21)));
+    }
+
+    @Test
+    void testAccountHistory_countUsesIndex() {
+        Specification<Transaction> specification = filter(accountId, null, null, null, null).toSpecification();
+
+        assertIndexOrdered(executionsOf(() -> transactionRepository.count(specification)));
+    }
+
+    @Test
+    void testCountTransactionsByAccountAndDateRange_readsOnlyPartitionsInRange() {
+        List<SqlStatementRecorder.Execution> executions = executionsOf(() ->
+                transactionRepository.countTransactionsByAccountAndDateRange(accountId, START, END));
+
+        assertThat(scannedPartitions(executions)).isEqualTo(partitionsBetween(START, END));
+    }
+
+    @Test
+    void testAccountHistory_byDateRange_readsOnlyPartitionsInRange() {
+        List<SqlStatementRecorder.Execution> executions = historyPage(filter(accountId, null, START, END, null));
+
+        assertThat(scannedPartitions(executions)).isEqualTo(partitionsBetween(START, END));
+    }
+
+    @Test
+    void testAllHistory_byDateRange_readsOnlyPartitionsInRange() {
+        List<SqlStatementRecorder.Execution> executions = historyPage(filter(null, null, START, END, null));
+
+        assertThat(scannedPartitions(executions)).isEqualTo(partitionsBetween(START, END));
+    }
+
+    @Test
+    void testFindLastBalanceBetween_readsOnlyPartitionsInRange() {
+        List<SqlStatementRecorder.Execution> executions = executionsOf(() ->
+                transactionRepository.findLastBalanceBetween(accountId, START, END));
+
+        // The end is exclusive, so the month starting at END is not read
+        assertThat(scannedPartitions(executions)).isEqualTo(partitionsBetween(START, END.minusSeconds(1)));
+        assertIndexOrdered(executions);
+    }
+
+    @Test
+    void testStreamStatementRows_readsOnlyPartitionsInRange() {
+        List<SqlStatementRecorder.Execution> executions = executionsOf(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    try (Stream<?> rows = transactionRepository.streamStatementRows(accountId, START, END)) {
+                        rows.findFirst();
+                    }
+                }));
+
+        assertThat(scannedPartitions(executions)).isEqualTo(partitionsBetween(START, END));
+    }
+
+    @Test
+    void testAllHistory_readsInIndexOrder() {
+        assertIndexOrdered(historyPage(filter(null, null, null, null, null)));
+        assertIndexOrdered(historyPage(filter(null, null, null, null, TransactionType.DEPOSIT)));
+    }
+
+    @Test
+    void testUserHistory_readsInIndexOrder() {
+        assertIndexOrdered(historyPage(filter(null, userId, null, null, null)));
+    }
+
+    @Test
+    void testUserHistory_countUsesIndex() {
+        Specification<Transaction> specification = filter(null, userId, null, null, null).toSpecification();
+
+        assertIndexOrdered(executionsOf(() -> transactionRepository.count(specification)));
+    }
+
+    @Test
+    void testLowBalanceAccounts_readInIndexOrder() {
+        BigDecimal threshold = new BigDecimal("100");
+
+        assertIndexOrdered(executionsOf(() ->
+                accountRepository.findLowBalanceRows(threshold, PageRequest.of(1, 20))));
+        assertIndexOrdered(executionsOf(() -> accountRepository.getLowBalanceTotals(threshold)));
+    }
+
+    @Test
+    void testAccountSearch_readsTrigramIndexes() {
+        // The newest account's number has the most digits, so no other number contains it
+        String accountTerm = "pln" + jdbcTemplate.queryForObject(
+                "SELECT max(id) FROM accounts WHERE account_number LIKE 'PLN%'", Long.class);
+        String emailTerm = "plan-" + userId + "@";
+
+        assertIndexed(executionsOf(() -> accountRepository.searchByTrigram(accountTerm, "%" + accountTerm + "%", 0, 20)));
+        assertIndexed(executionsOf(() -> accountRepository.countByTrigram("%" + accountTerm + "%")));
+        assertIndexed(executionsOf(() -> accountRepository.searchByTrigram(emailTerm, "%" + emailTerm + "%", 0, 20)));
+    }
+
+    @Test
+    void testValidateAccounts_readsAccountNumberIndex() {
+        // A table this small is rightly read whole for a few dozen numbers; a chunk against millions of
+        // accounts probes the index the same way
+        List<String> accountNumbers = jdbcTemplate.queryForList(
+                "SELECT account_number FROM accounts WHERE account_number LIKE 'PLN%' ORDER BY id DESC LIMIT 14",
+                String.class);
+        List<String> requested = new ArrayList<>(accountNumbers);
+        requested.add("PLN-MISSING");
+
+        assertIndexed(executionsOf(() -> assertThat(accountRepository.findStatusByAccountNumberIn(requested))
+                .hasSize(accountNumbers.size())));
+    }
+
+    private TransactionHistoryFilter filter(Long accountId, Long userId, LocalDateTime startDate,
+                                            LocalDateTime endDate, TransactionType transactionType) {
+        return new TransactionHistoryFilter(accountId, userId, startDate, endDate, transactionType, null, null, null);
+    }
+
+    private List<SqlStatementRecorder.Execution> historyPage(TransactionHistoryFilter filter) {
+        return executionsOf(() ->
+                transactionRepository.findHistoryRows(filter.toSpecification(), NEWEST_FIRST, 40, 21));
+    }
+
+    private List<SqlStatementRecorder.Execution> executionsOf(Runnable query) {
+        sqlStatementRecorder.clear();
+        query.run();
+        // Queries written with a CTE start with WITH
+        List<SqlStatementRecorder.Execution> executions = Stream.concat(
+                sqlStatementRecorder.executionsStartingWith("select").stream(),
+                sqlStatementRecorder.executionsStartingWith("with").stream()).toList();
+        assertThat(executions).isNotEmpty();
+        return executions;
+    }
+
+    private List<SqlStatementRecorder.Execution> withoutCounts(List<SqlStatementRecorder.Execution> executions) {
+        return executions.stream()
+                .filter(execution -> !execution.sql().startsWith("select count"))
+                .toList();
+    }
+
+    private void assertIndexOrdered(List<SqlStatementRecorder.Execution> executions) {
+        for (SqlStatementRecorder.Execution execution : executions) {
+            assertThat(nodeTypes(execution)).as(execution.sql())
+                    .doesNotContain("Seq Scan", "Sort", "Incremental Sort");
+        }
+    }
+
+    // For queries that rank their matches: sorting the few rows an index found is expected
+    private void assertIndexed(List<SqlStatementRecorder.Execution> executions) {
+        for (SqlStatementRecorder.Execution execution : executions) {
+            assertThat(nodeTypes(execution)).as(execution.sql()).doesNotContain("Seq Scan");
+        }
+    }
+
+    // Partitions of a few pages (the empty months created ahead) are rightly read whole
+    private List<String> nodeTypes(SqlStatementRecorder.Execution execution) {
+        return planNodes(execution).stream()
+                .filter(node -> !node.get("Node Type").asText().equals("Seq Scan")
+                        || relationPages(node.get("Relation Name").asText()) >= SMALL_PARTITION_PAGES)
+                .map(node -> node.get("Node Type").asText())
+                .toList();
+    }
+
+    private int relationPages(String relation) {
+        return jdbcTemplate.queryForObject("SELECT relpages FROM pg_class WHERE relname = ?", Integer.class, relation);
+    }
+
+    private Set<String> partitionsBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        Set<String> partitions = new TreeSet<>();
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            partitions.add(String.format("transactions_y%04dm%02d", month.getYear(), month.getMonthValue()));
+        }
+        return partitions;
+    }
+
+    // Transactions partitions the plans read
+    private Set<String> scannedPartitions(List<SqlStatementRecorder.Execution> executions) {
+        Set<String> partitions = new TreeSet<>();
+        for (SqlStatementRecorder.Execution execution : executions) {
+            planNodes(execution).stream()
+                    .filter(node -> node.has("Relation Name"))
+                    .map(node -> node.get("Relation Name").asText())
+                    .filter(relation -> relation.startsWith("transactions_"))
+                    .forEach(partitions::add);
+        }
+        return partitions;
+    }
+
+    // Nodes of the statement's plan, run with the values it was executed with
+    private List<JsonNode> planNodes(SqlStatementRecorder.Execution execution) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + execution.sql(), String.class,
+                execution.parameters().toArray());
+        try {
+            List<JsonNode> nodes = new ArrayList<>();
+            collectNodes(objectMapper.readTree(plan).get(0).get("Plan"), nodes);
+            return nodes;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + plan, e);
+        }
+    }
+
+    private void collectNodes(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        if (node.has("Plans")) {
+            for (JsonNode child : node.get("Plans")) {
+                collectNodes(child, nodes);
+            }
+        }
+    }
+}
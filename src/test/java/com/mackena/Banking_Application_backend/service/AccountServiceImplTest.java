@@ -5,19 +5,29 @@ import com.mackena.Banking_Application_backend.dtos.request.CreateAccountRequest
 import com.mackena.Banking_Application_backend.dtos.response.*;
 import com.mackena.Banking_Application_backend.exceptions.*;
 import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.SystemAggregates;
 import com.mackena.Banking_Application_backend.models.entity.User;
 import com.mackena.Banking_Application_backend.models.enums.AccountType;
 import com.mackena.Banking_Application_backend.repository.AccountRepository;
 import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.repository.projection.AccountSearchRow;
+import com.mackena.Banking_Application_backend.repository.projection.AccountStatusRow;
+import com.mackena.Banking_Application_backend.repository.projection.LowBalanceAccountRow;
+import com.mackena.Banking_Application_backend.repository.projection.LowBalanceTotals;
 import com.mackena.Banking_Application_backend.service.impl.AccountServiceImpl;
+import com.mackena.Banking_Application_backend.service.search.AccountSearchHits;
+import com.mackena.Banking_Application_backend.service.search.AccountSearchIndex;
 import com.mackena.Banking_Application_backend.util.converter.EntityConverter;
 import com.mackena.Banking_Application_backend.util.generator.AccountNumberGenerator;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -36,10 +46,15 @@ class AccountServiceImplTest {
     @Mock private UserRepository userRepository;
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private AccountNumberGenerator accountNumberGenerator;
+    @Mock private SystemAggregateService systemAggregateService;
+    @Mock private LowBalanceWatchlistService lowBalanceWatchlistService;
+    @Mock private AccountSearchIndex accountSearchIndex;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(accountService, "maxValidationBatchSize", 5);
+        ReflectionTestUtils.setField(accountService, "validationChunkSize", 2);
     }
 
     private User testUser() {
@@ -105,17 +120,35 @@ class AccountServiceImplTest {
 
     @Test
     void testGetLowBalanceAccounts_success() {
-        Account acc = testAccount(testUser());
-        acc.setBalance(BigDecimal.ONE);
-
-        when(accountRepository.findAccountsWithLowBalance(BigDecimal.TEN)).thenReturn(List.of(acc));
-        when(accountConverter.toAccountResponse(any())).thenReturn(new AccountResponse());
-
-        LowBalanceAccountsResponse response = accountService.getLowBalanceAccounts(BigDecimal.TEN);
+        LowBalanceAccountRow row = new LowBalanceAccountRow(1L, "ACC123", AccountType.SAVINGS, BigDecimal.ONE,
+                1L, LocalDateTime.now());
+        LowBalanceTotals totals = mock(LowBalanceTotals.class);
+        when(totals.getAccounts()).thenReturn(21L);
+        when(totals.getTotalBalance()).thenReturn(new BigDecimal("42.00"));
+
+        when(accountRepository.findLowBalanceRows(BigDecimal.TEN, PageRequest.of(1, 20))).thenReturn(List.of(row));
+        when(accountRepository.getLowBalanceTotals(BigDecimal.TEN)).thenReturn(totals);
+
+        LowBalanceAccountsResponse response = accountService.getLowBalanceAccounts(BigDecimal.TEN, 1, 20);
+
+        assertThat(response.getAccounts()).extracting(AccountSummaryResponse::getAccountNumber).containsExactly("ACC123");
+        assertThat(response.getTotalLowBalance()).isEqualByComparingTo("42.00");
+        assertThat(response.getTotalLowBalanceAccounts()).isEqualTo(21);
+        assertThat(response.getTotalPages()).isEqualTo(2);
+        assertThat(response.isHasNext()).isFalse();
+        assertThat(response.isFromWatchlist()).isFalse();
+        verify(accountRepository, never()).findAccountsWithLowBalance(any());
+    }
 
-        assertThat(response).isNotNull();
-        assertThat(response.getTotalLowBalance()).isEqualByComparingTo(BigDecimal.ONE);
-        assertThat(response.getTotalLowBalanceAccounts()).isEqualTo(1);
+    @Test
+    void testGetLowBalanceAccounts_rejectsNegativePageAndEmptySize() {
+        assertThatThrownBy(() -> accountService.getLowBalanceAccounts(BigDecimal.TEN, -1, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Page");
+        assertThatThrownBy(() -> accountService.getLowBalanceAccounts(BigDecimal.TEN, 0, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("size");
+        verifyNoInteractions(lowBalanceWatchlistService, accountRepository);
     }
 
     @Test
@@ -143,6 +176,7 @@ class AccountServiceImplTest {
         assertThat(response).isNotNull();
         assertThat(response.getAccountNumber()).isEqualTo("ACC999");
         assertThat(response.getBalance()).isEqualByComparingTo("500");
+        verify(systemAggregateService).recordAccountOpened(BigDecimal.valueOf(500), true);
     }
 
     @Test
@@ -193,14 +227,23 @@ class AccountServiceImplTest {
 
     @Test
     void testGetTotalSystemBalance() {
-        when(accountRepository.getTotalSystemBalance()).thenReturn(BigDecimal.valueOf(1000));
-        when(accountRepository.countActiveAccounts()).thenReturn(2L);
-        when(accountRepository.countUsersWithActiveAccounts()).thenReturn(1L);
+        when(systemAggregateService.current()).thenReturn(aggregates(100_000, 3, 2, 1));
 
         TotalBalanceResponse response = accountService.getTotalSystemBalance();
 
         assertThat(response.getTotalSystemBalance()).isEqualByComparingTo("1000");
         assertThat(response.getAverageBalancePerAccount()).isEqualByComparingTo("500");
+        assertThat(response.getTotalUser()).isEqualTo(1);
+        verifyNoInteractions(accountRepository);
+    }
+
+    private SystemAggregates aggregates(long balanceMinor, long accounts, long activeAccounts, long users) {
+        return SystemAggregates.builder()
+                .totalBalanceMinor(balanceMinor)
+                .totalAccounts(accounts)
+                .activeAccounts(activeAccounts)
+                .usersWithActiveAccounts(users)
+                .build();
     }
 
     @Test
@@ -216,28 +259,82 @@ class AccountServiceImplTest {
     }
 
     @Test
-    void testSearchAccounts() {
-        Account acc = testAccount(testUser());
-        when(accountRepository.findByAccountNumberContainingIgnoreCaseOrUser_FirstNameContainingIgnoreCaseOrUser_LastNameContainingIgnoreCaseOrUser_EmailContainingIgnoreCase(
-                anyString(), anyString(), anyString(), anyString(), any()))
-                .thenReturn(List.of(acc));
+    void testSearchAccounts_keepsIndexOrderAndReadsDetailsForPageOnly() {
+        when(accountSearchIndex.search("smith", 10, 10)).thenReturn(new AccountSearchHits(List.of(
+                new AccountSearchHits.Hit(7L, 1.0),
+                new AccountSearchHits.Hit(3L, 0.5)), 12));
+        when(accountRepository.findSearchRowsByIds(List.of(7L, 3L))).thenReturn(List.of(
+                new AccountSearchRow(3L, "ACC3", AccountType.SAVINGS, BigDecimal.ONE, true, 1L, "Ann", "Smithers", "ann@example.com"),
+                new AccountSearchRow(7L, "ACC7", AccountType.CHECKING, BigDecimal.TEN, true, 2L, "Bob", "Smith", "bob@example.com")));
+
+        AccountSearchResponse response = accountService.searchAccounts("  smith ", 1, 10);
+
+        assertThat(response.getResults()).extracting(AccountSearchResult::getAccountNumber).containsExactly("ACC7", "ACC3");
+        assertThat(response.getResults().get(0).getOwnerName()).isEqualTo("Bob Smith");
+        assertThat(response.getTotalResults()).isEqualTo(12);
+        assertThat(response.getTotalPages()).isEqualTo(2);
+        assertThat(response.isHasNext()).isFalse();
+    }
 
-        List<Account> results = accountService.searchAccounts("ACC", 0, 10);
+    @Test
+    void testSearchAccounts_rejectsTermsTooShortForTheIndex() {
+        assertThatThrownBy(() -> accountService.searchAccounts(" ab ", 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(accountSearchIndex);
+    }
 
-        assertThat(results).hasSize(1);
-        verify(accountRepository).findByAccountNumberContainingIgnoreCaseOrUser_FirstNameContainingIgnoreCaseOrUser_LastNameContainingIgnoreCaseOrUser_EmailContainingIgnoreCase(
-                "ACC", "ACC", "ACC", "ACC", PageRequest.of(0, 10));
+    @Test
+    void testValidateAccountsForTransfer_looksUpDistinctNumbersInChunks() {
+        when(accountRepository.findStatusByAccountNumberIn(List.of("ACC1", "ACC2")))
+                .thenReturn(List.of(new AccountStatusRow("ACC2", true), new AccountStatusRow("ACC1", false)));
+        when(accountRepository.findStatusByAccountNumberIn(List.of("ACC3")))
+                .thenReturn(List.of());
+
+        AccountValidationResponse response = accountService.validateAccountsForTransfer(
+                List.of(" acc1", "ACC2", "acc1 ", "Acc3"));
+
+        assertThat(response.getResults()).extracting(AccountValidationResult::getAccountNumber)
+                .containsExactly("ACC1", "ACC2", "ACC3");
+        assertThat(response.getResults()).extracting(AccountValidationResult::isAccountExists)
+                .containsExactly(true, true, false);
+        assertThat(response.getResults()).extracting(AccountValidationResult::isValid)
+                .containsExactly(false, true, false);
+        assertThat(response.getValidAccounts()).isEqualTo(1);
+        assertThat(response.getInvalidAccounts()).isEqualTo(2);
+        verify(accountRepository, times(2)).findStatusByAccountNumberIn(any());
+        verify(accountRepository, never()).findByAccountNumber(any());
+    }
+
+    @Test
+    void testValidateAccountsForTransfer_resultUsesTheSingleAccountFieldNames() throws Exception {
+        when(accountRepository.findStatusByAccountNumberIn(List.of("ACC1")))
+                .thenReturn(List.of(new AccountStatusRow("ACC1", true)));
+
+        AccountValidationResult result = accountService.validateAccountsForTransfer(List.of("ACC1")).getResults().get(0);
+        Map<String, Object> json = new ObjectMapper().convertValue(result, new TypeReference<>() {});
+
+        assertThat(json).containsOnlyKeys("accountNumber", "valid", "accountExists", "isActive", "canReceiveTransfers");
+        assertThat(json).containsEntry("isActive", true);
+    }
+
+    @Test
+    void testValidateAccountsForTransfer_rejectsMoreThanTheBatchLimit() {
+        assertThatThrownBy(() -> accountService.validateAccountsForTransfer(
+                List.of("ACC1", "ACC2", "ACC3", "ACC4", "ACC5", "ACC6")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("5");
+        verifyNoInteractions(accountRepository);
     }
 
     @Test
     void testGetTotalAccountCount() {
-        when(accountRepository.count()).thenReturn(5L);
+        when(systemAggregateService.current()).thenReturn(aggregates(0, 5, 4, 2));
         assertThat(accountService.getTotalAccountCount()).isEqualTo(5);
     }
 
     @Test
     void testGetActiveAccountCount() {
-        when(accountRepository.countByIsActiveTrue()).thenReturn(4L);
+        when(systemAggregateService.current()).thenReturn(aggregates(0, 5, 4, 2));
         assertThat(accountService.getActiveAccountCount()).isEqualTo(4);
     }
 
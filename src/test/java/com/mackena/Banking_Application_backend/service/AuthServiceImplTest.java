@@ -41,6 +41,7 @@ public class AuthServiceImplTest {
     @Mock private SecurityHelper securityHelper;
     @Mock private JwtTokenProvider jwtTokenProvider;
     @Mock private AuthenticationManager authenticationManager;
+    @Mock private SystemAggregateService systemAggregateService;
 
     @InjectMocks private AuthServiceImpl authService;
 
@@ -85,6 +86,7 @@ public class AuthServiceImplTest {
         assertEquals("jwtToken", response.getToken());
         assertEquals("Bearer", response.getTokenType());
         assertEquals("User registered successfully", response.getMessage());
+        verify(systemAggregateService).recordAccountOpened(BigDecimal.valueOf(1000), true);
     }
 
 
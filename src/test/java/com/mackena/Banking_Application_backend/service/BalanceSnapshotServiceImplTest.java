@@ -0,0 +1,168 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.BalanceSnapshot;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import com.mackena.Banking_Application_backend.repository.BalanceSnapshotRepository;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.service.impl.BalanceSnapshotServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BalanceSnapshotServiceImplTest {
+
+    private static final LocalDate LAST_SNAPSHOT = LocalDate.of(2026, 3, 10);
+
+    @InjectMocks
+    private BalanceSnapshotServiceImpl balanceSnapshotService;
+
+    @Mock private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        account = Account.builder().id(7L).accountNumber("ACC7").balance(new BigDecimal("900.00")).build();
+    }
+
+    private void snapshotsUpTo(LocalDate day) {
+        when(balanceSnapshotRepository.findLastSnapshotDate()).thenReturn(Optional.of(day));
+    }
+
+    private void snapshotBefore(LocalDate day, String balance) {
+        when(balanceSnapshotRepository.findFirstByAccountIdAndSnapshotDateBeforeOrderBySnapshotDateDesc(7L, day))
+                .thenReturn(Optional.of(BalanceSnapshot.builder()
+                        .accountId(7L)
+                        .snapshotDate(day.minusDays(1))
+                        .balance(new BigDecimal(balance))
+                        .build()));
+    }
+
+    @Test
+    void testSnapshotPendingDays_resumesAfterLastSnapshotUpToYesterday() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        snapshotsUpTo(yesterday.minusDays(3));
+
+        balanceSnapshotService.snapshotPendingDays();
+
+        for (LocalDate day = yesterday.minusDays(2); !day.isAfter(yesterday); day = day.plusDays(1)) {
+            verify(balanceSnapshotRepository).snapshotDay(day, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        }
+        verify(balanceSnapshotRepository, times(3)).snapshotDay(any(), any(), any());
+    }
+
+    @Test
+    void testSnapshotPendingDays_watermarkPassesDaysWithoutSnapshots() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        snapshotsUpTo(yesterday.minusDays(2));
+        // Nothing was posted on either day
+        when(balanceSnapshotRepository.snapshotDay(any(), any(), any())).thenReturn(0);
+
+        balanceSnapshotService.snapshotPendingDays();
+
+        InOrder inOrder = inOrder(balanceSnapshotRepository, transactionManager);
+        for (LocalDate day = yesterday.minusDays(1); !day.isAfter(yesterday); day = day.plusDays(1)) {
+            inOrder.verify(balanceSnapshotRepository).snapshotDay(eq(day), any(), any());
+            inOrder.verify(balanceSnapshotRepository).advanceWatermark(day);
+            inOrder.verify(transactionManager).commit(any());
+        }
+    }
+
+    @Test
+    void testSnapshotPendingDays_firstRunStartsAtFirstTransaction() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(balanceSnapshotRepository.findLastSnapshotDate()).thenReturn(Optional.empty());
+        when(transactionRepository.findFirstCreatedAt()).thenReturn(Optional.of(yesterday.minusDays(1).atTime(15, 0)));
+
+        balanceSnapshotService.snapshotPendingDays();
+
+        verify(balanceSnapshotRepository).snapshotDay(eq(yesterday.minusDays(1)), any(), any());
+        verify(balanceSnapshotRepository).snapshotDay(eq(yesterday), any(), any());
+        verify(balanceSnapshotRepository, times(2)).snapshotDay(any(), any(), any());
+    }
+
+    @Test
+    void testSnapshotPendingDays_upToDateDoesNothing() {
+        snapshotsUpTo(LocalDate.now().minusDays(1));
+
+        balanceSnapshotService.snapshotPendingDays();
+
+        verify(balanceSnapshotRepository, never()).snapshotDay(any(), any(), any());
+    }
+
+    @Test
+    void testBalanceAsOf_snapshottedDayReadsOnlyThatDay() {
+        snapshotsUpTo(LAST_SNAPSHOT);
+        LocalDateTime moment = LocalDateTime.of(2025, 6, 15, 14, 30);
+        when(transactionRepository.findLastBalanceBetween(7L, moment.toLocalDate().atStartOfDay(), moment))
+                .thenReturn(Optional.of(new BigDecimal("120.00")));
+
+        assertThat(balanceSnapshotService.balanceAsOf(account, moment)).isEqualByComparingTo("120.00");
+        verify(transactionRepository, never()).findLastBalanceBefore(any(), any());
+    }
+
+    @Test
+    void testBalanceAsOf_quietDayFallsBackToLastSnapshot() {
+        snapshotsUpTo(LAST_SNAPSHOT);
+        LocalDateTime moment = LocalDateTime.of(2025, 6, 15, 14, 30);
+        when(transactionRepository.findLastBalanceBetween(anyLong(), any(), any())).thenReturn(Optional.empty());
+        snapshotBefore(LocalDate.of(2025, 6, 15), "75.50");
+
+        assertThat(balanceSnapshotService.balanceAsOf(account, moment)).isEqualByComparingTo("75.50");
+    }
+
+    @Test
+    void testBalanceAsOf_afterLastSnapshotSearchesFromFirstUnsnapshottedDay() {
+        snapshotsUpTo(LAST_SNAPSHOT);
+        LocalDateTime moment = LAST_SNAPSHOT.plusDays(3).atTime(9, 0);
+        when(transactionRepository.findLastBalanceBetween(anyLong(), any(), any())).thenReturn(Optional.empty());
+        snapshotBefore(LAST_SNAPSHOT.plusDays(1), "310.00");
+
+        assertThat(balanceSnapshotService.balanceAsOf(account, moment)).isEqualByComparingTo("310.00");
+        verify(transactionRepository).findLastBalanceBetween(7L, LAST_SNAPSHOT.plusDays(1).atStartOfDay(), moment);
+    }
+
+    @Test
+    void testBalanceAsOf_beforeAnyTransactionIsOpeningBalance() {
+        snapshotsUpTo(LAST_SNAPSHOT);
+        when(transactionRepository.findLastBalanceBetween(anyLong(), any(), any())).thenReturn(Optional.empty());
+        Transaction first = Transaction.builder()
+                .amount(new BigDecimal("40.00"))
+                .transactionDirection(TransactionDirection.CREDIT)
+                .balanceAfter(new BigDecimal("140.00"))
+                .build();
+        when(transactionRepository.findFirstByAccountIdOrderByCreatedAtAscIdAsc(7L)).thenReturn(Optional.of(first));
+
+        assertThat(balanceSnapshotService.balanceAsOf(account, LocalDateTime.of(2020, 1, 1, 0, 0)))
+                .isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void testBalanceAsOf_withoutSnapshotsSearchesAllEarlierTransactions() {
+        when(balanceSnapshotRepository.findLastSnapshotDate()).thenReturn(Optional.empty());
+        LocalDateTime moment = LocalDateTime.of(2025, 6, 15, 14, 30);
+        when(transactionRepository.findLastBalanceBefore(7L, moment)).thenReturn(Optional.of(new BigDecimal("55.00")));
+
+        assertThat(balanceSnapshotService.balanceAsOf(account, moment)).isEqualByComparingTo("55.00");
+        verify(transactionRepository, never()).findLastBalanceBetween(any(), any(), any());
+    }
+}
@@ -0,0 +1,119 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Posts a month of transactions (in March 2019, before any other test's data) to a fresh account, snapshots
+ * each day and compares the balance as of every morning, noon and midnight with the balance after the last
+ * transaction before that moment.
+ */
+@PostgresIntegrationTest
+class BalanceSnapshotTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2019, 3, 1);
+    private static final int DAYS = 20;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("100.00");
+
+    @Autowired private BalanceSnapshotService balanceSnapshotService;
+    @Autowired private TransactionPartitionService transactionPartitionService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Account account;
+    // created_at and balance_after of every seeded transaction, oldest first
+    private final List<LocalDateTime> postedAt = new ArrayList<>();
+    private final List<BigDecimal> balances = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        transactionPartitionService.createPartitions(YearMonth.from(FIRST_DAY), YearMonth.from(FIRST_DAY));
+        String accountNumber = "BS" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase();
+        Long userId = jdbcTemplate.queryForObject("""
+                INSERT INTO users (id, email, password, first_name, last_name, role, is_enabled, created_at)
+                VALUES (nextval('users_seq'), lower(?) || '@example.com', 'unused', 'Balance', 'Snapshot', 'USER', true, now())
+                RETURNING id
+                """, Long.class, accountNumber);
+        Long accountId = jdbcTemplate.queryForObject("""
+                INSERT INTO accounts (id, user_id, account_number, account_type, balance, is_active, created_at, version)
+                VALUES (nextval('accounts_seq'), ?, ?, 'CHECKING', 0, true, now(), 0)
+                RETURNING id
+                """, Long.class, userId, accountNumber);
+
+        // Three transactions on most days, none on every fourth, alternating credits and debits
+        BigDecimal balance = OPENING_BALANCE;
+        for (int day = 0; day < DAYS; day++) {
+            if (day % 4 == 3) {
+                continue;
+            }
+            for (int n = 0; n < 3; n++) {
+                boolean credit = (day + n) % 2 == 0;
+                BigDecimal amount = new BigDecimal(10 + day + n);
+                balance = credit ? balance.add(amount) : balance.subtract(amount);
+                LocalDateTime createdAt = FIRST_DAY.plusDays(day).atTime(8 + 4 * n, 0);
+                jdbcTemplate.update("""
+                        INSERT INTO transactions (id, account_id, user_id, amount, transaction_type, transaction_direction,
+                                                  reference_number, status, balance_after, created_at)
+                        VALUES (nextval('transactions_seq'), ?, ?, ?, 'DEPOSIT', ?, ?, 'COMPLETED', ?, ?)
+                        """, accountId, userId, amount, credit ? "CREDIT" : "DEBIT",
+                        "BS" + UUID.randomUUID().toString().substring(0, 12), balance, createdAt);
+                postedAt.add(createdAt);
+                balances.add(balance);
+            }
+        }
+        jdbcTemplate.update("UPDATE accounts SET balance = ? WHERE id = ?", balance, accountId);
+        account = accountRepository.findById(accountId).orElseThrow();
+    }
+
+    @Test
+    void testBalanceAsOf_matchesLastTransactionBeforeEveryMoment() {
+        for (int day = 0; day < DAYS; day++) {
+            balanceSnapshotService.snapshotDay(FIRST_DAY.plusDays(day));
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM balance_snapshots WHERE account_id = ?",
+                Long.class, account.getId())).isEqualTo(postedAt.size() / 3);
+
+        for (int day = -1; day <= DAYS; day++) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            for (LocalDateTime moment : List.of(date.atStartOfDay(), date.atTime(8, 0), date.atTime(12, 30))) {
+                assertThat(balanceSnapshotService.balanceAsOf(account, moment)).as(moment.toString())
+                        .isEqualByComparingTo(expectedBalance(moment));
+            }
+        }
+    }
+
+    @Test
+    void testSnapshotDay_runTwiceKeepsOneRowPerDay() {
+        assertThat(balanceSnapshotService.snapshotDay(FIRST_DAY)).isGreaterThanOrEqualTo(1);
+        balanceSnapshotService.snapshotDay(FIRST_DAY);
+
+        BigDecimal snapshot = jdbcTemplate.queryForObject(
+                "SELECT balance FROM balance_snapshots WHERE account_id = ? AND snapshot_date = ?",
+                BigDecimal.class, account.getId(), FIRST_DAY);
+        assertThat(snapshot).isEqualByComparingTo(balances.get(2));
+    }
+
+    private BigDecimal expectedBalance(LocalDateTime moment) {
+        BigDecimal expected = OPENING_BALANCE;
+        for (int i = 0; i < postedAt.size() && postedAt.get(i).isBefore(moment); i++) {
+            expected = balances.get(i);
+        }
+        return expected;
+    }
+}
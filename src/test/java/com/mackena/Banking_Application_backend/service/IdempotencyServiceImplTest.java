@@ -0,0 +1,243 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mackena.Banking_Application_backend.dtos.request.TransferRequest;
+import com.mackena.Banking_Application_backend.dtos.response.TransferResponse;
+import com.mackena.Banking_Application_backend.exceptions.IdempotencyConflictException;
+import com.mackena.Banking_Application_backend.exceptions.InsufficientFundsException;
+import com.mackena.Banking_Application_backend.models.entity.IdempotencyRecord;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.TransactionStatus;
+import com.mackena.Banking_Application_backend.repository.IdempotencyRecordRepository;
+import com.mackena.Banking_Application_backend.service.impl.IdempotencyServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceImplTest {
+
+    @Mock private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyServiceImpl idempotencyService;
+    private User user;
+    private AtomicInteger transfers;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        idempotencyService = new IdempotencyServiceImpl(idempotencyRecordRepository, new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "cacheSize", 2);
+        ReflectionTestUtils.invokeMethod(idempotencyService, "initCache");
+
+        user = new User();
+        user.setId(1L);
+        transfers = new AtomicInteger();
+
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(anyLong(), anyString())).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private TransferRequest request(String amount, String pin) {
+        TransferRequest request = new TransferRequest();
+        request.setSenderAccountNumber("ACC_A");
+        request.setReceiverAccountNumber("ACC_B");
+        request.setAmount(new BigDecimal(amount));
+        request.setTransactionPin(pin);
+        return request;
+    }
+
+    private Supplier<TransferResponse> transfer() {
+        return () -> TransferResponse.builder()
+                .transferReference("TXN" + transfers.incrementAndGet())
+                .amount(new BigDecimal("100"))
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+
+    private TransferResponse execute(String key, TransferRequest request) {
+        return idempotencyService.execute(key, user, "TRANSFER", request, TransferResponse.class, transfer());
+    }
+
+    // Makes the repository return whatever the service stored for the key
+    private void persistStoredRecords() {
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository, atLeastOnce()).save(saved.capture());
+        IdempotencyRecord stored = saved.getValue();
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, stored.getIdempotencyKey()))
+                .thenReturn(Optional.of(stored));
+    }
+
+    @Test
+    void testExecute_withoutKeyAlwaysRuns() {
+        execute(null, request("100", "1234"));
+        execute(" ", request("100", "1234"));
+
+        assertThat(transfers.get()).isEqualTo(2);
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void testExecute_replayReturnsStoredResponseWithoutRunningAgain() {
+        TransferResponse first = execute("key-1", request("100", "1234"));
+        TransferResponse replay = execute("key-1", request("100", "1234"));
+
+        assertThat(transfers.get()).isEqualTo(1);
+        assertThat(replay.getTransferReference()).isEqualTo(first.getTransferReference());
+    }
+
+    @Test
+    void testExecute_replayAfterCacheEvictionComesFromTable() {
+        TransferResponse first = execute("key-1", request("100", "1234"));
+        persistStoredRecords();
+        // Push key-1 out of the two-entry cache
+        execute("key-2", request("100", "1234"));
+        execute("key-3", request("100", "1234"));
+
+        TransferResponse replay = execute("key-1", request("100", "1234"));
+
+        assertThat(transfers.get()).isEqualTo(3);
+        assertThat(replay.getTransferReference()).isEqualTo(first.getTransferReference());
+    }
+
+    @Test
+    void testExecute_expiredRecordNotYetPurgedIsClaimedAgain() {
+        IdempotencyRecord expired = IdempotencyRecord.builder()
+                .id(9L)
+                .userId(1L)
+                .idempotencyKey("key-1")
+                .operation("TRANSFER")
+                .requestHash("a different request")
+                .status(TransactionStatus.FAILED)
+                .expiresAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.of(expired));
+
+        TransferResponse response = execute("key-1", request("100", "1234"));
+
+        assertThat(response.getTransferReference()).isEqualTo("TXN1");
+        verify(idempotencyRecordRepository).delete(expired);
+        verify(idempotencyRecordRepository).saveAndFlush(argThat(record -> record.getId() == null
+                && record.getExpiresAt().isAfter(LocalDateTime.now())));
+    }
+
+    @Test
+    void testExecute_keyReusedForDifferentRequestConflicts() {
+        execute("key-1", request("100", "1234"));
+
+        assertThatThrownBy(() -> execute("key-1", request("250", "1234")))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(transfers.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_requestHashIgnoresPin() {
+        execute("key-1", request("100", "1234"));
+        persistStoredRecords();
+
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(saved.capture());
+        assertThat(saved.getValue().getRequestHash()).hasSize(64);
+
+        assertThatCode(() -> execute("key-1", request("100", "9999"))).doesNotThrowAnyException();
+        assertThat(transfers.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_keyStillInProgressConflicts() {
+        execute("key-1", request("100", "1234"));
+        persistStoredRecords();
+        IdempotencyRecord stored = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1").orElseThrow();
+        stored.setStatus(TransactionStatus.PENDING);
+        // Another instance holds the key; bypass this instance's cache by racing on the insert
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-9"))
+                .thenReturn(Optional.empty(), Optional.of(IdempotencyRecord.builder()
+                        .idempotencyKey("key-9")
+                        .requestHash(stored.getRequestHash())
+                        .status(TransactionStatus.PENDING)
+                        .expiresAt(LocalDateTime.now().plusHours(1))
+                        .build()));
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThatThrownBy(() -> execute("key-9", request("100", "1234")))
+                .isInstanceOf(IdempotencyConflictException.class)
+                .hasMessageContaining("still being processed");
+    }
+
+    @Test
+    void testExecute_failedActionReleasesKey() {
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", user, "TRANSFER", request("100", "1234"),
+                TransferResponse.class, () -> {
+                    throw new InsufficientFundsException("Insufficient balance");
+                })).isInstanceOf(InsufficientFundsException.class);
+
+        verify(idempotencyRecordRepository).delete(any(IdempotencyRecord.class));
+        assertThatCode(() -> execute("key-1", request("100", "1234"))).doesNotThrowAnyException();
+        assertThat(transfers.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_wrappedRejectionReleasesKey() {
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", user, "TRANSFER", request("100", "1234"),
+                TransferResponse.class, () -> {
+                    throw new RuntimeException("Withdrawal failed: Insufficient balance",
+                            new InsufficientFundsException("Insufficient balance"));
+                })).isInstanceOf(RuntimeException.class);
+
+        verify(idempotencyRecordRepository).delete(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void testExecute_failureWithUnknownOutcomeKeepsKeyAndIsReplayed() {
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", user, "TRANSFER", request("100", "1234"),
+                TransferResponse.class, () -> {
+                    throw new IllegalStateException("Interrupted while waiting for ledger posting");
+                })).isInstanceOf(IllegalStateException.class);
+
+        verify(idempotencyRecordRepository, never()).delete(any(IdempotencyRecord.class));
+        persistStoredRecords();
+        assertThat(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1").orElseThrow().getStatus())
+                .isEqualTo(TransactionStatus.FAILED);
+
+        assertThatThrownBy(() -> execute("key-1", request("100", "1234")))
+                .isInstanceOf(IdempotencyConflictException.class)
+                .hasMessageContaining("unknown outcome");
+        assertThat(transfers.get()).isZero();
+    }
+
+    @Test
+    void testExecute_responseThatFailedToSaveIsStillReturnedAndSavedLater() {
+        when(idempotencyRecordRepository.save(any()))
+                .thenThrow(new DataIntegrityViolationException("connection lost"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransferResponse first = execute("key-1", request("100", "1234"));
+        TransferResponse replay = execute("key-1", request("100", "1234"));
+
+        assertThat(transfers.get()).isEqualTo(1);
+        assertThat(replay.getTransferReference()).isEqualTo(first.getTransferReference());
+
+        idempotencyService.saveUnsaved();
+        idempotencyService.saveUnsaved();
+
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository, times(2)).save(saved.capture());
+        assertThat(saved.getValue().getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(saved.getValue().getResponseBody()).contains(first.getTransferReference());
+    }
+}
@@ -0,0 +1,129 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dto.response.LowBalanceAccountsResponse;
+import com.mackena.Banking_Application_backend.dtos.response.AccountSummaryResponse;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.projection.LowBalanceAccountRow;
+import com.mackena.Banking_Application_backend.service.impl.LowBalanceWatchlistServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LowBalanceWatchlistServiceImplTest {
+
+    private static final BigDecimal THRESHOLD = new BigDecimal("100");
+
+    @Mock private AccountRepository accountRepository;
+
+    private LowBalanceWatchlistServiceImpl watchlistService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        watchlistService = new LowBalanceWatchlistServiceImpl(accountRepository);
+        ReflectionTestUtils.setField(watchlistService, "enabled", true);
+        ReflectionTestUtils.setField(watchlistService, "threshold", THRESHOLD);
+        ReflectionTestUtils.setField(watchlistService, "maxAccounts", 3);
+
+        when(accountRepository.findLowBalanceRows(eq(THRESHOLD), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "50.00"), row(2L, "10.00"), row(3L, "75.00")));
+        // Details are looked up for whichever ids the page asks for, in no particular order
+        when(accountRepository.findLowBalanceRowsByIds(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().sorted().map(id -> row(id, "0.00")).toList();
+        });
+    }
+
+    private LowBalanceAccountRow row(Long id, String balance) {
+        return new LowBalanceAccountRow(id, "ACC" + id, AccountType.CHECKING, new BigDecimal(balance), 9L,
+                LocalDateTime.now());
+    }
+
+    private List<Long> ids(LowBalanceAccountsResponse response) {
+        return response.getAccounts().stream().map(AccountSummaryResponse::getId).toList();
+    }
+
+    @Test
+    void testPage_servesLowestBalanceFirstAfterRefresh() {
+        watchlistService.refresh();
+
+        LowBalanceAccountsResponse first = watchlistService.page(THRESHOLD, 0, 2).orElseThrow();
+        LowBalanceAccountsResponse second = watchlistService.page(THRESHOLD, 1, 2).orElseThrow();
+
+        assertThat(ids(first)).containsExactly(2L, 1L);
+        assertThat(ids(second)).containsExactly(3L);
+        assertThat(first.getTotalLowBalanceAccounts()).isEqualTo(3);
+        assertThat(first.getTotalLowBalance()).isEqualByComparingTo("135.00");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(first.isFromWatchlist()).isTrue();
+    }
+
+    @Test
+    void testRecordBalance_movesAccountsAcrossTheThreshold() {
+        watchlistService.refresh();
+
+        watchlistService.recordBalance(1L, new BigDecimal("150.00"));
+        watchlistService.recordBalance(4L, new BigDecimal("5.00"));
+        watchlistService.recordBalance(3L, new BigDecimal("1.00"));
+
+        LowBalanceAccountsResponse page = watchlistService.page(THRESHOLD, 0, 10).orElseThrow();
+        assertThat(ids(page)).containsExactly(3L, 4L, 2L);
+        assertThat(page.getTotalLowBalance()).isEqualByComparingTo("16.00");
+    }
+
+    @Test
+    void testPage_emptyBeyondLastPageWithoutQuerying() {
+        watchlistService.refresh();
+
+        LowBalanceAccountsResponse page = watchlistService.page(THRESHOLD, 5, 10).orElseThrow();
+
+        assertThat(page.getAccounts()).isEmpty();
+        verify(accountRepository, never()).findLowBalanceRowsByIds(any());
+    }
+
+    @Test
+    void testPage_notServedWhenDisabledUnloadedOrOtherThreshold() {
+        assertThat(watchlistService.page(THRESHOLD, 0, 10)).isEmpty();
+
+        watchlistService.refresh();
+        assertThat(watchlistService.page(new BigDecimal("50"), 0, 10)).isEmpty();
+
+        ReflectionTestUtils.setField(watchlistService, "enabled", false);
+        assertThat(watchlistService.page(THRESHOLD, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void testRefresh_readsAtMostOneRowPastTheCap() {
+        watchlistService.refresh();
+
+        verify(accountRepository).findLowBalanceRows(THRESHOLD, PageRequest.of(0, 4));
+        assertThat(watchlistService.page(THRESHOLD, 0, 10)).isPresent();
+    }
+
+    @Test
+    void testPage_notServedOnceMoreAccountsThanTheCapAreLow() {
+        ReflectionTestUtils.setField(watchlistService, "maxAccounts", 2);
+        watchlistService.refresh();
+        assertThat(watchlistService.page(THRESHOLD, 0, 10)).isEmpty();
+
+        ReflectionTestUtils.setField(watchlistService, "maxAccounts", 3);
+        watchlistService.refresh();
+        watchlistService.recordBalance(4L, new BigDecimal("5.00"));
+        assertThat(watchlistService.page(THRESHOLD, 0, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,173 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dtos.response.TransactionDetailResponse;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionHistoryResponse;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import com.mackena.Banking_Application_backend.models.enums.TransactionStatus;
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.repository.projection.TransactionHistoryRow;
+import com.mackena.Banking_Application_backend.service.impl.RecentTransactionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecentTransactionServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecentTransactionServiceImpl recentTransactionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        meterRegistry = new SimpleMeterRegistry();
+        recentTransactionService = new RecentTransactionServiceImpl(transactionRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(recentTransactionService, "transactionsPerAccount", 5);
+        ReflectionTestUtils.setField(recentTransactionService, "maxAccounts", 100L);
+        ReflectionTestUtils.setField(recentTransactionService, "expireSeconds", 300L);
+        ReflectionTestUtils.invokeMethod(recentTransactionService, "initCache");
+    }
+
+    // Rows newest first, ids counting down from count
+    private void accountHolds(long count) {
+        List<TransactionHistoryRow> rows = LongStream.rangeClosed(1, Math.min(count, 6))
+                .mapToObj(n -> row(count + 1 - n))
+                .toList();
+        when(transactionRepository.findHistoryRows(any(), any(Sort.class), eq(0L), eq(6))).thenReturn(rows);
+        when(transactionRepository.count(any(Specification.class))).thenReturn(count);
+    }
+
+    private TransactionHistoryRow row(long id) {
+        return new TransactionHistoryRow(id, "REF" + id, null, new BigDecimal("10.00"), TransactionType.DEPOSIT,
+                TransactionDirection.CREDIT, "Deposit", TransactionStatus.COMPLETED, new BigDecimal("10.00"),
+                NOW.plusMinutes(id), "ACC1");
+    }
+
+    private Transaction posted(long id) {
+        Transaction transaction = Transaction.builder()
+                .id(id)
+                .account(Account.builder().id(1L).accountNumber("ACC1").build())
+                .amount(new BigDecimal("25.00"))
+                .transactionType(TransactionType.WITHDRAW)
+                .transactionDirection(TransactionDirection.DEBIT)
+                .referenceNumber("REF" + id)
+                .status(TransactionStatus.COMPLETED)
+                .build();
+        transaction.setCreatedAt(NOW.plusMinutes(id));
+        return transaction;
+    }
+
+    private List<Long> ids(TransactionHistoryResponse response) {
+        return response.getTransactionDetails().stream().map(TransactionDetailResponse::getId).toList();
+    }
+
+    @Test
+    void testFirstPage_loadsOnceThenServesFromCache() {
+        accountHolds(12);
+
+        TransactionHistoryResponse first = recentTransactionService.firstPage(1L, 3, true).orElseThrow();
+        TransactionHistoryResponse second = recentTransactionService.firstPage(1L, 5, true).orElseThrow();
+
+        assertThat(ids(first)).containsExactly(12L, 11L, 10L);
+        assertThat(first.getTotalElements()).isEqualTo(12);
+        assertThat(first.getTotalPages()).isEqualTo(4);
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(ids(second)).containsExactly(12L, 11L, 10L, 9L, 8L);
+        verify(transactionRepository, times(1)).findHistoryRows(any(), any(Sort.class), anyLong(), anyInt());
+        verify(transactionRepository, times(1)).count(any(Specification.class));
+    }
+
+    @Test
+    void testFirstPage_withoutTotalNeverCounts() {
+        accountHolds(12);
+
+        TransactionHistoryResponse response = recentTransactionService.firstPage(1L, 5, false).orElseThrow();
+
+        assertThat(response.getTotalElements()).isNull();
+        assertThat(response.isHasNext()).isTrue();
+        verify(transactionRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void testFirstPage_smallHistoryIsItsOwnTotal() {
+        accountHolds(3);
+
+        TransactionHistoryResponse response = recentTransactionService.firstPage(1L, 5, true).orElseThrow();
+
+        assertThat(ids(response)).containsExactly(3L, 2L, 1L);
+        assertThat(response.getTotalElements()).isEqualTo(3);
+        assertThat(response.isHasNext()).isFalse();
+        verify(transactionRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void testFirstPage_largerThanCachedWindowIsNotServed() {
+        assertThat(recentTransactionService.firstPage(1L, 6, true)).isEmpty();
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void testRecordPosted_updatesCachedPageInPlace() {
+        accountHolds(12);
+        recentTransactionService.firstPage(1L, 5, true);
+
+        recentTransactionService.recordPosted(List.of(posted(13)));
+        // Recording the same transaction twice (a load that already saw it) changes nothing
+        recentTransactionService.recordPosted(List.of(posted(13)));
+        TransactionHistoryResponse response = recentTransactionService.firstPage(1L, 5, true).orElseThrow();
+
+        assertThat(ids(response)).containsExactly(13L, 12L, 11L, 10L, 9L);
+        assertThat(response.getTransactionDetails().get(0).getTransactionType())
+                .isEqualTo(TransactionType.WITHDRAW.getDescription());
+        assertThat(response.getTotalElements()).isEqualTo(13);
+        verify(transactionRepository, times(1)).findHistoryRows(any(), any(Sort.class), anyLong(), anyInt());
+    }
+
+    @Test
+    void testRecordPosted_uncachedAccountIsLeftForItsNextRead() {
+        recentTransactionService.recordPosted(List.of(posted(13)));
+
+        verifyNoInteractions(transactionRepository);
+        assertThat(meterRegistry.get("cache.size").tag("cache", "transactions.recent").gauge().value()).isZero();
+    }
+
+    @Test
+    void testMetrics_exposeHitRatioAndEvictions() {
+        accountHolds(12);
+
+        recentTransactionService.firstPage(1L, 5, false);
+        recentTransactionService.firstPage(1L, 5, false);
+        recentTransactionService.firstPage(1L, 5, false);
+        recentTransactionService.firstPage(1L, 5, false);
+
+        assertThat(meterRegistry.get("cache.hit.ratio").tag("cache", "transactions.recent").gauge().value())
+                .isEqualTo(0.75);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "transactions.recent").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", "transactions.recent").functionCounter())
+                .isNotNull();
+    }
+}
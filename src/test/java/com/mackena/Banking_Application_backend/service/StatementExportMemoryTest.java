@@ -0,0 +1,124 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.enums.StatementFormat;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a statement of two million transactions (-Dexport.rows to change) into a counting sink and checks
+ * that the heap in use, measured after a GC at several points during the export, stays within a fixed margin
+ * of what it was before. Loading the rows into a list, or PostgreSQL sending the whole result at once, would
+ * hold hundreds of megabytes. The seeded account is kept and reused by later runs.
+ */
+@PostgresIntegrationTest
+class StatementExportMemoryTest {
+
+    private static final int ROWS = Integer.getInteger("export.rows", 2_000_000);
+    private static final String ACCOUNT_NUMBER = "EXPORT-MEM-" + ROWS;
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    private static final LocalDateTime START = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    @Autowired private TransactionExportService transactionExportService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionPartitionService transactionPartitionService;
+
+    private Long accountId;
+
+    @BeforeEach
+    void seed() {
+        Long existing = jdbcTemplate.query("SELECT id FROM accounts WHERE account_number = ?",
+                resultSet -> resultSet.next() ? resultSet.getLong(1) : null, ACCOUNT_NUMBER);
+        if (existing != null) {
+            accountId = existing;
+            return;
+        }
+
+        // A minute apart, two million rows span about four years
+        transactionPartitionService.createPartitions(YearMonth.of(2020, 1), YearMonth.of(2024, 12));
+        Long userId = jdbcTemplate.queryForObject("""
+                INSERT INTO users (id, email, password, first_name, last_name, role, is_enabled, created_at)
+                VALUES (nextval('users_seq'), lower(?) || '@example.com', 'unused', 'Export', 'Memory', 'USER', true, now())
+                RETURNING id
+                """, Long.class, ACCOUNT_NUMBER);
+        accountId = jdbcTemplate.queryForObject("""
+                INSERT INTO accounts (id, user_id, account_number, account_type, balance, is_active, created_at, version)
+                VALUES (nextval('accounts_seq'), ?, ?, 'CHECKING', 0, true, now(), 0)
+                RETURNING id
+                """, Long.class, userId, ACCOUNT_NUMBER);
+        jdbcTemplate.update("""
+                INSERT INTO transactions (id, account_id, user_id, amount, transaction_type, transaction_direction,
+                                          description, reference_number, status, balance_after, created_at)
+                SELECT nextval('transactions_seq'), ?, ?, 1 + n % 1000,
+                       (ARRAY['WITHDRAW', 'DEPOSIT', 'TRANSFER'])[1 + n % 3],
+                       (ARRAY['DEBIT', 'CREDIT'])[1 + n % 2],
+                       'Statement line ' || n, 'EXM' || ? || '-' || n, 'COMPLETED', n,
+                       TIMESTAMP '2020-01-01' + n * INTERVAL '1 minute'
+                FROM generate_series(1, ?) n
+                """, accountId, userId, accountId, ROWS);
+        jdbcTemplate.execute("ANALYZE transactions");
+    }
+
+    @ParameterizedTest
+    @EnumSource(StatementFormat.class)
+    void testWriteStatement_heapStaysFlat(StatementFormat format) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = usedHeapAfterGc(memory);
+        HeapSamplingSink sink = new HeapSamplingSink(memory, ROWS / 4);
+
+        long written = transactionExportService.writeStatement(accountId, START, END, format, sink);
+
+        assertThat(written).isEqualTo(ROWS);
+        assertThat(sink.lines).isEqualTo(format == StatementFormat.CSV ? ROWS + 1 : ROWS);
+        assertThat(sink.samples).isGreaterThanOrEqualTo(3);
+        assertThat(sink.peakUsedHeap - baseline).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    // Discards the export, counting lines and measuring the heap every sampleEvery lines
+    private static final class HeapSamplingSink extends OutputStream {
+
+        private final MemoryMXBean memory;
+        private final long sampleEvery;
+        private long lines;
+        private int samples;
+        private long peakUsedHeap;
+
+        HeapSamplingSink(MemoryMXBean memory, long sampleEvery) {
+            this.memory = memory;
+            this.sampleEvery = sampleEvery;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % sampleEvery == 0) {
+                peakUsedHeap = Math.max(peakUsedHeap, usedHeapAfterGc(memory));
+                samples++;
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+    }
+}
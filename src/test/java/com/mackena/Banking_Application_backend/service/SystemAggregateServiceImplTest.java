@@ -0,0 +1,200 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.entity.SystemAggregates;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.SystemAggregatesRepository;
+import com.mackena.Banking_Application_backend.repository.projection.SystemTotals;
+import com.mackena.Banking_Application_backend.service.impl.SystemAggregateServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SystemAggregateServiceImplTest {
+
+    @Mock private SystemAggregatesRepository systemAggregatesRepository;
+    @Mock private AccountRepository accountRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SystemAggregateServiceImpl systemAggregateService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        systemAggregateService = new SystemAggregateServiceImpl(
+                systemAggregatesRepository, accountRepository, transactionManager);
+        ReflectionTestUtils.setField(systemAggregateService, "driftTolerance", 0.5);
+        rowHolds(100_000, 4, 3, 2);
+    }
+
+    private SystemAggregates row(long balanceMinor, long accounts, long activeAccounts, long users) {
+        return SystemAggregates.builder()
+                .id(SystemAggregates.ROW_ID)
+                .totalBalanceMinor(balanceMinor)
+                .totalAccounts(accounts)
+                .activeAccounts(activeAccounts)
+                .usersWithActiveAccounts(users)
+                .build();
+    }
+
+    private void rowHolds(long balanceMinor, long accounts, long activeAccounts, long users) {
+        when(systemAggregatesRepository.findById(SystemAggregates.ROW_ID))
+                .thenReturn(Optional.of(row(balanceMinor, accounts, activeAccounts, users)));
+        when(systemAggregatesRepository.lockRow())
+                .thenReturn(Optional.of(row(balanceMinor, accounts, activeAccounts, users)));
+    }
+
+    private void accountsHold(String balance, long accounts, long activeAccounts, long users) {
+        SystemTotals totals = mock(SystemTotals.class);
+        when(totals.getTotalBalance()).thenReturn(new BigDecimal(balance));
+        when(totals.getTotalAccounts()).thenReturn(accounts);
+        when(totals.getActiveAccounts()).thenReturn(activeAccounts);
+        when(totals.getUsersWithActiveAccounts()).thenReturn(users);
+        when(accountRepository.computeSystemTotals()).thenReturn(totals);
+    }
+
+    @Test
+    void testCurrent_addsRecordedChangesWithoutReadingAgain() {
+        systemAggregateService.current();
+
+        systemAggregateService.recordBalanceChange(new BigDecimal("25.50"));
+        systemAggregateService.recordBalanceChange(new BigDecimal("-5.25"));
+        systemAggregateService.recordAccountOpened(new BigDecimal("10.00"), true);
+        SystemAggregates current = systemAggregateService.current();
+
+        assertThat(current.getTotalBalanceMinor()).isEqualTo(100_000 + 2_550 - 525 + 1_000);
+        assertThat(current.getTotalAccounts()).isEqualTo(5);
+        assertThat(current.getActiveAccounts()).isEqualTo(4);
+        assertThat(current.getUsersWithActiveAccounts()).isEqualTo(3);
+        verify(systemAggregatesRepository, times(1)).findById(any());
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void testRecordUserDeleted_removesTheirAccounts() {
+        systemAggregateService.recordUserDeleted(2, 1, new BigDecimal("0.00"));
+        SystemAggregates current = systemAggregateService.current();
+
+        assertThat(current.getTotalAccounts()).isEqualTo(2);
+        assertThat(current.getActiveAccounts()).isEqualTo(2);
+        assertThat(current.getUsersWithActiveAccounts()).isEqualTo(1);
+    }
+
+    @Test
+    void testRecordInsideTransaction_countsOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            systemAggregateService.recordBalanceChange(new BigDecimal("40.00"));
+            assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(100_000);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(104_000);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testFlush_sendsOnlyChangesSinceLastFlush() {
+        systemAggregateService.current();
+
+        // The row is read back after each update, as the database would then hold it
+        systemAggregateService.recordBalanceChange(new BigDecimal("12.34"));
+        rowHolds(101_234, 4, 3, 2);
+        systemAggregateService.flush();
+
+        systemAggregateService.recordAccountOpened(new BigDecimal("1.00"), false);
+        rowHolds(101_334, 5, 4, 2);
+        systemAggregateService.flush();
+        systemAggregateService.flush();
+
+        verify(systemAggregatesRepository).addDeltas(1_234, 0, 0, 0);
+        verify(systemAggregatesRepository).addDeltas(100, 1, 1, 0);
+        verify(systemAggregatesRepository, times(2)).addDeltas(anyLong(), anyLong(), anyLong(), anyLong());
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(101_334);
+    }
+
+    @Test
+    void testFlush_picksUpOtherInstancesChanges() {
+        systemAggregateService.current();
+        rowHolds(250_000, 6, 5, 3);
+
+        systemAggregateService.flush();
+
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(250_000);
+        verify(systemAggregatesRepository, never()).addDeltas(anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testReconcile_correctsOnlyDriftSeenTwice() {
+        accountsHold("1005.00", 4, 3, 2);
+
+        systemAggregateService.reconcile();
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(100_000);
+
+        systemAggregateService.reconcile();
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(100_500);
+    }
+
+    @Test
+    void testReconcile_driftThatMovesBetweenRunsCorrectsThePartSeenTwice() {
+        // Postings in flight make the measured drift differ a little on every run
+        accountsHold("1005.00", 4, 3, 2);
+        systemAggregateService.reconcile();
+        accountsHold("1007.00", 4, 3, 2);
+        systemAggregateService.reconcile();
+
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(100_500);
+
+        // The rest, once it is seen again
+        rowHolds(100_500, 4, 3, 2);
+        systemAggregateService.reconcile();
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(100_700);
+    }
+
+    @Test
+    void testReconcile_differenceChangingDirectionIsLeftAlone() {
+        accountsHold("1005.00", 4, 3, 2);
+        systemAggregateService.reconcile();
+        accountsHold("995.00", 4, 3, 2);
+        systemAggregateService.reconcile();
+
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(100_000);
+    }
+
+    @Test
+    void testReconcile_differenceOfVeryDifferentSizeIsLeftAlone() {
+        accountsHold("1001.00", 4, 3, 2);
+        systemAggregateService.reconcile();
+        accountsHold("1010.00", 4, 3, 2);
+        systemAggregateService.reconcile();
+
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(100_000);
+    }
+
+    @Test
+    void testReconcile_countsOwnUnflushedChangesAsExpected() {
+        systemAggregateService.recordAccountOpened(new BigDecimal("20.00"), true);
+        accountsHold("1020.00", 5, 4, 3);
+
+        systemAggregateService.reconcile();
+        systemAggregateService.reconcile();
+
+        SystemAggregates current = systemAggregateService.current();
+        assertThat(current.getTotalBalanceMinor()).isEqualTo(102_000);
+        assertThat(current.getTotalAccounts()).isEqualTo(5);
+        assertThat(current.getReconciledAt()).isNotNull();
+    }
+}
@@ -0,0 +1,111 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dtos.request.CreateAccountRequest;
+import com.mackena.Banking_Application_backend.dtos.request.DepositRequest;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.SystemAggregates;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.SystemAggregatesRepository;
+import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.repository.projection.SystemTotals;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Opens accounts and posts deposits through the services and checks the maintained aggregates against the real
+ * sums over accounts, in memory and once flushed. Other tests insert accounts behind the services' backs, so each
+ * test starts by letting reconciliation bring the row in line.
+ */
+@PostgresIntegrationTest
+class SystemAggregatesTest {
+
+    @Autowired private SystemAggregateService systemAggregateService;
+    @Autowired private AccountService accountService;
+    @Autowired private DepositService depositService;
+    @Autowired private SystemAggregatesRepository systemAggregatesRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User owner;
+
+    @BeforeEach
+    void reconcileEarlierTests() {
+        systemAggregateService.reconcile();
+        systemAggregateService.reconcile();
+        owner = userRepository.save(User.builder()
+                .email("aggregates-" + UUID.randomUUID() + "@example.com")
+                .password("unused")
+                .firstName("Aggregate")
+                .lastName("Owner")
+                .role(UserRole.USER)
+                .build());
+    }
+
+    @Test
+    void testOpeningsAndPostings_keepAggregatesEqualToRealSums() {
+        Account checking = open(AccountType.CHECKING, "150.25");
+        open(AccountType.SAVINGS, "20.00");
+        deposit(checking, "79.75");
+        deposit(checking, "0.01");
+
+        assertMatchesAccounts(systemAggregateService.current());
+        systemAggregateService.flush();
+        assertMatchesAccounts(systemAggregatesRepository.findById(SystemAggregates.ROW_ID).orElseThrow());
+    }
+
+    @Test
+    void testReconcile_correctsBalanceChangedOutsideTheServices() {
+        Account checking = open(AccountType.CHECKING, "10.00");
+        long before = systemAggregateService.current().getTotalBalanceMinor();
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + 7.50 WHERE id = ?", checking.getId());
+
+        systemAggregateService.reconcile();
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(before);
+
+        systemAggregateService.reconcile();
+        assertThat(systemAggregateService.current().getTotalBalanceMinor()).isEqualTo(before + 750);
+        assertMatchesAccounts(systemAggregatesRepository.findById(SystemAggregates.ROW_ID).orElseThrow());
+    }
+
+    private Account open(AccountType type, String initialDeposit) {
+        CreateAccountRequest request = new CreateAccountRequest();
+        request.setAccountType(type);
+        request.setInitialDeposit(new BigDecimal(initialDeposit));
+        request.setTransactionPin("1234");
+        request.setConfirmPin("1234");
+        // The user's accounts are read lazily, as within a web request
+        String accountNumber = new TransactionTemplate(transactionManager).execute(status ->
+                accountService.createAccountForUser(request, owner.getEmail()).getAccountNumber());
+        return accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+    }
+
+    private void deposit(Account account, String amount) {
+        DepositRequest request = new DepositRequest();
+        request.setAccountNumber(account.getAccountNumber());
+        request.setAmount(new BigDecimal(amount));
+        depositService.processDeposit(request, owner);
+    }
+
+    private void assertMatchesAccounts(SystemAggregates aggregates) {
+        SystemTotals actual = accountRepository.computeSystemTotals();
+        assertThat(BigDecimal.valueOf(aggregates.getTotalBalanceMinor(), 2)).isEqualByComparingTo(actual.getTotalBalance());
+        assertThat(aggregates.getTotalAccounts()).isEqualTo(actual.getTotalAccounts());
+        assertThat(aggregates.getActiveAccounts()).isEqualTo(actual.getActiveAccounts());
+        assertThat(aggregates.getUsersWithActiveAccounts()).isEqualTo(actual.getUsersWithActiveAccounts());
+    }
+}
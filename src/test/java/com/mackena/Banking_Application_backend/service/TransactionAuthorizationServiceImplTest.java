@@ -0,0 +1,243 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dtos.request.TransactionAuthorizationRequest;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionAuthorizationResponse;
+import com.mackena.Banking_Application_backend.exceptions.InvalidPinException;
+import com.mackena.Banking_Application_backend.exceptions.InvalidTransactionTokenException;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.TransactionTokenAllowance;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.TransactionTokenAllowanceRepository;
+import com.mackena.Banking_Application_backend.service.impl.TransactionAuthorizationServiceImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionAuthorizationServiceImplTest {
+
+    private static final String SECRET = "dGVzdC10cmFuc2FjdGlvbi10b2tlbi1zZWNyZXQtMzJieXRlcyE=";
+
+    @Mock private AccountRepository accountRepository;
+    @Mock private TransactionTokenAllowanceRepository allowanceRepository;
+    @Mock private PasswordEncoder passwordEncoder;
+
+    // The allowance table as the conditional updates would leave it
+    private final Map<String, TransactionTokenAllowance> allowances = new HashMap<>();
+
+    private TransactionAuthorizationServiceImpl authorizationService;
+    private User owner;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        authorizationService = newInstance();
+
+        owner = new User();
+        owner.setId(1L);
+        owner.setRole(UserRole.USER);
+
+        account = Account.builder()
+                .id(7L)
+                .user(owner)
+                .accountNumber("ACC_A")
+                .accountType(AccountType.SAVINGS)
+                .balance(new BigDecimal("1000"))
+                .transactionPin("hashed")
+                .isActive(true)
+                .build();
+
+        when(accountRepository.findByAccountNumber("ACC_A")).thenReturn(Optional.of(account));
+        when(passwordEncoder.matches("1234", "hashed")).thenReturn(true);
+
+        when(allowanceRepository.save(any())).thenAnswer(invocation -> {
+            TransactionTokenAllowance allowance = invocation.getArgument(0);
+            allowances.put(allowance.getTokenId(), allowance);
+            return allowance;
+        });
+        when(allowanceRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(allowances.get(invocation.<String>getArgument(0))));
+        when(allowanceRepository.redeem(anyString(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            TransactionTokenAllowance allowance = allowances.get(invocation.<String>getArgument(0));
+            BigDecimal amount = invocation.getArgument(3);
+            if (allowance == null || !allowance.getUserId().equals(invocation.getArgument(1))
+                    || !allowance.getAccountId().equals(invocation.getArgument(2))
+                    || allowance.getRemainingUses() == 0
+                    || allowance.getRemainingAmount().compareTo(amount) < 0) {
+                return 0;
+            }
+            allowance.setRemainingUses(allowance.getRemainingUses() - 1);
+            allowance.setRemainingAmount(allowance.getRemainingAmount().subtract(amount));
+            return 1;
+        });
+        when(allowanceRepository.release(anyString(), any())).thenAnswer(invocation -> {
+            TransactionTokenAllowance allowance = allowances.get(invocation.<String>getArgument(0));
+            allowance.setRemainingUses(allowance.getRemainingUses() + 1);
+            allowance.setRemainingAmount(allowance.getRemainingAmount().add(invocation.getArgument(1)));
+            return 1;
+        });
+    }
+
+    // Another instance sharing the configuration and the database
+    private TransactionAuthorizationServiceImpl newInstance() {
+        return newInstance(SECRET);
+    }
+
+    private TransactionAuthorizationServiceImpl newInstance(String secret) {
+        TransactionAuthorizationServiceImpl instance =
+                new TransactionAuthorizationServiceImpl(accountRepository, allowanceRepository, passwordEncoder);
+        ReflectionTestUtils.setField(instance, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(instance, "maxUsesLimit", 10);
+        ReflectionTestUtils.setField(instance, "secret", secret);
+        ReflectionTestUtils.invokeMethod(instance, "init");
+        return instance;
+    }
+
+    private String issue(String maxAmount, int maxUses) {
+        return issue("ACC_A", maxAmount, maxUses);
+    }
+
+    private String issue(String accountNumber, String maxAmount, int maxUses) {
+        TransactionAuthorizationRequest request = new TransactionAuthorizationRequest();
+        request.setAccountNumber(accountNumber);
+        request.setTransactionPin("1234");
+        request.setMaxAmount(new BigDecimal(maxAmount));
+        request.setMaxUses(maxUses);
+        TransactionAuthorizationResponse response = authorizationService.authorize(request, owner);
+        return response.getTransactionToken();
+    }
+
+    @Test
+    void testRedeem_checksPinOnlyOnceAcrossUses() {
+        String token = issue("300", 3);
+
+        authorizationService.redeem(token, account, owner, new BigDecimal("100"));
+        authorizationService.redeem(token, account, owner, new BigDecimal("100"));
+        authorizationService.redeem(token, account, owner, new BigDecimal("100"));
+
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+        assertThatThrownBy(() -> authorizationService.redeem(token, account, owner, new BigDecimal("1")))
+                .isInstanceOf(InvalidTransactionTokenException.class);
+    }
+
+    @Test
+    void testRedeem_amountBeyondAllowanceRejected() {
+        String token = issue("150", 5);
+        authorizationService.redeem(token, account, owner, new BigDecimal("100"));
+
+        assertThatThrownBy(() -> authorizationService.redeem(token, account, owner, new BigDecimal("60")))
+                .isInstanceOf(InvalidTransactionTokenException.class)
+                .hasMessageContaining("50");
+    }
+
+    @Test
+    void testRedeem_releasedAmountCanBeUsedAgain() {
+        String token = issue("100", 1);
+        authorizationService.redeem(token, account, owner, new BigDecimal("100"));
+
+        authorizationService.release(token, new BigDecimal("100"));
+
+        assertThatCode(() -> authorizationService.redeem(token, account, owner, new BigDecimal("100")))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void testRedeem_otherAccountRejected() {
+        String token = issue("100", 1);
+        Account other = Account.builder().id(8L).user(owner).accountNumber("ACC_B").isActive(true).build();
+
+        assertThatThrownBy(() -> authorizationService.redeem(token, other, owner, new BigDecimal("10")))
+                .isInstanceOf(InvalidTransactionTokenException.class);
+    }
+
+    @Test
+    void testRedeem_allowanceIssuedForAnotherAccountRejectedEvenWithMatchingClaims() {
+        Account other = Account.builder().id(8L).user(owner).accountNumber("ACC_B")
+                .transactionPin("hashed").isActive(true).build();
+        when(accountRepository.findByAccountNumber("ACC_B")).thenReturn(Optional.of(other));
+        String issuedForOther = issue("ACC_B", "100", 1);
+        String tokenId = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build()
+                .parseSignedClaims(issuedForOther).getPayload().getId();
+
+        // Claims rewritten for ACC_A, as someone holding the key could
+        String forged = Jwts.builder()
+                .id(tokenId)
+                .subject(String.valueOf(owner.getId()))
+                .claim("acct", account.getId())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertThatThrownBy(() -> authorizationService.redeem(forged, account, owner, new BigDecimal("10")))
+                .isInstanceOf(InvalidTransactionTokenException.class)
+                .hasMessageContaining("not issued for this account");
+        assertThat(allowances.get(tokenId).getRemainingUses()).isEqualTo(1);
+    }
+
+    @Test
+    void testRedeem_tamperedTokenRejected() {
+        String token = issue("100", 1);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> authorizationService.redeem(tampered, account, owner, new BigDecimal("10")))
+                .isInstanceOf(InvalidTransactionTokenException.class);
+    }
+
+    @Test
+    void testAuthorize_wrongPinIssuesNothing() {
+        TransactionAuthorizationRequest request = new TransactionAuthorizationRequest();
+        request.setAccountNumber("ACC_A");
+        request.setTransactionPin("9999");
+        request.setMaxAmount(new BigDecimal("100"));
+
+        assertThatThrownBy(() -> authorizationService.authorize(request, owner))
+                .isInstanceOf(InvalidPinException.class);
+    }
+
+    @Test
+    void testRedeem_tokenIssuedByOneInstanceSpendsOneAllowanceOnAll() {
+        String token = issue("150", 2);
+        TransactionAuthorizationServiceImpl otherInstance = newInstance();
+
+        otherInstance.redeem(token, account, owner, new BigDecimal("100"));
+
+        assertThatThrownBy(() -> authorizationService.redeem(token, account, owner, new BigDecimal("60")))
+                .isInstanceOf(InvalidTransactionTokenException.class)
+                .hasMessageContaining("50");
+    }
+
+    @Test
+    void testInit_missingSecretFailsStartup() {
+        assertThatThrownBy(() -> newInstance(""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("must be set");
+    }
+
+    @Test
+    void testInit_secretShorterThan256BitsFailsStartup() {
+        // 31 bytes
+        assertThatThrownBy(() -> newInstance("c2hvcnQtdHJhbnNhY3Rpb24tdG9rZW4tc2VjcmV0IQ=="))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("256 bits");
+    }
+}
@@ -0,0 +1,49 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.repository.specification.TransactionHistoryFilter;
+import com.mackena.Banking_Application_backend.service.impl.TransactionCountServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionCountServiceImplTest {
+
+    @Mock private TransactionRepository transactionRepository;
+
+    private TransactionCountServiceImpl transactionCountService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        transactionCountService = new TransactionCountServiceImpl(transactionRepository);
+        ReflectionTestUtils.setField(transactionCountService, "refreshSeconds", 30L);
+        ReflectionTestUtils.setField(transactionCountService, "expireSeconds", 600L);
+        ReflectionTestUtils.setField(transactionCountService, "maxSize", 100L);
+        ReflectionTestUtils.invokeMethod(transactionCountService, "initCache");
+    }
+
+    private TransactionHistoryFilter filter(Long userId, TransactionType type) {
+        return new TransactionHistoryFilter(null, userId, null, null, type, null, null, null);
+    }
+
+    @Test
+    void testApproximateCount_countsOncePerFilter() {
+        when(transactionRepository.count(any(Specification.class))).thenReturn(42L, 7L);
+
+        assertThat(transactionCountService.approximateCount(filter(1L, TransactionType.DEPOSIT))).isEqualTo(42L);
+        assertThat(transactionCountService.approximateCount(filter(1L, TransactionType.DEPOSIT))).isEqualTo(42L);
+        assertThat(transactionCountService.approximateCount(filter(2L, TransactionType.DEPOSIT))).isEqualTo(7L);
+
+        verify(transactionRepository, times(2)).count(any(Specification.class));
+    }
+}
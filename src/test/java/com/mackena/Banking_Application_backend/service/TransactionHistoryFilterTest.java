@@ -0,0 +1,320 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dtos.request.TransactionHistoryRequest;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionDetailResponse;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionHistoryResponse;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import com.mackena.Banking_Application_backend.support.SqlStatementRecorder;
+import com.mackena.Banking_Application_backend.util.generator.ReferenceNumberGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every combination of the four history filters (date, type, direction, amount) against PostgreSQL,
+ * scoped to one account and to one user, and compares the result with the same filters applied in Java.
+ * Also walks the history page by page with cursors, and counts the statements a page costs.
+ */
+@PostgresIntegrationTest
+@Import(SqlStatementRecorder.class)
+class TransactionHistoryFilterTest {
+
+    private static final LocalDateTime OLD = LocalDateTime.of(2020, 1, 15, 12, 0);
+    private static final LocalDateTime RECENT = LocalDateTime.of(2025, 6, 15, 12, 0);
+
+    private static final int DATE = 1;
+    private static final int TYPE = 2;
+    private static final int DIRECTION = 4;
+    private static final int AMOUNT = 8;
+
+    @Autowired private TransactionHistoryService transactionHistoryService;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ReferenceNumberGenerator referenceNumberGenerator;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private SqlStatementRecorder sqlStatementRecorder;
+    @Autowired private TransactionPartitionService transactionPartitionService;
+
+    private User owner;
+    private Account firstAccount;
+    private List<Transaction> seeded;
+
+    @BeforeEach
+    void seed() {
+        transactionPartitionService.createPartitions(YearMonth.from(OLD), YearMonth.from(OLD));
+        transactionPartitionService.createPartitions(YearMonth.from(RECENT), YearMonth.from(RECENT));
+        owner = userRepository.save(User.builder()
+                .email("history-" + UUID.randomUUID() + "@example.com")
+                .password("unused")
+                .firstName("History")
+                .lastName("Owner")
+                .role(UserRole.USER)
+                .build());
+        firstAccount = accountRepository.save(account(owner));
+        Account secondAccount = accountRepository.save(account(owner));
+
+        // One row for every (account, date, type, direction, amount) so each filter splits the data
+        seeded = new ArrayList<>();
+        for (Account account : List.of(firstAccount, secondAccount)) {
+            for (LocalDateTime createdAt : List.of(OLD, RECENT)) {
+                for (TransactionType type : TransactionType.values()) {
+                    for (TransactionDirection direction : TransactionDirection.values()) {
+                        for (String amount : List.of("50.00", "500.00")) {
+                            Transaction transaction = Transaction.builder()
+                                    .account(account)
+                                    .amount(new BigDecimal(amount))
+                                    .transactionType(type)
+                                    .transactionDirection(direction)
+                                    .referenceNumber(referenceNumberGenerator.generate(type))
+                                    .build();
+                            transaction.setCreatedAt(createdAt);
+                            seeded.add(transaction);
+                        }
+                    }
+                }
+            }
+        }
+        transactionRepository.saveAll(seeded);
+        for (Transaction transaction : seeded) {
+            jdbcTemplate.update("UPDATE transactions SET created_at = ? WHERE id = ?",
+                    transaction.getCreatedAt(), transaction.getId());
+        }
+    }
+
+    static IntStream filterCombinations() {
+        return IntStream.range(0, 16);
+    }
+
+    @ParameterizedTest(name = "filters {0}")
+    @MethodSource("filterCombinations")
+    void testAccountHistory_everyFilterCombination(int filters) {
+        TransactionHistoryRequest request = request(filters);
+
+        TransactionHistoryResponse response = transactionHistoryService.getAccountTransactions(firstAccount.getId(), request);
+
+        Predicate<Transaction> inAccount = t -> t.getAccount().getId().equals(firstAccount.getId());
+        assertThat(references(response)).containsExactlyInAnyOrderElementsOf(expected(inAccount.and(matching(filters))));
+    }
+
+    @ParameterizedTest(name = "filters {0}")
+    @MethodSource("filterCombinations")
+    void testUserHistory_everyFilterCombination(int filters) {
+        TransactionHistoryRequest request = request(filters);
+        request.setUserId(owner.getId());
+
+        TransactionHistoryResponse response = transactionHistoryService.getUserTransactionsForAdmin(request);
+
+        assertThat(references(response)).containsExactlyInAnyOrderElementsOf(expected(matching(filters)));
+    }
+
+    @Test
+    void testAccountHistory_cursorPagesCoverEveryRowOnceInOrder() {
+        // 12 rows share each created_at, so the id tie-breaker decides where pages split
+        List<String> expected = seeded.stream()
+                .filter(t -> t.getAccount().getId().equals(firstAccount.getId()))
+                .sorted(Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId).reversed())
+                .map(Transaction::getReferenceNumber)
+                .toList();
+
+        List<String> walked = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        sqlStatementRecorder.clear();
+        while (cursor != null) {
+            TransactionHistoryRequest request = new TransactionHistoryRequest();
+            request.setSize(5);
+            request.setCursor(cursor);
+            TransactionHistoryResponse response = transactionHistoryService.getAccountTransactions(firstAccount.getId(), request);
+            walked.addAll(references(response));
+            assertThat(response.getTotalElements()).isNull();
+            assertThat(response.isHasNext()).isEqualTo(response.getNextCursor() != null);
+            cursor = response.getNextCursor();
+            pages++;
+        }
+
+        assertThat(walked).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(5);
+        assertThat(sqlStatementRecorder.executionsStartingWith("select count")).isEmpty();
+    }
+
+    @Test
+    void testAccountHistory_withoutTotalSkipsCount() {
+        TransactionHistoryRequest request = request(0);
+        request.setSize(10);
+        request.setIncludeTotal(false);
+
+        sqlStatementRecorder.clear();
+        TransactionHistoryResponse response = transactionHistoryService.getAccountTransactions(firstAccount.getId(), request);
+
+        assertThat(response.getTransactionDetails()).hasSize(10);
+        assertThat(response.isHasNext()).isTrue();
+        assertThat(response.getTotalElements()).isNull();
+        assertThat(sqlStatementRecorder.executionsStartingWith("select count")).isEmpty();
+    }
+
+    @Test
+    void testAccountHistory_firstPageIsLoadedOnceThenServedFromRecentCache() {
+        TransactionHistoryRequest request = request(0);
+        request.setSize(10);
+        List<String> newest = seeded.stream()
+                .filter(t -> t.getAccount().getId().equals(firstAccount.getId()))
+                .sorted(Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId).reversed())
+                .map(Transaction::getReferenceNumber)
+                .limit(10)
+                .toList();
+
+        sqlStatementRecorder.clear();
+        TransactionHistoryResponse loaded = transactionHistoryService.getAccountTransactions(firstAccount.getId(), request);
+        List<SqlStatementRecorder.Execution> loadSelects = sqlStatementRecorder.executionsStartingWith("select");
+        sqlStatementRecorder.clear();
+        TransactionHistoryResponse cached = transactionHistoryService.getAccountTransactions(firstAccount.getId(), request);
+
+        assertThat(references(loaded)).containsExactlyElementsOf(newest);
+        assertThat(loaded.getTotalElements()).isEqualTo(24);
+        assertThat(loadSelects).hasSize(2);
+        assertThat(references(cached)).containsExactlyElementsOf(newest);
+        assertThat(cached.getTotalElements()).isEqualTo(24);
+        assertThat(sqlStatementRecorder.executionsStartingWith("select")).isEmpty();
+    }
+
+    @Test
+    void testUserHistory_adminTotalIsCountedOnceThenCached() {
+        TransactionHistoryRequest request = request(TYPE);
+        request.setUserId(owner.getId());
+        request.setSize(5);
+
+        sqlStatementRecorder.clear();
+        TransactionHistoryResponse first = transactionHistoryService.getUserTransactionsForAdmin(request);
+        request.setPage(1);
+        TransactionHistoryResponse second = transactionHistoryService.getUserTransactionsForAdmin(request);
+
+        assertThat(first.getTotalElements()).isEqualTo(16);
+        assertThat(first.getTotalPages()).isEqualTo(4);
+        assertThat(first.isTotalApproximate()).isTrue();
+        assertThat(second.getTotalElements()).isEqualTo(16);
+        assertThat(sqlStatementRecorder.executionsStartingWith("select count")).hasSize(1);
+    }
+
+    @Test
+    void testAccountHistory_pageWithExactTotalCostsAtMostTwoStatements() {
+        TransactionHistoryRequest request = request(0);
+        request.setSize(5);
+        request.setPage(1);
+
+        sqlStatementRecorder.clear();
+        TransactionHistoryResponse paged = transactionHistoryService.getAccountTransactions(firstAccount.getId(), request);
+        List<SqlStatementRecorder.Execution> pagedSelects = sqlStatementRecorder.executionsStartingWith("select");
+
+        request.setSize(100);
+        request.setPage(0);
+        sqlStatementRecorder.clear();
+        TransactionHistoryResponse whole = transactionHistoryService.getAccountTransactions(firstAccount.getId(), request);
+
+        assertThat(paged.getTransactionDetails()).hasSize(5);
+        assertThat(paged.getTotalElements()).isEqualTo(24);
+        assertThat(paged.getTransactionDetails()).allSatisfy(detail ->
+                assertThat(detail.getAccountNumber()).isEqualTo(firstAccount.getAccountNumber()));
+        assertThat(pagedSelects).hasSize(2);
+        // When the first page holds every row its size is the total, so no COUNT is sent
+        assertThat(whole.getTotalElements()).isEqualTo(24);
+        assertThat(sqlStatementRecorder.executionsStartingWith("select")).hasSize(1);
+    }
+
+    @Test
+    void testUserHistory_pageCostsAtMostTwoStatements() {
+        TransactionHistoryRequest request = request(DIRECTION);
+        request.setUserId(owner.getId());
+        request.setSize(5);
+
+        sqlStatementRecorder.clear();
+        TransactionHistoryResponse response = transactionHistoryService.getUserTransactionsForAdmin(request);
+
+        assertThat(response.getTransactionDetails()).hasSize(5);
+        assertThat(response.getTransactionDetails()).allSatisfy(detail ->
+                assertThat(detail.getAccountNumber()).isNotNull());
+        assertThat(sqlStatementRecorder.executionsStartingWith("select")).hasSizeLessThanOrEqualTo(2);
+    }
+
+    private TransactionHistoryRequest request(int filters) {
+        TransactionHistoryRequest request = new TransactionHistoryRequest();
+        request.setSize(100);
+        if ((filters & DATE) != 0) {
+            request.setStartDate(LocalDateTime.of(2025, 1, 1, 0, 0));
+            request.setEndDate(LocalDateTime.of(2025, 12, 31, 23, 59, 59));
+        }
+        if ((filters & TYPE) != 0) {
+            request.setTransactionType("TRANSFER");
+        }
+        if ((filters & DIRECTION) != 0) {
+            request.setTransactionDirection("CREDIT");
+        }
+        if ((filters & AMOUNT) != 0) {
+            request.setMinAmount(new BigDecimal("100"));
+            request.setMaxAmount(new BigDecimal("1000"));
+        }
+        return request;
+    }
+
+    private Predicate<Transaction> matching(int filters) {
+        Predicate<Transaction> predicate = t -> true;
+        if ((filters & DATE) != 0) {
+            predicate = predicate.and(t -> t.getCreatedAt().equals(RECENT));
+        }
+        if ((filters & TYPE) != 0) {
+            predicate = predicate.and(t -> t.getTransactionType() == TransactionType.TRANSFER);
+        }
+        if ((filters & DIRECTION) != 0) {
+            predicate = predicate.and(t -> t.getTransactionDirection() == TransactionDirection.CREDIT);
+        }
+        if ((filters & AMOUNT) != 0) {
+            predicate = predicate.and(t -> t.getAmount().compareTo(new BigDecimal("500")) == 0);
+        }
+        return predicate;
+    }
+
+    private List<String> expected(Predicate<Transaction> predicate) {
+        return seeded.stream().filter(predicate).map(Transaction::getReferenceNumber).toList();
+    }
+
+    private List<String> references(TransactionHistoryResponse response) {
+        return response.getTransactionDetails().stream().map(TransactionDetailResponse::getReferenceNumber).toList();
+    }
+
+    private Account account(User user) {
+        return Account.builder()
+                .user(user)
+                .accountNumber("TH" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase())
+                .accountType(AccountType.CHECKING)
+                .balance(new BigDecimal("100.00"))
+                .transactionPin("unused")
+                .isActive(true)
+                .build();
+    }
+}
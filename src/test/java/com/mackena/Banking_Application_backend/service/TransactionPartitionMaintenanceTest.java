@@ -0,0 +1,109 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import com.mackena.Banking_Application_backend.util.generator.ReferenceNumberGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Creates and detaches monthly partitions of transactions far in the future, where maintenance never reaches,
+ * and checks that rows land in their month's partition and leave the table with it.
+ */
+@PostgresIntegrationTest
+class TransactionPartitionMaintenanceTest {
+
+    private static final YearMonth FIRST = YearMonth.of(2090, 1);
+    private static final YearMonth LAST = YearMonth.of(2090, 3);
+
+    @Autowired private TransactionPartitionService transactionPartitionService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void dropTestPartitions() {
+        for (YearMonth month = FIRST; !month.isAfter(LAST); month = month.plusMonths(1)) {
+            String suffix = String.format("y%04dm%02d", month.getYear(), month.getMonthValue());
+            jdbcTemplate.execute("DROP TABLE IF EXISTS transactions_" + suffix);
+            jdbcTemplate.execute("DROP TABLE IF EXISTS transactions_archive_" + suffix);
+        }
+    }
+
+    @Test
+    void testCreatePartitions_createsEachMonthOnce() {
+        assertThat(transactionPartitionService.createPartitions(FIRST, LAST))
+                .containsExactly(FIRST, FIRST.plusMonths(1), LAST);
+        assertThat(transactionPartitionService.createPartitions(FIRST, LAST)).isEmpty();
+        assertThat(transactionPartitionService.partitionedMonths()).contains(FIRST, FIRST.plusMonths(1), LAST);
+    }
+
+    @Test
+    void testDetachPartition_movesItsRowsToTheArchiveTable() {
+        transactionPartitionService.createPartitions(FIRST, LAST);
+        String reference = insertTransaction(FIRST.atDay(10).atTime(9, 30));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transactions_y2090m01 WHERE reference_number = ?",
+                Long.class, reference)).isEqualTo(1);
+
+        assertThat(transactionPartitionService.detachPartition(FIRST)).isTrue();
+        assertThat(transactionPartitionService.detachPartition(FIRST)).isFalse();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE reference_number = ?",
+                Long.class, reference)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transactions_archive_y2090m01 WHERE reference_number = ?",
+                Long.class, reference)).isEqualTo(1);
+        assertThat(transactionPartitionService.partitionedMonths()).doesNotContain(FIRST).contains(LAST);
+    }
+
+    @Test
+    void testInsert_withoutPartitionForItsMonth_isRejected() {
+        // There is no default partition, so a month nobody created cannot silently collect rows
+        assertThatThrownBy(() -> insertTransaction(LAST.plusMonths(1).atDay(1).atStartOfDay()))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void testInsert_repeatedReferenceIsRejected() {
+        // created_at is derived from the reference, so a repeated reference always repeats it too
+        String reference = new ReferenceNumberGenerator(7).generate(TransactionType.DEPOSIT);
+        LocalDateTime createdAt = ReferenceNumberGenerator.timestampOf(reference);
+        insertTransaction(reference, createdAt);
+
+        assertThatThrownBy(() -> insertTransaction(reference, createdAt))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    private String insertTransaction(LocalDateTime createdAt) {
+        return insertTransaction("PRT" + UUID.randomUUID().toString().substring(0, 8), createdAt);
+    }
+
+    private String insertTransaction(String reference, LocalDateTime createdAt) {
+        String owner = "PRT" + UUID.randomUUID().toString().substring(0, 8);
+        Long userId = jdbcTemplate.queryForObject("""
+                INSERT INTO users (id, email, password, first_name, last_name, role, is_enabled, created_at)
+                VALUES (nextval('users_seq'), lower(?) || '@example.com', 'unused', 'Partition', 'Owner', 'USER', true, now())
+                RETURNING id
+                """, Long.class, owner);
+        Long accountId = jdbcTemplate.queryForObject("""
+                INSERT INTO accounts (id, user_id, account_number, account_type, balance, is_active, created_at, version)
+                VALUES (nextval('accounts_seq'), ?, ?, 'CHECKING', 0, true, now(), 0)
+                RETURNING id
+                """, Long.class, userId, owner);
+        jdbcTemplate.update("""
+                INSERT INTO transactions (id, account_id, user_id, amount, transaction_type, transaction_direction,
+                                          reference_number, status, balance_after, created_at)
+                VALUES (nextval('transactions_seq'), ?, ?, 10, 'DEPOSIT', 'CREDIT', ?, 'COMPLETED', 10, ?)
+                """, accountId, userId, reference, createdAt);
+        return reference;
+    }
+}
@@ -0,0 +1,106 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dtos.request.TransactionHistoryRequest;
+import com.mackena.Banking_Application_backend.dtos.request.TransferRequest;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionHistoryResponse;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.UserRepository;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import com.mackena.Banking_Application_backend.support.SqlStatementRecorder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@PostgresIntegrationTest
+@Import(SqlStatementRecorder.class)
+class TransferInsertBatchingTest {
+
+    @Autowired private TransferService transferService;
+    @Autowired private TransactionHistoryService transactionHistoryService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private SqlStatementRecorder sqlStatementRecorder;
+
+    @MockitoBean private PasswordEncoder passwordEncoder;
+
+    @Test
+    void testTransferMoney_writesBothLegsInOneBatchedInsert() {
+        when(passwordEncoder.matches(any(), any())).thenReturn(true);
+        User owner = owner();
+        List<Account> accounts = accountRepository.saveAll(List.of(account(owner), account(owner)));
+        TransferRequest request = transfer(accounts.get(0), accounts.get(1), "25.00");
+
+        sqlStatementRecorder.clear();
+        transferService.transferMoney(request, owner);
+
+        List<SqlStatementRecorder.Execution> inserts = sqlStatementRecorder.executionsStartingWith("insert into transactions");
+        assertThat(inserts).hasSize(1);
+        assertThat(inserts.get(0).batch()).isTrue();
+        assertThat(inserts.get(0).batchSize()).isEqualTo(2);
+    }
+
+    @Test
+    void testTransferMoney_updatesCachedFirstPagesInPlace() {
+        when(passwordEncoder.matches(any(), any())).thenReturn(true);
+        User owner = owner();
+        List<Account> accounts = accountRepository.saveAll(List.of(account(owner), account(owner)));
+        transferService.transferMoney(transfer(accounts.get(0), accounts.get(1), "10.00"), owner);
+        TransactionHistoryRequest firstPage = new TransactionHistoryRequest();
+        firstPage.setSize(5);
+        transactionHistoryService.getAccountTransactions(accounts.get(1).getId(), firstPage);
+
+        transferService.transferMoney(transfer(accounts.get(0), accounts.get(1), "25.00"), owner);
+        sqlStatementRecorder.clear();
+        TransactionHistoryResponse response = transactionHistoryService.getAccountTransactions(accounts.get(1).getId(), firstPage);
+
+        assertThat(sqlStatementRecorder.executionsStartingWith("select")).isEmpty();
+        assertThat(response.getTransactionDetails()).extracting(detail -> detail.getAmount().toPlainString())
+                .containsExactly("25.00", "10.00");
+        assertThat(response.getTransactionDetails().get(0).getBalanceAfter()).isEqualByComparingTo("135.00");
+        assertThat(response.getTotalElements()).isEqualTo(2);
+    }
+
+    private User owner() {
+        return userRepository.save(User.builder()
+                .email("batching-" + UUID.randomUUID() + "@example.com")
+                .password("unused")
+                .firstName("Batch")
+                .lastName("Owner")
+                .role(UserRole.USER)
+                .build());
+    }
+
+    private TransferRequest transfer(Account sender, Account receiver, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setSenderAccountNumber(sender.getAccountNumber());
+        request.setReceiverAccountNumber(receiver.getAccountNumber());
+        request.setAmount(new BigDecimal(amount));
+        request.setTransactionPin("1234");
+        return request;
+    }
+
+    private Account account(User owner) {
+        return Account.builder()
+                .user(owner)
+                .accountNumber("BT" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase())
+                .accountType(AccountType.CHECKING)
+                .balance(new BigDecimal("100.00"))
+                .transactionPin("unused")
+                .isActive(true)
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dtos.request.TransferRequest;
+import com.mackena.Banking_Application_backend.dtos.response.TransferResponse;
+import com.mackena.Banking_Application_backend.exceptions.InsufficientFundsException;
+import com.mackena.Banking_Application_backend.exceptions.InvalidPinException;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.service.impl.TransferServiceImpl;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerLeg;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerPosting;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerWriter;
+import com.mackena.Banking_Application_backend.util.generator.ReferenceNumberGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransferServiceImplTest {
+
+    @InjectMocks
+    private TransferServiceImpl transferService;
+
+    @Mock private AccountRepository accountRepository;
+    @Mock private LedgerWriter ledgerWriter;
+    @Mock private PasswordEncoder passwordEncoder;
+    @Mock private TransactionAuthorizationService transactionAuthorizationService;
+    @Mock private RecentTransactionService recentTransactionService;
+    @Spy private ReferenceNumberGenerator referenceNumberGenerator = new ReferenceNumberGenerator(1);
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        owner = new User();
+        owner.setId(1L);
+        owner.setEmail("owner@example.com");
+        owner.setRole(UserRole.USER);
+
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+    }
+
+    private Account account(Long id, String accountNumber, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .user(owner)
+                .accountNumber(accountNumber)
+                .accountType(AccountType.SAVINGS)
+                .balance(new BigDecimal(balance))
+                .transactionPin("hashed")
+                .isActive(true)
+                .build();
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+        return account;
+    }
+
+    private TransferRequest request(String from, String to, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setSenderAccountNumber(from);
+        request.setReceiverAccountNumber(to);
+        request.setAmount(new BigDecimal(amount));
+        request.setTransactionPin("1234");
+        return request;
+    }
+
+    @Test
+    void testTransferMoney_postsDebitAndCreditLegs() {
+        Account sender = account(1L, "ACC_A", "1000");
+        Account receiver = account(2L, "ACC_B", "0");
+        doAnswer(invocation -> {
+            LedgerPosting posting = invocation.getArgument(0);
+            posting.getLegs().get(0).getEntry().setBalanceAfter(new BigDecimal("50"));
+            posting.getLegs().get(1).getEntry().setBalanceAfter(new BigDecimal("240"));
+            return null;
+        }).when(ledgerWriter).post(any());
+
+        TransferResponse response = transferService.transferMoney(request("ACC_A", "ACC_B", "200"), owner);
+
+        ArgumentCaptor<LedgerPosting> posting = ArgumentCaptor.forClass(LedgerPosting.class);
+        verify(ledgerWriter).post(posting.capture());
+        LedgerLeg debit = posting.getValue().getLegs().get(0);
+        LedgerLeg credit = posting.getValue().getLegs().get(1);
+        assertThat(debit.isDebit()).isTrue();
+        assertThat(debit.getEntry().getAccount()).isSameAs(sender);
+        assertThat(debit.getFloor()).isEqualByComparingTo("0");
+        assertThat(credit.isDebit()).isFalse();
+        assertThat(credit.getEntry().getAccount()).isSameAs(receiver);
+        // Balance comes from the ledger update, not from the balance read before it
+        assertThat(response.getSenderBalanceAfter()).isEqualByComparingTo("50");
+        verify(recentTransactionService).recordPosted(List.of(debit.getEntry(), credit.getEntry()));
+    }
+
+    @Test
+    void testTransferMoney_rejectedPostingPropagates() {
+        account(1L, "ACC_A", "1000");
+        account(2L, "ACC_B", "0");
+        doThrow(new InsufficientFundsException("Insufficient balance")).when(ledgerWriter).post(any());
+
+        assertThatThrownBy(() -> transferService.transferMoney(request("ACC_A", "ACC_B", "200"), owner))
+                .isInstanceOf(InsufficientFundsException.class);
+        verify(recentTransactionService, never()).recordPosted(any());
+    }
+
+    @Test
+    void testTransferMoney_insufficientReadBalanceNeverPosts() {
+        account(1L, "ACC_A", "100");
+        account(2L, "ACC_B", "0");
+
+        assertThatThrownBy(() -> transferService.transferMoney(request("ACC_A", "ACC_B", "200"), owner))
+                .isInstanceOf(InsufficientFundsException.class);
+        verify(ledgerWriter, never()).post(any());
+    }
+
+    @Test
+    void testTransferMoney_invalidPinNeverPosts() {
+        account(1L, "ACC_A", "1000");
+        account(2L, "ACC_B", "0");
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
+
+        assertThatThrownBy(() -> transferService.transferMoney(request("ACC_A", "ACC_B", "200"), owner))
+                .isInstanceOf(InvalidPinException.class);
+        verify(ledgerWriter, never()).post(any());
+    }
+
+    @Test
+    void testTransferMoney_tokenSkipsPinAndIsReleasedOnRejection() {
+        Account sender = account(1L, "ACC_A", "1000");
+        account(2L, "ACC_B", "0");
+        doThrow(new InsufficientFundsException("Insufficient balance")).when(ledgerWriter).post(any());
+        TransferRequest request = request("ACC_A", "ACC_B", "200");
+        request.setTransactionPin(null);
+        request.setTransactionToken("token");
+
+        assertThatThrownBy(() -> transferService.transferMoney(request, owner))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verify(transactionAuthorizationService).redeem("token", sender, owner, new BigDecimal("200"));
+        verify(transactionAuthorizationService).release("token", new BigDecimal("200"));
+    }
+
+    @Test
+    void testTransferMoney_bookkeepingFailureAfterPostingKeepsTheTransfer() {
+        account(1L, "ACC_A", "1000");
+        account(2L, "ACC_B", "0");
+        doThrow(new IllegalStateException("cache")).when(recentTransactionService).recordPosted(any());
+        TransferRequest request = request("ACC_A", "ACC_B", "200");
+        request.setTransactionPin(null);
+        request.setTransactionToken("token");
+
+        TransferResponse response = transferService.transferMoney(request, owner);
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        verify(transactionAuthorizationService, never()).release(anyString(), any());
+    }
+}
@@ -0,0 +1,91 @@
+package com.mackena.Banking_Application_backend.service;
+
+import com.mackena.Banking_Application_backend.dtos.request.WithdrawalRequest;
+import com.mackena.Banking_Application_backend.dtos.response.TransactionResponse;
+import com.mackena.Banking_Application_backend.exceptions.InsufficientFundsException;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.User;
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.models.enums.UserRole;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.service.impl.WithdrawalServiceImpl;
+import com.mackena.Banking_Application_backend.service.ledger.LedgerWriter;
+import com.mackena.Banking_Application_backend.util.generator.ReferenceNumberGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WithdrawalServiceImplTest {
+
+    @InjectMocks
+    private WithdrawalServiceImpl withdrawalService;
+
+    @Mock private AccountRepository accountRepository;
+    @Mock private LedgerWriter ledgerWriter;
+    @Mock private PasswordEncoder passwordEncoder;
+    @Mock private TransactionAuthorizationService transactionAuthorizationService;
+    @Mock private RecentTransactionService recentTransactionService;
+    @Spy private ReferenceNumberGenerator referenceNumberGenerator = new ReferenceNumberGenerator(1);
+
+    private User owner;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        owner = new User();
+        owner.setId(1L);
+        owner.setRole(UserRole.USER);
+
+        account = Account.builder()
+                .id(7L)
+                .user(owner)
+                .accountNumber("ACC_A")
+                .accountType(AccountType.SAVINGS)
+                .balance(new BigDecimal("1000"))
+                .transactionPin("hashed")
+                .isActive(true)
+                .build();
+        when(accountRepository.findByAccountNumber("ACC_A")).thenReturn(Optional.of(account));
+    }
+
+    private WithdrawalRequest tokenRequest(String amount) {
+        WithdrawalRequest request = new WithdrawalRequest();
+        request.setAccountNumber("ACC_A");
+        request.setAmount(new BigDecimal(amount));
+        request.setTransactionToken("token");
+        return request;
+    }
+
+    @Test
+    void testProcessWithdrawal_rejectedPostingReleasesTheToken() {
+        doThrow(new InsufficientFundsException("Cannot withdraw")).when(ledgerWriter).post(any());
+
+        assertThatThrownBy(() -> withdrawalService.processWithdrawal(tokenRequest("200"), owner))
+                .hasMessageContaining("Withdrawal failed");
+
+        verify(transactionAuthorizationService).release("token", new BigDecimal("200"));
+        verify(recentTransactionService, never()).recordPosted(any());
+    }
+
+    @Test
+    void testProcessWithdrawal_bookkeepingFailureAfterPostingKeepsTheWithdrawal() {
+        doThrow(new IllegalStateException("cache")).when(recentTransactionService).recordPosted(any());
+
+        TransactionResponse response = withdrawalService.processWithdrawal(tokenRequest("200"), owner);
+
+        // The debit is committed, so the client must not be told to retry it
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        verify(ledgerWriter).post(any());
+        verify(transactionAuthorizationService, never()).release(anyString(), any());
+    }
+}
@@ -0,0 +1,137 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import com.mackena.Banking_Application_backend.exceptions.InsufficientFundsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class GroupCommitLedgerWriterTest {
+
+    private static final int CALLERS = 8;
+
+    @Mock private LedgerPostingProcessor processor;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private GroupCommitLedgerWriter writer;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // A wide window so that every concurrent caller lands in the same batch
+        writer = new GroupCommitLedgerWriter(processor, transactionManager, 200, 256);
+        writer.start();
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        writer.stop();
+    }
+
+    private List<CompletableFuture<Void>> postConcurrently(List<LedgerPosting> postings) {
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (LedgerPosting posting : postings) {
+            results.add(CompletableFuture.runAsync(() -> writer.post(posting), callers));
+        }
+        return results;
+    }
+
+    private List<LedgerPosting> postings(int count) {
+        List<LedgerPosting> postings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            postings.add(LedgerPosting.of());
+        }
+        return postings;
+    }
+
+    @Test
+    void testPost_concurrentPostingsShareOneCommit() {
+        List<CompletableFuture<Void>> results = postConcurrently(postings(CALLERS));
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).orTimeout(5, TimeUnit.SECONDS).join();
+
+        verify(processor, times(CALLERS)).tryApply(any());
+        verify(transactionManager, times(1)).commit(any());
+        assertThat(writer.getCommittedBatches()).isEqualTo(1);
+    }
+
+    @Test
+    void testPost_rejectionOnlyFailsItsOwnCaller() {
+        List<LedgerPosting> postings = postings(CALLERS);
+        LedgerPosting rejected = postings.get(3);
+        when(processor.tryApply(rejected)).thenReturn(new InsufficientFundsException("Insufficient balance"));
+
+        List<CompletableFuture<Void>> results = postConcurrently(postings);
+
+        for (int i = 0; i < CALLERS; i++) {
+            CompletableFuture<Void> result = results.get(i).orTimeout(5, TimeUnit.SECONDS);
+            if (i == 3) {
+                assertThatThrownBy(result::join).hasCauseInstanceOf(InsufficientFundsException.class);
+            } else {
+                assertThatCode(result::join).doesNotThrowAnyException();
+            }
+        }
+        assertThat(writer.getCommittedBatches()).isEqualTo(1);
+    }
+
+    @Test
+    void testPost_failedBatchIsRetriedPostingByPosting() {
+        List<LedgerPosting> postings = postings(CALLERS);
+        LedgerPosting broken = postings.get(5);
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("duplicate reference");
+        when(processor.tryApply(broken)).thenThrow(failure);
+        doThrow(failure).when(processor).apply(broken);
+
+        List<CompletableFuture<Void>> results = postConcurrently(postings);
+
+        for (int i = 0; i < CALLERS; i++) {
+            CompletableFuture<Void> result = results.get(i).orTimeout(5, TimeUnit.SECONDS);
+            if (i == 5) {
+                assertThatThrownBy(result::join).hasCauseInstanceOf(DataIntegrityViolationException.class);
+            } else {
+                assertThatCode(result::join).doesNotThrowAnyException();
+            }
+        }
+        verify(processor, times(CALLERS)).apply(any());
+        assertThat(writer.getCommittedBatches()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void testPost_rejectedOnceStopped() throws InterruptedException {
+        writer.stop();
+
+        assertThatThrownBy(() -> writer.post(LedgerPosting.of()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not running");
+    }
+
+    @Test
+    void testPost_flusherDyingFailsWaitingCallersInsteadOfHangingThem() {
+        when(processor.tryApply(any())).thenThrow(new Error("flusher killed"));
+
+        List<CompletableFuture<Void>> results = postConcurrently(postings(CALLERS));
+
+        for (CompletableFuture<Void> result : results) {
+            assertThatThrownBy(() -> result.orTimeout(5, TimeUnit.SECONDS).join())
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThatThrownBy(() -> writer.post(LedgerPosting.of())).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,178 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import com.mackena.Banking_Application_backend.exceptions.InsufficientFundsException;
+import com.mackena.Banking_Application_backend.exceptions.InvalidAccountException;
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.TransactionRepository;
+import com.mackena.Banking_Application_backend.repository.projection.AccountBalanceSnapshot;
+import com.mackena.Banking_Application_backend.service.LowBalanceWatchlistService;
+import com.mackena.Banking_Application_backend.service.SystemAggregateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LedgerPostingProcessorTest {
+
+    @InjectMocks
+    private LedgerPostingProcessor processor;
+
+    @Mock private AccountRepository accountRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private SystemAggregateService systemAggregateService;
+    @Mock private LowBalanceWatchlistService lowBalanceWatchlistService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private Transaction entry(Long accountId, TransactionDirection direction, String amount) {
+        Account account = Account.builder().id(accountId).build();
+        return Transaction.builder()
+                .account(account)
+                .amount(new BigDecimal(amount))
+                .transactionDirection(direction)
+                .build();
+    }
+
+    private LedgerPosting transfer(Transaction debit, Transaction credit) {
+        return LedgerPosting.of(
+                LedgerLeg.debit(debit, BigDecimal.ZERO, () -> new InsufficientFundsException("Insufficient balance")),
+                LedgerLeg.credit(credit, () -> new InvalidAccountException("Receiver account is not active")));
+    }
+
+    @Test
+    void testApply_updatesLowestAccountIdFirst() {
+        Transaction debit = entry(7L, TransactionDirection.DEBIT, "100");
+        Transaction credit = entry(3L, TransactionDirection.CREDIT, "100");
+        when(accountRepository.debitBalance(7L, new BigDecimal("100"), BigDecimal.ZERO))
+                .thenReturn(Optional.of(new BigDecimal("400")));
+        when(accountRepository.creditBalance(3L, new BigDecimal("100")))
+                .thenReturn(Optional.of(new BigDecimal("600")));
+
+        processor.apply(transfer(debit, credit));
+
+        InOrder inOrder = inOrder(accountRepository, transactionRepository);
+        inOrder.verify(accountRepository).creditBalance(3L, new BigDecimal("100"));
+        inOrder.verify(accountRepository).debitBalance(7L, new BigDecimal("100"), BigDecimal.ZERO);
+        inOrder.verify(transactionRepository).saveAll(List.of(debit, credit));
+        assertThat(debit.getBalanceAfter()).isEqualByComparingTo("400");
+        assertThat(credit.getBalanceAfter()).isEqualByComparingTo("600");
+        // A transfer moves money between accounts without changing the system total
+        verify(systemAggregateService).recordBalanceChange(argThat(net -> net.signum() == 0));
+        verify(lowBalanceWatchlistService).recordBalance(7L, new BigDecimal("400"));
+        verify(lowBalanceWatchlistService).recordBalance(3L, new BigDecimal("600"));
+    }
+
+    @Test
+    void testTryApply_rejectedLegCompensatesAppliedLegs() {
+        Transaction debit = entry(7L, TransactionDirection.DEBIT, "100");
+        Transaction credit = entry(3L, TransactionDirection.CREDIT, "100");
+        when(accountRepository.creditBalance(3L, new BigDecimal("100")))
+                .thenReturn(Optional.of(new BigDecimal("600")));
+        when(accountRepository.debitBalance(anyLong(), any(), any())).thenReturn(Optional.empty());
+
+        RuntimeException rejection = processor.tryApply(transfer(debit, credit));
+
+        assertThat(rejection).isInstanceOf(InsufficientFundsException.class);
+        verify(accountRepository).creditBalance(3L, new BigDecimal("-100"));
+        verify(transactionRepository, never()).saveAll(any());
+        assertThat(credit.getBalanceAfter()).isNull();
+        verifyNoInteractions(systemAggregateService, lowBalanceWatchlistService);
+    }
+
+    @Test
+    void testApply_rejectedFirstLegThrowsWithoutFurtherUpdates() {
+        Transaction debit = entry(1L, TransactionDirection.DEBIT, "100");
+        Transaction credit = entry(2L, TransactionDirection.CREDIT, "100");
+        when(accountRepository.debitBalance(anyLong(), any(), any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> processor.apply(transfer(debit, credit)))
+                .isInstanceOf(InsufficientFundsException.class);
+        verify(accountRepository, never()).creditBalance(anyLong(), any());
+        verify(transactionRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testLockAccounts_locksEveryAccountOnceInAscendingOrder() {
+        LedgerPosting first = transfer(entry(9L, TransactionDirection.DEBIT, "10"), entry(4L, TransactionDirection.CREDIT, "10"));
+        LedgerPosting second = transfer(entry(4L, TransactionDirection.DEBIT, "5"), entry(1L, TransactionDirection.CREDIT, "5"));
+
+        processor.lockAccounts(List.of(first, second));
+
+        verify(accountRepository).lockInIdOrder(List.of(1L, 4L, 9L));
+    }
+
+    private AccountBalanceSnapshot snapshot(String balance, long version) {
+        AccountBalanceSnapshot snapshot = mock(AccountBalanceSnapshot.class);
+        when(snapshot.getBalance()).thenReturn(new BigDecimal(balance));
+        when(snapshot.getVersion()).thenReturn(version);
+        when(snapshot.getActive()).thenReturn(true);
+        return snapshot;
+    }
+
+    private void optimistic(int maxAttempts) {
+        ReflectionTestUtils.setField(processor, "concurrency", LedgerConcurrency.OPTIMISTIC);
+        ReflectionTestUtils.setField(processor, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(processor, "backoffMs", 0L);
+    }
+
+    @Test
+    void testApply_optimisticRetriesWhenVersionMoved() {
+        optimistic(3);
+        Transaction credit = entry(5L, TransactionDirection.CREDIT, "100");
+        AccountBalanceSnapshot stale = snapshot("500", 1);
+        AccountBalanceSnapshot fresh = snapshot("700", 2);
+        when(accountRepository.findBalanceSnapshot(5L)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(accountRepository.compareAndSetBalance(5L, new BigDecimal("600"), 1L)).thenReturn(Optional.empty());
+        when(accountRepository.compareAndSetBalance(5L, new BigDecimal("800"), 2L))
+                .thenReturn(Optional.of(new BigDecimal("800")));
+
+        processor.apply(LedgerPosting.of(LedgerLeg.credit(credit, () -> new InvalidAccountException("inactive"))));
+
+        assertThat(credit.getBalanceAfter()).isEqualByComparingTo("800");
+        verify(accountRepository, never()).creditBalance(anyLong(), any());
+        verify(systemAggregateService).recordBalanceChange(new BigDecimal("100"));
+    }
+
+    @Test
+    void testApply_optimisticDebitBelowFloorIsRejectedWithoutWriting() {
+        optimistic(3);
+        Transaction debit = entry(5L, TransactionDirection.DEBIT, "100");
+        AccountBalanceSnapshot snapshot = snapshot("50", 4);
+        when(accountRepository.findBalanceSnapshot(5L)).thenReturn(Optional.of(snapshot));
+
+        assertThatThrownBy(() -> processor.apply(LedgerPosting.of(LedgerLeg.debit(debit, BigDecimal.ZERO,
+                () -> new InsufficientFundsException("Insufficient balance")))))
+                .isInstanceOf(InsufficientFundsException.class);
+        verify(accountRepository, never()).compareAndSetBalance(anyLong(), any(), anyLong());
+    }
+
+    @Test
+    void testApply_optimisticGivesUpAfterMaxAttempts() {
+        optimistic(3);
+        Transaction credit = entry(5L, TransactionDirection.CREDIT, "100");
+        AccountBalanceSnapshot snapshot = snapshot("500", 1);
+        when(accountRepository.findBalanceSnapshot(5L)).thenReturn(Optional.of(snapshot));
+        when(accountRepository.compareAndSetBalance(anyLong(), any(), anyLong())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> processor.apply(LedgerPosting.of(
+                LedgerLeg.credit(credit, () -> new InvalidAccountException("inactive")))))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(accountRepository, times(3)).compareAndSetBalance(anyLong(), any(), anyLong());
+        verify(transactionRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,175 @@
+package com.mackena.Banking_Application_backend.service.ledger;
+
+import com.mackena.Banking_Application_backend.models.entity.Account;
+import com.mackena.Banking_Application_backend.models.entity.Transaction;
+import com.mackena.Banking_Application_backend.models.enums.TransactionDirection;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SequencedLedgerWriterTest {
+
+    private static final int CALLERS = 6;
+
+    @Mock private LedgerPostingProcessor processor;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SequencedLedgerWriter writer;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new SequencedLedgerWriter(processor, transactionManager, meterRegistry, 4, 64);
+        writer.start();
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        writer.stop();
+    }
+
+    private Transaction entry(Long accountId, TransactionDirection direction) {
+        return Transaction.builder()
+                .account(Account.builder().id(accountId).build())
+                .amount(BigDecimal.ONE)
+                .transactionDirection(direction)
+                .build();
+    }
+
+    private LedgerPosting transfer(Long fromId, Long toId) {
+        return LedgerPosting.of(
+                LedgerLeg.debit(entry(fromId, TransactionDirection.DEBIT), BigDecimal.ZERO, IllegalStateException::new),
+                LedgerLeg.credit(entry(toId, TransactionDirection.CREDIT), IllegalStateException::new));
+    }
+
+    private double queueDepth() {
+        return meterRegistry.find("ledger.sequencer.queue.depth").gauges().stream()
+                .mapToDouble(Gauge::value)
+                .sum();
+    }
+
+    @Test
+    void testRoutingAccountId_followsCreditedAccount() {
+        assertThat(SequencedLedgerWriter.routingAccountId(transfer(3L, 42L))).isEqualTo(42L);
+        assertThat(SequencedLedgerWriter.routingAccountId(
+                LedgerPosting.of(LedgerLeg.debit(entry(9L, TransactionDirection.DEBIT), BigDecimal.ZERO,
+                        IllegalStateException::new)))).isEqualTo(9L);
+    }
+
+    @Test
+    void testPost_creditsToHotAccountQueueUpAndCommitTogether() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LedgerPosting first = transfer(1L, 500L);
+        doAnswer(invocation -> {
+            firstStarted.countDown();
+            release.await();
+            return null;
+        }).when(processor).tryApply(first);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(CompletableFuture.runAsync(() -> writer.post(first), callers));
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Different senders, same merchant account: all wait behind the first posting on one stripe
+        for (long sender = 2; sender <= CALLERS; sender++) {
+            LedgerPosting posting = transfer(sender, 500L);
+            results.add(CompletableFuture.runAsync(() -> writer.post(posting), callers));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> queueDepth() == CALLERS - 1);
+
+        release.countDown();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertThat(writer.getCommittedBatches()).isEqualTo(2);
+        assertThat(queueDepth()).isZero();
+        verify(processor, times(CALLERS)).tryApply(any());
+    }
+
+    @Test
+    void testPost_unrelatedAccountsDoNotWaitOnABusyStripe() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        LedgerPosting blocked = transfer(1L, 500L);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(processor).tryApply(blocked);
+        CompletableFuture<Void> blockedResult = CompletableFuture.runAsync(() -> writer.post(blocked), callers);
+
+        // Find an account that routes to a different stripe than the blocked merchant account
+        long other = 501L;
+        while (writer.stripeIndex(other) == writer.stripeIndex(500L)) {
+            other++;
+        }
+        LedgerPosting unrelated = transfer(2L, other);
+
+        assertThatCode(() -> CompletableFuture.runAsync(() -> writer.post(unrelated), callers)
+                .orTimeout(5, TimeUnit.SECONDS).join()).doesNotThrowAnyException();
+        assertThat(blockedResult).isNotDone();
+
+        release.countDown();
+        blockedResult.orTimeout(5, TimeUnit.SECONDS).join();
+    }
+
+    @Test
+    void testPost_rejectedOnceStopped() throws InterruptedException {
+        writer.stop();
+
+        assertThatThrownBy(() -> writer.post(transfer(1L, 2L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not running");
+    }
+
+    @Test
+    void testPost_stripeDyingFailsWaitingCallersInsteadOfHangingThem() throws Exception {
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LedgerPosting first = transfer(1L, 500L);
+        doAnswer(invocation -> {
+            applying.countDown();
+            release.await();
+            throw new Error("stripe killed");
+        }).when(processor).tryApply(first);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(CompletableFuture.runAsync(() -> writer.post(first), callers));
+        // The rest must queue behind the batch holding the first, not be drained into it
+        assertThat(applying.await(5, TimeUnit.SECONDS)).isTrue();
+        for (long sender = 2; sender <= CALLERS; sender++) {
+            LedgerPosting posting = transfer(sender, 500L);
+            results.add(CompletableFuture.runAsync(() -> writer.post(posting), callers));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> queueDepth() == CALLERS - 1);
+
+        release.countDown();
+        for (CompletableFuture<Void> result : results) {
+            assertThatThrownBy(() -> result.orTimeout(5, TimeUnit.SECONDS).join())
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThatThrownBy(() -> writer.post(transfer(2L, 3L))).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,85 @@
+package com.mackena.Banking_Application_backend.service.search;
+
+import com.mackena.Banking_Application_backend.models.enums.AccountType;
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.projection.AccountSearchRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NgramAccountSearchIndexTest {
+
+    @Mock private AccountRepository accountRepository;
+
+    private NgramAccountSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        searchIndex = new NgramAccountSearchIndex(accountRepository);
+        ReflectionTestUtils.setField(searchIndex, "loadBatchSize", 2);
+        when(accountRepository.findSearchRowsAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(
+                row(1L, "ACC100", "Ann", "Smith", "ann.smith@example.com"),
+                row(2L, "ACC200", "Bob", "Smithers", "bob@example.com")));
+        when(accountRepository.findSearchRowsAfter(2L, PageRequest.of(0, 2))).thenReturn(List.of(
+                row(3L, "ACC300", "Smith", "Jones", "sj@example.com"),
+                // Holds both trigrams of "mith", but never next to each other
+                row(4L, "ACC400", "Amit", "Keith", "ak@example.com")));
+        when(accountRepository.findSearchRowsAfter(4L, PageRequest.of(0, 2))).thenReturn(List.of());
+    }
+
+    private AccountSearchRow row(Long id, String accountNumber, String firstName, String lastName, String email) {
+        return new AccountSearchRow(id, accountNumber, AccountType.SAVINGS, BigDecimal.TEN, true, id,
+                firstName, lastName, email);
+    }
+
+    private List<Long> ids(AccountSearchHits hits) {
+        return hits.hits().stream().map(AccountSearchHits.Hit::accountId).toList();
+    }
+
+    @Test
+    void testSearch_ranksExactFieldMatchesFirst() {
+        AccountSearchHits hits = searchIndex.search("SMITH", 0, 10);
+
+        assertThat(ids(hits)).containsExactly(1L, 3L, 2L);
+        assertThat(hits.hits().get(0).rank()).isEqualTo(1.0);
+        assertThat(hits.hits().get(2).rank()).isEqualTo(5.0 / 8);
+        assertThat(hits.total()).isEqualTo(3);
+    }
+
+    @Test
+    void testSearch_dropsDocumentsHoldingTheTrigramsButNotTheTerm() {
+        assertThat(ids(searchIndex.search("mith", 0, 10))).containsExactly(1L, 3L, 2L);
+        assertThat(searchIndex.search("zzz", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void testSearch_pagesWithTotalOfAllMatches() {
+        AccountSearchHits second = searchIndex.search("acc", 1, 2);
+        AccountSearchHits beyond = searchIndex.search("acc", 8, 2);
+
+        assertThat(ids(second)).containsExactly(2L, 3L);
+        assertThat(second.total()).isEqualTo(4);
+        assertThat(beyond.hits()).isEmpty();
+        assertThat(beyond.total()).isEqualTo(4);
+    }
+
+    @Test
+    void testSearch_loadsIndexOnceInBatches() {
+        searchIndex.search("smith", 0, 10);
+        searchIndex.search("jones", 0, 10);
+
+        verify(accountRepository, times(3)).findSearchRowsAfter(anyLong(), any());
+    }
+}
@@ -0,0 +1,63 @@
+package com.mackena.Banking_Application_backend.service.search;
+
+import com.mackena.Banking_Application_backend.repository.AccountRepository;
+import com.mackena.Banking_Application_backend.repository.projection.AccountSearchMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TrigramAccountSearchIndexTest {
+
+    @InjectMocks
+    private TrigramAccountSearchIndex searchIndex;
+
+    @Mock private AccountRepository accountRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private AccountSearchMatch match(Long id, double rank) {
+        AccountSearchMatch match = mock(AccountSearchMatch.class);
+        when(match.getId()).thenReturn(id);
+        when(match.getRank()).thenReturn(rank);
+        return match;
+    }
+
+    @Test
+    void testSearch_escapesWildcardsInTheTerm() {
+        searchIndex.search("50%_off\\", 0, 20);
+
+        verify(accountRepository).searchByTrigram("50%_off\\", "%50\\%\\_off\\\\%", 0, 20);
+    }
+
+    @Test
+    void testSearch_fullPageIsCounted() {
+        List<AccountSearchMatch> page = List.of(match(4L, 1.0), match(9L, 0.4));
+        when(accountRepository.searchByTrigram(anyString(), anyString(), eq(0L), eq(2))).thenReturn(page);
+        when(accountRepository.countByTrigram("%smith%")).thenReturn(57L);
+
+        AccountSearchHits hits = searchIndex.search("smith", 0, 2);
+
+        assertThat(hits.hits()).containsExactly(new AccountSearchHits.Hit(4L, 1.0), new AccountSearchHits.Hit(9L, 0.4));
+        assertThat(hits.total()).isEqualTo(57);
+    }
+
+    @Test
+    void testSearch_shortLastPageNeedsNoCount() {
+        List<AccountSearchMatch> page = List.of(match(4L, 0.3));
+        when(accountRepository.searchByTrigram(anyString(), anyString(), eq(40L), eq(20))).thenReturn(page);
+
+        assertThat(searchIndex.search("smith", 40, 20).total()).isEqualTo(41);
+        verify(accountRepository, never()).countByTrigram(anyString());
+    }
+}
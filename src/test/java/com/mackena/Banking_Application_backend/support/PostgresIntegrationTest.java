@@ -0,0 +1,23 @@
+package com.mackena.Banking_Application_backend.support;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a test that needs a real PostgreSQL database (benchmarks, locking and query-plan checks).
+ * These are skipped by default; run them with {@code mvn test -Dpostgres.it=true} against the database
+ * configured in {@code application-postgres-it.properties}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@ActiveProfiles("postgres-it")
+@EnabledIfSystemProperty(named = "postgres.it", matches = "true")
+public @interface PostgresIntegrationTest {
+}
@@ -0,0 +1,81 @@
+package com.mackena.Banking_Application_backend.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records every JDBC execution made through the application's DataSource, including whether it was sent
+ * as a batch and the values bound to it. Add it with {@code @Import(SqlStatementRecorder.class)} and autowire it into the test.
+ */
+@TestConfiguration
+public class SqlStatementRecorder implements QueryExecutionListener {
+
+    private final List<Execution> executions = new CopyOnWriteArrayList<>();
+
+    @Bean
+    static BeanPostProcessor recordingDataSourcePostProcessor(SqlStatementRecorder recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource).listener(recorder).build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    public void clear() {
+        executions.clear();
+    }
+
+    // Executions whose SQL starts with the given prefix, e.g. "insert into transactions"
+    public List<Execution> executionsStartingWith(String sqlPrefix) {
+        String prefix = sqlPrefix.toLowerCase(Locale.ROOT);
+        return executions.stream()
+                .filter(execution -> execution.sql().startsWith(prefix))
+                .toList();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            executions.add(new Execution(sql, execInfo.isBatch(), execInfo.getBatchSize(), parameters(queryInfo)));
+        }
+    }
+
+    // Values of the first (for a plain statement, the only) parameter set, in placeholder order
+    private static List<Object> parameters(QueryInfo queryInfo) {
+        if (queryInfo.getParametersList().isEmpty()) {
+            return List.of();
+        }
+        List<ParameterSetOperation> operations = new ArrayList<>(queryInfo.getParametersList().get(0));
+        operations.sort(Comparator.comparingInt(operation -> ((Number) operation.getArgs()[0]).intValue()));
+        List<Object> values = new ArrayList<>();
+        for (ParameterSetOperation operation : operations) {
+            values.add(ParameterSetOperation.isSetNullParameterOperation(operation) ? null : operation.getArgs()[1]);
+        }
+        return values;
+    }
+
+    public record Execution(String sql, boolean batch, int batchSize, List<Object> parameters) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.mackena.Banking_Application_backend.util.generator;
+
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import com.mackena.Banking_Application_backend.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Leases reference node ids next to the one the application context already holds, as further instances
+ * sharing the database would.
+ */
+@PostgresIntegrationTest
+class ReferenceNodeLeaseTest {
+
+    @Autowired private ReferenceNodeLease contextLease;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final List<ReferenceNodeLease> leases = new ArrayList<>();
+
+    @AfterEach
+    void releaseLeases() {
+        leases.forEach(ReferenceNodeLease::release);
+    }
+
+    @Test
+    void testConfiguredNodeId_heldByAnotherInstance_failsStartup() {
+        assertThatThrownBy(() -> lease(contextLease.nodeId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("held by another running instance");
+    }
+
+    @Test
+    void testUnsetNodeId_takesAFreeOne() {
+        ReferenceNodeLease first = lease(-1);
+        ReferenceNodeLease second = lease(-1);
+
+        assertThat(first.nodeId()).isNotEqualTo(contextLease.nodeId());
+        assertThat(second.nodeId()).isNotIn(contextLease.nodeId(), first.nodeId());
+        assertThat(first.isHeld()).isTrue();
+    }
+
+    @Test
+    void testRelease_freesTheNodeId() {
+        ReferenceNodeLease first = lease(-1);
+        first.release();
+
+        assertThat(first.isHeld()).isFalse();
+        ReferenceNodeLease next = lease(first.nodeId());
+        assertThat(next.nodeId()).isEqualTo(first.nodeId());
+        assertThat(next.previousIssuedUntilMillis()).isEqualTo(first.issuableUntilMillis());
+    }
+
+    @Test
+    void testExpiredLease_isTakenOverAndItsHolderStops() {
+        ReferenceNodeLease stale = lease(-1);
+        jdbcTemplate.update("UPDATE reference_node_leases SET renewed_at = now() - interval '2 minutes' WHERE node_id = ?",
+                stale.nodeId());
+
+        ReferenceNodeLease successor = lease(stale.nodeId());
+        stale.renew();
+
+        assertThat(successor.isHeld()).isTrue();
+        // The successor starts where the previous holder was last allowed to go
+        assertThat(successor.previousIssuedUntilMillis()).isEqualTo(stale.issuableUntilMillis());
+        assertThat(stale.isHeld()).isFalse();
+        assertThatThrownBy(() -> new ReferenceNumberGenerator(stale).generate(TransactionType.DEPOSIT))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private ReferenceNodeLease lease(int configuredNodeId) {
+        ReferenceNodeLease lease = new ReferenceNodeLease(jdbcTemplate, configuredNodeId, 60);
+        leases.add(lease);
+        return lease;
+    }
+}
@@ -0,0 +1,129 @@
+package com.mackena.Banking_Application_backend.util.generator;
+
+import com.mackena.Banking_Application_backend.models.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReferenceNumberGeneratorTest {
+
+    @Test
+    void testGenerate_prefixAndFixedWidth() {
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(3);
+
+        assertThat(generator.generate(TransactionType.TRANSFER)).matches("TXN[0-9A-Z]{13}");
+        assertThat(generator.generate(TransactionType.DEPOSIT)).matches("DEP[0-9A-Z]{13}");
+        assertThat(generator.generate(TransactionType.WITHDRAW)).matches("WTH[0-9A-Z]{13}");
+    }
+
+    @Test
+    void testGenerate_ordersByCreation() {
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(3);
+
+        List<String> references = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            references.add(generator.generate(TransactionType.TRANSFER));
+        }
+
+        assertThat(references).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testGenerate_uniqueAcrossThreadsAndNodes() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        ReferenceNumberGenerator nodeA = new ReferenceNumberGenerator(1);
+        ReferenceNumberGenerator nodeB = new ReferenceNumberGenerator(2);
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            ReferenceNumberGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    references.add(generator.generate(TransactionType.TRANSFER));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(references).hasSize(threads * perThread);
+    }
+
+    @Test
+    void testTimestampOf_isTheMillisecondOfGeneration() {
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        String reference = new ReferenceNumberGenerator(3).generate(TransactionType.DEPOSIT);
+        LocalDateTime after = LocalDateTime.now();
+
+        assertThat(ReferenceNumberGenerator.timestampOf(reference)).isBetween(before, after);
+        assertThatThrownBy(() -> ReferenceNumberGenerator.timestampOf("REF1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testConstructor_rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new ReferenceNumberGenerator(1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testGenerate_refusedOnceTheNodeLeaseLapses() {
+        ReferenceNodeLease lease = mock(ReferenceNodeLease.class);
+        when(lease.nodeId()).thenReturn(5);
+        when(lease.issuableUntilMillis()).thenReturn(Long.MAX_VALUE);
+        when(lease.isHeld()).thenReturn(true, false);
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(lease);
+
+        assertThat(generator.generate(TransactionType.TRANSFER)).matches("TXN[0-9A-Z]{13}");
+        assertThatThrownBy(() -> generator.generate(TransactionType.TRANSFER))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testGenerate_startsAfterThePreviousHolderOfTheNodeId() {
+        long now = System.currentTimeMillis();
+        ReferenceNodeLease lease = mock(ReferenceNodeLease.class);
+        when(lease.nodeId()).thenReturn(5);
+        when(lease.isHeld()).thenReturn(true);
+        // The previous holder's clock was ten minutes ahead of ours
+        when(lease.previousIssuedUntilMillis()).thenReturn(now + 600_000);
+        when(lease.issuableUntilMillis()).thenReturn(now + 1_200_000);
+
+        String reference = new ReferenceNumberGenerator(lease).generate(TransactionType.TRANSFER);
+
+        // Millisecond part of the id, counted from 2024-01-01
+        long millis = Long.parseLong(reference.substring(3), 36) >>> 22;
+        assertThat(millis + 1_704_067_200_000L).isGreaterThan(now + 600_000);
+    }
+
+    @Test
+    void testGenerate_refusedWhenTheClockIsPastWhatTheLeaseRecorded() {
+        ReferenceNodeLease lease = mock(ReferenceNodeLease.class);
+        when(lease.nodeId()).thenReturn(5);
+        when(lease.isHeld()).thenReturn(true);
+        when(lease.issuableUntilMillis()).thenReturn(System.currentTimeMillis() - 1_000);
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(lease);
+
+        assertThatThrownBy(() -> generator.generate(TransactionType.TRANSFER))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}